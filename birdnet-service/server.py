@@ -8,8 +8,9 @@ from pathlib import Path
 from typing import List, Optional
 
 from dotenv import load_dotenv
-from fastapi import FastAPI, HTTPException
+from fastapi import FastAPI, HTTPException, Query, Request
 from fastapi.middleware.cors import CORSMiddleware
+from fastapi.concurrency import run_in_threadpool
 from pydantic import BaseModel, Field
 
 # ---------- Forzar UTF-8 global (antes de importar birdnetlib) ----------
@@ -113,7 +114,24 @@ def analyze(req: AnalyzeRequest):
         raw = base64.b64decode(req.audio_base64)
     except Exception:
         raise HTTPException(status_code=400, detail="Invalid Base64")
-
+    return run_analysis(raw, req.min_conf, req.lat, req.lon, req.date)
+
+@app.post("/analyze/raw", response_model=AnalyzeResponse)
+async def analyze_raw(
+        request: Request,
+        min_conf: float = Query(float(os.getenv("MIN_CONFIDENCE", 0.3)), ge=0.0, le=1.0),
+        lat: Optional[float] = None,
+        lon: Optional[float] = None,
+        date: Optional[str] = Query(None, description="YYYY-MM-DD"),
+):
+    """Mismo análisis que /analyze pero con el audio como cuerpo binario (sin base64)."""
+    raw = await request.body()
+    if not raw:
+        raise HTTPException(status_code=400, detail="Empty body")
+    # el análisis es bloqueante: fuera del event loop
+    return await run_in_threadpool(run_analysis, raw, min_conf, lat, lon, date)
+
+def run_analysis(raw: bytes, min_conf: float, lat: Optional[float], lon: Optional[float], date: Optional[str]):
     # Guardar temporalmente como mp3 (sirve también para wav)
     with tempfile.NamedTemporaryFile(suffix=".mp3", delete=False) as f:
         f.write(raw)
@@ -121,9 +139,9 @@ def analyze(req: AnalyzeRequest):
 
     # Parsear fecha opcional
     date_obj = None
-    if req.date:
+    if date:
         try:
-            y, m, d = map(int, req.date.split("-"))
+            y, m, d = map(int, date.split("-"))
             date_obj = datetime(year=y, month=m, day=d)
         except Exception:
             # Si falla, seguimos sin fecha (BirdNET puede trabajar sin ella)
@@ -133,9 +151,9 @@ def analyze(req: AnalyzeRequest):
         recording = Recording(
             analyzer,
             audio_path,
-            min_conf=req.min_conf,
-            lat=req.lat,
-            lon=req.lon,
+            min_conf=min_conf,
+            lat=lat,
+            lon=lon,
             date=date_obj,
         )
         recording.analyze()
@@ -1,18 +1,14 @@
 package com.birdex.client;
 
-import com.birdex.domain.BirdnetAnalyzeRequest;
 import com.birdex.domain.BirdnetAnalyzeResponse;
-import com.birdex.domain.Detection;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
 import java.util.Map;
-
-import static com.birdex.utils.DefaultResponse.defaultResponse;
+import java.util.Optional;
 
 @Service
 @Slf4j
@@ -24,12 +20,21 @@ public class AudioAIModelClient {
         this.webClient = webClient;
     }
 
-    public BirdnetAnalyzeResponse analyze(BirdnetAnalyzeRequest req) {
-        log.info("Analyzing audio...");
+    /**
+     * Manda el audio tal cual a {@code /analyze/raw} (sin base64 ni JSON).
+     * Vacío si BirdNET falló o devolvió un status no 2xx: permite cachear sólo respuestas reales.
+     */
+    public Optional<BirdnetAnalyzeResponse> tryAnalyze(byte[] audio, Double minConf) {
+        log.info("Analyzing audio ({} bytes, raw)...", audio.length);
 
-        BirdnetAnalyzeResponse response = webClient.post()
-                .uri("/analyze")
-                .bodyValue(req)
+        return webClient.post()
+                .uri(b -> {
+                    b.path("/analyze/raw");
+                    if (minConf != null) b.queryParam("min_conf", minConf);
+                    return b.build();
+                })
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .bodyValue(audio)
                 .exchangeToMono(clientResponse -> {
                     if (clientResponse.statusCode().is2xxSuccessful()) {
                         return clientResponse.bodyToMono(BirdnetAnalyzeResponse.class);
@@ -37,25 +42,14 @@ public class AudioAIModelClient {
                         return clientResponse.bodyToMono(String.class)
                                 .defaultIfEmpty("")
                                 .doOnNext(body -> log.warn("BirdNET error {}: {}", clientResponse.statusCode(), body))
-                                .thenReturn(defaultResponse());
+                                .then(Mono.<BirdnetAnalyzeResponse>empty());
                     }
                 })
                 .onErrorResume(ex -> {
                     log.error("BirdNET call failed: {}", ex.getMessage(), ex);
-                    return reactor.core.publisher.Mono.just(defaultResponse());
+                    return Mono.empty();
                 })
-                .block();
-
-        response = coalesce(response);
-        log.info("Response: [{}]", response);
-        return response;
-    }
-
-    private BirdnetAnalyzeResponse coalesce(BirdnetAnalyzeResponse r) {
-        if (r == null || r.getDetections() == null || r.getDetections().isEmpty()) {
-            return defaultResponse();
-        }
-        return r;
+                .blockOptional();
     }
 
     public boolean health() {
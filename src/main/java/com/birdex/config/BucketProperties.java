@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "minio")
@@ -20,6 +22,8 @@ public class BucketProperties {
     @Data public static class Birds {
         private String bucket;
         private String profileObjectName;
+        /** Cada cuánto se vuelve a listar el bucket para el índice de keys en memoria. */
+        private Duration indexRefresh = Duration.ofMinutes(10);
     }
     @Data public static class Sightings {
         private String bucket;
@@ -0,0 +1,21 @@
+package com.birdex.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "birdex.detection-jobs")
+public class DetectionJobsProperties {
+    /** Hilos que ejecutan detecciones asíncronas. */
+    private int threads = 2;
+    /** Trabajos en espera; por encima se responde 429. */
+    private int queueCapacity = 32;
+    /** Cuánto se conserva un trabajo terminado para poder consultarlo. */
+    private Duration retention = Duration.ofMinutes(30);
+    /** Vida máxima de una conexión SSE esperando el resultado. */
+    private Duration sseTimeout = Duration.ofMinutes(3);
+}
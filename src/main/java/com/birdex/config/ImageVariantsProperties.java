@@ -0,0 +1,17 @@
+package com.birdex.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "birdex.image-variants")
+public class ImageVariantsProperties {
+    /** Hilos que decodifican, redimensionan y suben variantes. */
+    private int threads = 2;
+    /** Imágenes esperando variantes; por encima se descartan (se sirve el original). */
+    private int queueCapacity = 64;
+    /** Calidad JPEG de las variantes (0..1). */
+    private float quality = 0.82f;
+}
@@ -0,0 +1,17 @@
+package com.birdex.config;
+
+import com.birdex.domain.BirdnetAnalyzeResponse;
+import com.birdex.service.InferenceCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class InferenceCacheConfig {
+
+    @Bean
+    public InferenceCache<BirdnetAnalyzeResponse> audioInferenceCache(InferenceCacheProperties props,
+                                                                      MeterRegistry meterRegistry) {
+        return new InferenceCache<>("audio", props, meterRegistry);
+    }
+}
@@ -0,0 +1,17 @@
+package com.birdex.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "birdex.inference-cache")
+public class InferenceCacheProperties {
+    private boolean enabled = true;
+    /** Entradas máximas por cache (imagen, video, video multipart, audio). */
+    private int maxEntries = 2_000;
+    private Duration ttl = Duration.ofMinutes(30);
+}
@@ -0,0 +1,38 @@
+package com.birdex.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "birdex.workers")
+public class ModelWorkersProperties {
+    private String python = "python";
+
+    private Pool image = new Pool(2, 10_000);
+    private Pool video = new Pool(1, 60_000);
+    private Pool videoMultipart = new Pool(1, 60_000);
+
+    /** Micro-batching de clasificación de imágenes: junta hasta maxSize pedidos o maxWaitMs. */
+    private Batch imageBatch = new Batch(true, 8, 15);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+        private int size;
+        private int timeoutMs;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Batch {
+        private boolean enabled;
+        private int maxSize;
+        private int maxWaitMs;
+    }
+}
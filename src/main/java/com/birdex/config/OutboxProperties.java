@@ -0,0 +1,23 @@
+package com.birdex.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "birdex.outbox")
+public class OutboxProperties {
+    /** Consumidores concurrentes de eventos (cada uno procesa de a un evento por transacción). */
+    private int threads = 2;
+    /** Cada cuánto se revisa la tabla por eventos que no llegaron por aviso (reintentos, otra instancia). */
+    private Duration pollInterval = Duration.ofSeconds(10);
+    /** Intentos antes de marcar el evento como FAILED. */
+    private int maxAttempts = 5;
+    /** Espera antes del primer reintento; se duplica en cada intento. */
+    private Duration retryBackoff = Duration.ofSeconds(30);
+    /** Cuánto se conservan los eventos procesados. */
+    private Duration retention = Duration.ofDays(7);
+}
@@ -0,0 +1,23 @@
+package com.birdex.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "birdex.thumbs")
+public class ThumbnailsProperties {
+    /** Lanza la generación en segundo plano al terminar de arrancar. */
+    private boolean enabled = false;
+    /** Hilos de descarga del original (I/O contra MinIO). */
+    private int fetchThreads = 4;
+    /** Hilos de decode + resize (CPU); 0 = un hilo por core. */
+    private int resizeThreads = 0;
+    /** Hilos de subida de las variantes (I/O contra MinIO). */
+    private int uploadThreads = 4;
+    /** Aves en proceso a la vez entre las tres etapas (acota la memoria de imágenes decodificadas). */
+    private int maxInFlight = 16;
+    /** Cada cuántas aves terminadas se persiste el checkpoint. */
+    private int checkpointEvery = 20;
+}
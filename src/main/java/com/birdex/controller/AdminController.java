@@ -2,10 +2,13 @@ package com.birdex.controller;
 
 import com.birdex.config.BucketProperties;
 import com.birdex.domain.ActionReportRequest;
+import com.birdex.domain.ThumbnailJobProgress;
 import com.birdex.domain.enums.Action;
 import com.birdex.dto.ReportAdminDto;
 import com.birdex.entity.ReportEntity;
+import com.birdex.jobs.BirdThumbnailsGenerator;
 import com.birdex.entity.enums.ReportStatus;
+import com.birdex.service.BirdCatalog;
 import com.birdex.service.BucketService;
 import com.birdex.service.ReportService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -35,6 +38,8 @@ public class AdminController {
 
     private final BucketService bucketService;
     private final ReportService reportService;
+    private final BirdCatalog birdCatalog;
+    private final BirdThumbnailsGenerator birdThumbnailsGenerator;
     private final BucketProperties props;
 
     @PostMapping(value = "/{birdName}/profile", consumes = "application/json", produces = "application/json")
@@ -272,6 +277,60 @@ public class AdminController {
         return ResponseEntity.ok(dtoPage);
     }
 
+    @PostMapping("/catalog/rarities/invalidate")
+    @Operation(
+            summary = "Invalidar catálogo de rarezas",
+            description = "Descarta la rareza por ave y los puntos por rareza cacheados en memoria. "
+                    + "Usar después de modificar bird_rarity / rarity_points; se recargan en el próximo uso."
+    )
+    @ApiResponse(responseCode = "204", description = "Catálogo invalidado")
+    public ResponseEntity<Void> invalidateRarityCatalog() {
+        // el catálogo de aves guarda la rareza de cada ave: se reconstruye junto con las rarezas
+        birdCatalog.refresh();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/catalog/birds/refresh")
+    @Operation(
+            summary = "Reconstruir catálogo de aves",
+            description = "Vuelve a leer aves, rarezas, colores, zonas y olas migratorias y reemplaza el snapshot "
+                    + "en memoria de una sola vez. Usar después de modificar esas tablas."
+    )
+    @ApiResponse(responseCode = "204", description = "Catálogo reconstruido")
+    public ResponseEntity<Void> refreshBirdCatalog() {
+        birdCatalog.refresh();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping(value = "/thumbnails/progress", produces = "application/json")
+    @Operation(
+            summary = "Progreso de la generación de thumbnails",
+            description = "Estado de la pasada actual (o la última) de generación de variantes 256/600 de perfiles."
+    )
+    @ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(schema = @Schema(implementation = ThumbnailJobProgress.class)))
+    public ResponseEntity<ThumbnailJobProgress> thumbnailsProgress() {
+        return ResponseEntity.ok(birdThumbnailsGenerator.progress());
+    }
+
+    @PostMapping(value = "/thumbnails/run", produces = "application/json")
+    @Operation(
+            summary = "Lanzar generación de thumbnails",
+            description = "Inicia una pasada en segundo plano (retoma desde el checkpoint si la anterior quedó a medias). "
+                    + "Responde 409 si ya hay una corriendo."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Pasada iniciada",
+                    content = @Content(schema = @Schema(implementation = ThumbnailJobProgress.class))),
+            @ApiResponse(responseCode = "409", description = "Ya hay una pasada en curso",
+                    content = @Content(schema = @Schema(implementation = ThumbnailJobProgress.class)))
+    })
+    public ResponseEntity<ThumbnailJobProgress> runThumbnails() {
+        boolean started = birdThumbnailsGenerator.start();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(birdThumbnailsGenerator.progress());
+    }
+
     @PutMapping("/reports")
     public ResponseEntity<Void> updateReport(@RequestBody ActionReportRequest request) {
         if (Action.ACCEPT.name().equals(request.getAction())) {
@@ -13,8 +13,12 @@ import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/audio")
@@ -98,4 +102,40 @@ public class AudioController {
         Detection resp = birdnetService.analyze(request);
         return ResponseEntity.ok(resp);
     }
+
+    @PostMapping(
+            value = "/analyze",
+            consumes = {"application/octet-stream", "audio/mpeg", "audio/wav", "audio/x-wav", "audio/ogg", "audio/flac"},
+            produces = "application/json"
+    )
+    @Operation(
+            summary = "Analizar un audio (binario)",
+            description = "El audio va como cuerpo crudo (sin base64); email y min_conf como query params."
+    )
+    public ResponseEntity<Detection> analyzeBinary(
+            @org.springframework.web.bind.annotation.RequestBody byte[] audio,
+            @RequestParam("email") String email,
+            @RequestParam(name = "min_conf", defaultValue = "0.8") Double minConf,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType
+    ) {
+        String mimeType = contentType == null || contentType.startsWith("application/octet-stream") ? null : contentType;
+        return ResponseEntity.ok(birdnetService.analyzeAudio(audio, mimeType, minConf, email));
+    }
+
+    @PostMapping(value = "/analyze", consumes = "multipart/form-data", produces = "application/json")
+    @Operation(
+            summary = "Analizar un audio (multipart/form-data)",
+            description = "Subís el audio como archivo; email y min_conf como campos del form."
+    )
+    public ResponseEntity<Detection> analyzeMultipart(
+            @RequestPart("file") MultipartFile file,
+            @RequestPart("email") String email,
+            @RequestPart(name = "min_conf", required = false) Double minConf
+    ) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("El archivo de audio es obligatorio");
+        }
+        return ResponseEntity.ok(birdnetService.analyzeAudio(file.getBytes(), file.getContentType(),
+                minConf != null ? minConf : 0.8, email));
+    }
 }
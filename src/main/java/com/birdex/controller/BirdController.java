@@ -1,10 +1,13 @@
 package com.birdex.controller;
 
 
+import com.birdex.dto.BirdCatalogResponse;
 import com.birdex.dto.BirdDto;
+import com.birdex.dto.BirdFacetsResponse;
 import com.birdex.dto.BirdListItem;
 import com.birdex.dto.BirdProgressResponse;
 import com.birdex.entity.BirdSummary;
+import com.birdex.service.BirdCatalogFeedService;
 import com.birdex.service.BirdService;
 import com.birdex.dto.ErrorResponse;
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,9 +22,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/bird")
@@ -30,16 +39,20 @@ import org.springframework.web.bind.annotation.*;
 public class BirdController {
 
     private final BirdService birdService;
+    private final BirdCatalogFeedService birdCatalogFeedService;
 
-    public BirdController(BirdService birdService) {
+    public BirdController(BirdService birdService, BirdCatalogFeedService birdCatalogFeedService) {
         this.birdService = birdService;
+        this.birdCatalogFeedService = birdCatalogFeedService;
     }
 
     @Deprecated
     @GetMapping("/all")
     @Operation(
             summary = "Obtener progreso/listado de aves",
-            description = "Devuelve un resumen con perfiles de aves (para pantalla de progreso)."
+            description = "Devuelve un resumen con perfiles de aves (para pantalla de progreso). "
+                    + "Obsoleto: usar /bird/v2/all (URLs en lugar de base64). El cuerpo está precalculado "
+                    + "y se envía comprimido con gzip si el cliente lo acepta; soporta If-None-Match."
     )
     @ApiResponses({
             @ApiResponse(
@@ -59,9 +72,59 @@ public class BirdController {
             @ApiResponse(responseCode = "500", description = "Error interno",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
-    public ResponseEntity<BirdProgressResponse> getBirds() {
-        BirdProgressResponse response = birdService.getBirds();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> getBirds(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request
+    ) throws IOException {
+        BirdCatalogFeedService.CachedBody<byte[]> cached = birdCatalogFeedService.legacyProgressGzip();
+        if (request.checkNotModified(cached.etag())) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(cached.etag())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cached.body());
+        }
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(cached.body()))) {
+            return ok.body(in.readAllBytes());
+        }
+    }
+
+    @GetMapping(value = "/v2/all", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Catálogo completo de aves (v2)",
+            description = "Igual que /bird/all pero con URLs de miniatura e imagen en lugar de base64. "
+                    + "Devuelve ETag; con If-None-Match igual al último ETag responde 304 sin cuerpo."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(schema = @Schema(implementation = BirdCatalogResponse.class))),
+            @ApiResponse(responseCode = "304", description = "El catálogo no cambió desde el ETag enviado"),
+            @ApiResponse(responseCode = "500", description = "Error interno",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<BirdCatalogResponse> getCatalog(WebRequest request) {
+        BirdCatalogFeedService.CachedBody<BirdCatalogResponse> cached = birdCatalogFeedService.catalogV2();
+        if (request.checkNotModified(cached.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(cached.etag())
+                .body(cached.body());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (!tokens[0].trim().equalsIgnoreCase("gzip")) continue;
+            // "gzip;q=0" significa que no lo acepta
+            return !(tokens.length > 1 && tokens[1].trim().replace(" ", "").matches("q=0(\\.0*)?"));
+        }
+        return false;
     }
 
     @Deprecated
@@ -199,6 +262,36 @@ public class BirdController {
         return birdService.search(rarity, color, size, lenMin, lenMax, wMin, wMax, pageable);
     }
 
+    @GetMapping("/facets")
+    @Operation(
+            summary = "Conteos por faceta para la búsqueda de aves",
+            description = """
+        Mismos filtros que GET /bird. Devuelve el total de aves que cumplen todos los filtros y,
+        para cada rareza, color y tamaño, cuántas aves habría eligiendo ese valor (con el resto de los filtros aplicados).
+        """
+    )
+    @ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BirdFacetsResponse.class)))
+    public BirdFacetsResponse facets(
+            @Parameter(description = "Rareza", example = "Común")
+            @RequestParam(required = false) String rarity,
+            @Parameter(description = "Color dominante", example = "amarillo")
+            @RequestParam(required = false) String color,
+            @Parameter(description = "Tamaño", example = "Grande")
+            @RequestParam(required = false) String size,
+            @Parameter(description = "Longitud mínima (mm)", example = "180")
+            @RequestParam(required = false) Integer lengthMinMm,
+            @Parameter(description = "Longitud máxima (mm)", example = "200")
+            @RequestParam(required = false) Integer lengthMaxMm,
+            @Parameter(description = "Peso mínimo (g)", example = "40")
+            @RequestParam(required = false) Integer weightMinG,
+            @Parameter(description = "Peso máximo (g)", example = "65")
+            @RequestParam(required = false) Integer weightMaxG
+    ) {
+        return birdService.facets(rarity, color, size, lengthMinMm, lengthMaxMm, weightMinG, weightMaxG);
+    }
+
     private Sort parseSort(String sort) {
         if (sort == null || sort.isBlank()) return Sort.by(Sort.Direction.ASC, "name");
         String[] parts = sort.split(",", 2);
@@ -0,0 +1,127 @@
+package com.birdex.controller;
+
+import com.birdex.domain.BirdDetectRequest;
+import com.birdex.domain.BirdVideoDetectRequest;
+import com.birdex.domain.DetectionJobResponse;
+import com.birdex.dto.ErrorResponse;
+import com.birdex.service.DetectionJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/detect/jobs")
+@CrossOrigin(origins = "*")
+@Tag(name = "Detection Jobs", description = "Detección asíncrona: se encola y se consulta por jobId o SSE")
+@RequiredArgsConstructor
+public class DetectionJobController {
+
+    private final DetectionJobService detectionJobService;
+
+    @PostMapping(
+            path = "/image",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            summary = "Encolar detección de imagen (JSON base64)",
+            description = "Devuelve 202 con el jobId. El resultado (incluido el sightingId) se consulta en /detect/jobs/{jobId}."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Trabajo encolado",
+                    content = @Content(schema = @Schema(implementation = DetectionJobResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Cola de detección llena",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<DetectionJobResponse> submitImage(@Valid @RequestBody BirdDetectRequest request) {
+        return accepted(detectionJobService.submitImage(request));
+    }
+
+    @PostMapping(
+            path = "/video",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            summary = "Encolar detección de video (JSON base64)",
+            description = "Devuelve 202 con el jobId sin esperar al modelo ni a la subida al bucket."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Trabajo encolado",
+                    content = @Content(schema = @Schema(implementation = DetectionJobResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Cola de detección llena",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<DetectionJobResponse> submitVideo(@Valid @RequestBody BirdVideoDetectRequest request) {
+        return accepted(detectionJobService.submitVideo(request));
+    }
+
+    @PostMapping(
+            path = "/video-multipart",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            summary = "Encolar detección de video (multipart/form-data)",
+            description = "Mismos campos que /detect/video-multipart; devuelve 202 con el jobId."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Trabajo encolado",
+                    content = @Content(schema = @Schema(implementation = DetectionJobResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Request inválido",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Cola de detección llena",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<DetectionJobResponse> submitVideoMultipart(
+            @RequestPart("file") MultipartFile file,
+            @RequestPart("email") String email,
+            @RequestPart(name = "sampleFps", required = false) Integer sampleFps,
+            @RequestPart(name = "stopOnFirstAbove", required = false) Boolean stopOnFirstAbove
+    ) throws IOException {
+        return accepted(detectionJobService.submitVideoUpload(file, email, sampleFps, stopOnFirstAbove));
+    }
+
+    @GetMapping(path = "/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Consultar estado de un trabajo de detección")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(schema = @Schema(implementation = DetectionJobResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Trabajo inexistente o ya purgado",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<DetectionJobResponse> get(
+            @Parameter(description = "Identificador del trabajo") @PathVariable UUID jobId) {
+        return ResponseEntity.ok(detectionJobService.get(jobId));
+    }
+
+    @GetMapping(path = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Suscribirse al resultado por Server-Sent Events",
+            description = "Emite 'status' con el estado actual y 'done' cuando el trabajo termina (DONE o FAILED)."
+    )
+    public SseEmitter events(@Parameter(description = "Identificador del trabajo") @PathVariable UUID jobId) {
+        return detectionJobService.subscribe(jobId);
+    }
+
+    private static ResponseEntity<DetectionJobResponse> accepted(DetectionJobResponse job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/detect/jobs/" + job.getJobId()))
+                .body(job);
+    }
+}
@@ -1,44 +1,202 @@
 package com.birdex.controller;
 
+import com.birdex.dto.ErrorResponse;
+import com.birdex.dto.HeatTileResponse;
+import com.birdex.service.HeatTileService;
+import com.birdex.service.TilesArchiveService;
+import com.birdex.utils.ZeroCopy;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.springframework.core.io.FileSystemResource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
-import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @CrossOrigin(origins = "*")
 @RequestMapping("/")
-@Tag(name = "Tiles", description = "Descarga del archivo de tiles de Argentina")
+@RequiredArgsConstructor
+@Tag(name = "Tiles", description = "Archivo de tiles de Argentina y tiles de calor de avistajes")
 public class FileController {
 
-    private static final String FILE_PATH = "tiles/tiles_argentina.zip";
+    private final HeatTileService heatTileService;
+
+    private final TilesArchiveService tilesArchiveService;
 
     @GetMapping(value = "tiles", produces = "application/zip")
     @Operation(
             summary = "Descargar archivo de tiles de Argentina",
-            description = "Devuelve el archivo `tiles_argentina.zip` ubicado en la carpeta `/tiles` del proyecto."
+            description = "Devuelve el archivo `tiles_argentina.zip` ubicado en la carpeta `/tiles` del proyecto. "
+                    + "Soporta `Range` (un rango, para reanudar descargas), `If-Range`, `If-None-Match` e "
+                    + "`If-Modified-Since`."
     )
     @ApiResponse(responseCode = "200", description = "Archivo encontrado y enviado correctamente")
+    @ApiResponse(responseCode = "206", description = "Rango del archivo")
+    @ApiResponse(responseCode = "304", description = "El archivo no cambió desde el ETag/fecha enviados")
     @ApiResponse(responseCode = "404", description = "Archivo no encontrado")
-    public ResponseEntity<FileSystemResource> getTilesFile() {
-        File file = new File(FILE_PATH);
+    @ApiResponse(responseCode = "416", description = "Rango fuera del archivo")
+    public void getTilesFile(ServletWebRequest webRequest,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        Optional<TilesArchiveService.Archive> found = tilesArchiveService.archive();
+        if (found.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        TilesArchiveService.Archive archive = found.get();
+        if (webRequest.checkNotModified(archive.etag(), archive.lastModified())) {
+            return;
+        }
 
-        if (!file.exists()) {
-            return ResponseEntity.notFound().build();
+        response.setHeader(HttpHeaders.ETAG, archive.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, archive.lastModified());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=tiles_argentina.zip");
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+        long size = archive.size();
+        HttpRange range = requestedRange(request, archive);
+        if (range == null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            ZeroCopy.send(request, response, archive.path(), 0, size);
+            return;
+        }
+
+        long start;
+        long end;
+        try {
+            start = range.getRangeStart(size);
+            end = range.getRangeEnd(size);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        ZeroCopy.send(request, response, archive.path(), start, end - start + 1);
+    }
+
+    @GetMapping("tiles/{z}/{x}/{y}")
+    @Operation(
+            summary = "Tile suelto del archivo de Argentina",
+            description = "Devuelve el tile z/x/y contenido en `tiles_argentina.zip`, sin descargar el zip completo. "
+                    + "El ETag es el del archivo: cambia sólo cuando se reemplaza el zip."
+    )
+    @ApiResponse(responseCode = "200", description = "Tile encontrado")
+    @ApiResponse(responseCode = "304", description = "El archivo no cambió desde el ETag enviado")
+    @ApiResponse(responseCode = "404", description = "El archivo no existe o no contiene el tile")
+    public void getArchivedTile(
+            @Parameter(description = "Zoom", example = "10") @PathVariable int z,
+            @Parameter(description = "Columna del tile", example = "346") @PathVariable int x,
+            @Parameter(description = "Fila del tile", example = "618") @PathVariable int y,
+            ServletWebRequest webRequest,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        Optional<TilesArchiveService.Archive> archive = tilesArchiveService.archive();
+        Optional<TilesArchiveService.TileData> tile = archive.isEmpty()
+                ? Optional.empty()
+                : tilesArchiveService.tile(z, x, y);
+        if (tile.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (webRequest.checkNotModified(archive.get().etag(), archive.get().lastModified())) {
+            return;
         }
 
-        FileSystemResource resource = new FileSystemResource(file);
+        TilesArchiveService.TileData data = tile.get();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setHeader(HttpHeaders.ETAG, archive.get().etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, archive.get().lastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic().getHeaderValue());
+        response.setContentType(data.contentType());
+        if (data.isRegion()) {
+            ZeroCopy.send(request, response, archive.get().path(), data.offset(), data.length());
+        } else {
+            response.setContentLength(data.inflated().length);
+            if (!"HEAD".equalsIgnoreCase(request.getMethod())) {
+                response.getOutputStream().write(data.inflated());
+            }
+        }
+    }
 
+    /**
+     * Rango pedido, o null para enviar el archivo completo: sin Range, If-Range que no coincide con
+     * la versión actual, Range mal formado o con varios rangos (se ignora, como permite RFC 9110).
+     */
+    private static HttpRange requestedRange(HttpServletRequest request, TilesArchiveService.Archive archive) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || header.isBlank()) return null;
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.isBlank()) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                // comparación fuerte: una ETag débil nunca habilita un rango
+                if (!ifRange.equals(archive.etag())) return null;
+            } else {
+                long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+                if (date < 0 || date / 1000 != archive.lastModified() / 1000) return null;
+            }
+        }
+
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @GetMapping(value = "tiles/heat/{z}/{x}/{y}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Tile de calor de avistajes",
+            description = "Avistajes confirmados dentro del tile web mercator z/x/y, agrupados en una grilla "
+                    + "de hasta 64 x 64 celdas (nunca más finas que zoom 16). Filtrable por ave o rareza. "
+                    + "Devuelve ETag; con If-None-Match igual al último ETag responde 304 sin cuerpo."
+    )
+    @ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(schema = @Schema(implementation = HeatTileResponse.class)))
+    @ApiResponse(responseCode = "304", description = "El tile no cambió desde el ETag enviado")
+    @ApiResponse(responseCode = "404", description = "Tile fuera de rango o ave inexistente",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    public ResponseEntity<HeatTileResponse> getHeatTile(
+            @Parameter(description = "Zoom (0-22)", example = "10") @PathVariable int z,
+            @Parameter(description = "Columna del tile", example = "346") @PathVariable int x,
+            @Parameter(description = "Fila del tile", example = "618") @PathVariable int y,
+            @Parameter(description = "Nombre científico o slug del ave", example = "Turdus rufiventris")
+            @RequestParam(required = false) String bird,
+            @Parameter(description = "Rareza (p. ej. Comun, Poco comun, Raro, Epico, Legendario)", example = "Raro")
+            @RequestParam(required = false) String rarity,
+            WebRequest request
+    ) {
+        if (!HeatTileService.validTile(z, x, y)) {
+            return ResponseEntity.notFound().build();
+        }
+        HeatTileService.Tile tile = heatTileService.tile(z, x, y, bird, rarity);
+        if (request.checkNotModified(tile.etag())) {
+            return null;
+        }
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=tiles_argentina.zip")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .contentLength(file.length())
-                .body(resource);
+                .eTag(tile.etag())
+                .cacheControl(CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic())
+                .body(tile.body());
     }
 }
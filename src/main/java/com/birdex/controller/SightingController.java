@@ -3,26 +3,36 @@ package com.birdex.controller;
 import com.birdex.domain.*;
 import com.birdex.dto.SightingsForBirdResponse;
 import com.birdex.dto.ErrorResponse;
+import com.birdex.service.NearbySightingService;
 import com.birdex.service.SightingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.*;
 import io.swagger.v3.oas.annotations.responses.*;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+
 @RestController
 @RequestMapping("/sighting")
 @CrossOrigin(origins = "*")
 @RequiredArgsConstructor
+@Validated
 @Tag(name = "Sightings", description = "Registro y consulta de avistajes")
 public class SightingController {
 
     private final SightingService sightingService;
+    private final NearbySightingService nearbySightingService;
 
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -109,57 +119,118 @@ public class SightingController {
     @GetMapping("/{email}/{birdName}/all")
     @Operation(
             summary = "Avistajes propios y de otros para un ave",
-            description = "Devuelve secciones separadas: `mine` y `others`."
+            description = "Devuelve secciones separadas: `mine` y `others`, cada una paginada por cursor " +
+                    "(`mineNextCursor` / `othersNextCursor`), más reciente primero."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(schema = @Schema(implementation = SightingsForBirdResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "404", description = "Sin datos",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     public ResponseEntity<SightingsForBirdResponse> getSightingsMineAndOthers(
             @Parameter(description = "Email del usuario", example = "user@example.com") @PathVariable String email,
-            @Parameter(description = "Nombre científico del ave", example = "Turdus rufiventris") @PathVariable String birdName) {
-        return ResponseEntity.ok(sightingService.getSightingsMineAndOthers(email, birdName));
+            @Parameter(description = "Nombre científico del ave", example = "Turdus rufiventris") @PathVariable String birdName,
+            @Parameter(description = "Cursor de `mine` (`mineNextCursor` de la respuesta anterior)")
+            @RequestParam(required = false) String mineCursor,
+            @Parameter(description = "Avistajes propios por página (1-100)", example = "20")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit,
+            @Parameter(description = "Cursor de `others` (`othersNextCursor` de la respuesta anterior)")
+            @RequestParam(required = false) String othersCursor,
+            @Parameter(description = "Avistajes de otros por página (1-50): acota la respuesta en especies populares",
+                    example = "20")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(50) int othersLimit,
+            @Parameter(description = "Incluir los totales de cada sección (hace un COUNT por sección)")
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(sightingService.getSightingsMineAndOthers(
+                email, birdName, mineCursor, limit, othersCursor, othersLimit, withTotal));
     }
 
     @GetMapping("/{email}")
-    @Operation(summary = "Avistajes de un usuario")
+    @Operation(summary = "Avistajes de un usuario",
+            description = "Más reciente primero, paginado por cursor: pasá `nextCursor` como `cursor`.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(schema = @Schema(implementation = SightingByUserResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "404", description = "Usuario sin avistajes",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     public ResponseEntity<SightingByUserResponse> getSightingsByUser(
-            @Parameter(description = "Email del usuario", example = "user@example.com") @PathVariable String email) {
-        return ResponseEntity.ok(sightingService.getSightingsByUser(email));
+            @Parameter(description = "Email del usuario", example = "user@example.com") @PathVariable String email,
+            @Parameter(description = "Cursor de la página anterior (`nextCursor`)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (1-200)", example = "50")
+            @RequestParam(defaultValue = "50") @Min(1) @Max(200) int limit,
+            @Parameter(description = "Incluir el total (hace un COUNT)")
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(sightingService.getSightingsByUser(email, cursor, limit, withTotal));
     }
 
     @GetMapping("/search")
     @Operation(
             summary = "Buscar avistajes (paginado)",
-            description = "Filtra por rareza, color, zona y tamaño. Paginación por `page` y `sizePage`."
+            description = "Filtra por rareza, color y tamaño. Paginación por cursor: pasá `nextCursor` " +
+                    "como `cursor`. `page` (base 0) sigue funcionando pero se recorre con OFFSET. " +
+                    "El total sólo se calcula con `withTotal=true`."
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "OK"),
-            @ApiResponse(responseCode = "400", description = "Parámetros inválidos",
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(schema = @Schema(implementation = SightingSearchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros o cursor inválidos",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
-    public ResponseEntity<Page<SightingResponse>> searchSightings(
+    public ResponseEntity<SightingSearchResponse> searchSightings(
             @Parameter(description = "Rareza (p. ej. Comun, Poco comun, Raro, Epico, Legendario)", example = "Comun")
             @RequestParam(required = false) String rarity,
             @Parameter(description = "Color dominante", example = "Amarillo")
             @RequestParam(required = false) String color,
-            @Parameter(description = "Zona/área", example = "AMBA")
+            @Parameter(description = "Zona/área. Sin efecto: se acepta por compatibilidad", deprecated = true)
             @RequestParam(required = false) String zone,
             @Parameter(description = "Tamaño (Grande, Muy grande, Mediano, Pequeño)", example = "Grande")
             @RequestParam(required = false) String size,
-            @Parameter(description = "Número de página (base 0)", example = "0")
-            @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Tamaño de página", example = "20")
-            @RequestParam(defaultValue = "20") int sizePage
+            @Parameter(description = "Cursor de la página anterior (`nextCursor`)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Número de página (base 0, máx. 10000). Obsoleto: usar `cursor`", example = "0")
+            @RequestParam(defaultValue = "0") @Min(0) @Max(10000) int page,
+            @Parameter(description = "Tamaño de página (1-100)", example = "20")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int sizePage,
+            @Parameter(description = "Incluir el total de resultados (hace un COUNT)")
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        return ResponseEntity.ok(sightingService.searchSightings(
+                rarity, color, zone, size, cursor, page, sizePage, withTotal));
+    }
+
+    @GetMapping("/nearby")
+    @Operation(
+            summary = "Avistajes cercanos a un punto",
+            description = "Avistajes confirmados dentro del radio, del más cercano al más lejano. " +
+                    "Paginación por cursor: pasá `nextCursor` de la respuesta anterior como `cursor`."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(schema = @Schema(implementation = NearbySightingsResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros o cursor inválidos",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<NearbySightingsResponse> getNearbySightings(
+            @Parameter(description = "Latitud del centro", example = "-34.603722")
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double lat,
+            @Parameter(description = "Longitud del centro", example = "-58.381592")
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double lon,
+            @Parameter(description = "Radio en metros (máx. 50000)", example = "2000")
+            @RequestParam(defaultValue = "1000") @DecimalMin(value = "0", inclusive = false) @DecimalMax("50000") double radius,
+            @Parameter(description = "Sólo avistajes desde esta fecha/hora (ISO-8601)", example = "2025-09-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @Parameter(description = "Cursor de la página anterior (`nextCursor`)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (1-100)", example = "20")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size
     ) {
-        return ResponseEntity.ok(sightingService.searchSightings(rarity, color, zone, size, page, sizePage));
+        return ResponseEntity.ok(nearbySightingService.findNearby(lat, lon, radius, since, cursor, size));
     }
 }
@@ -7,17 +7,23 @@ import com.birdex.domain.BirdVideoDetectRequest;
 import com.birdex.domain.BirdVideoDetectResponse;
 import com.birdex.dto.ErrorResponse;
 import com.birdex.service.DetectionService;
+import com.birdex.utils.UploadSpool;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.*;
 import io.swagger.v3.oas.annotations.responses.*;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
 @RestController
 @RequestMapping("/detect")
 @CrossOrigin(origins = "*")
@@ -48,6 +54,49 @@ public class VisualAnalysisController {
         return ResponseEntity.ok(detectionService.detect(request));
     }
 
+    @PostMapping(
+            path = "/image",
+            consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.IMAGE_JPEG_VALUE,
+                    MediaType.IMAGE_PNG_VALUE, "image/webp"},
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            summary = "Detectar ave en imagen (binario)",
+            description = "La imagen va como cuerpo crudo (sin base64) y el email como query param."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(schema = @Schema(implementation = BirdDetectResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Request inválido",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<BirdDetectResponse> analyzeImageBinary(
+            @RequestBody byte[] image,
+            @RequestParam("email") String email,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType
+    ) {
+        return ResponseEntity.ok(detectionService.detectImage(image, mediaTypeOrNull(contentType), email));
+    }
+
+    @PostMapping(
+            path = "/image",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            summary = "Detectar ave en imagen (multipart/form-data)",
+            description = "Subís la imagen como archivo y el email en el form."
+    )
+    public ResponseEntity<BirdDetectResponse> analyzeImageMultipart(
+            @RequestPart("file") MultipartFile file,
+            @RequestPart("email") String email
+    ) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("El archivo de imagen es obligatorio");
+        }
+        return ResponseEntity.ok(detectionService.detectImage(file.getBytes(), file.getContentType(), email));
+    }
+
     @PostMapping(
             path = "/video",
             consumes = MediaType.APPLICATION_JSON_VALUE,
@@ -61,6 +110,58 @@ public class VisualAnalysisController {
         return ResponseEntity.ok(detectionService.detectVideo(request));
     }
 
+    @PostMapping(
+            path = "/video",
+            consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "video/mp4", "video/quicktime", "video/webm"},
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            summary = "Detectar ave en video (binario)",
+            description = "El video va como cuerpo crudo; se spoolea a disco y se procesa en streaming."
+    )
+    public ResponseEntity<BirdVideoDetectResponse> analyzeVideoBinary(
+            InputStream body,
+            @RequestParam("email") String email,
+            @RequestParam(name = "sampleFps", required = false) Integer sampleFps,
+            @RequestParam(name = "stopOnFirstAbove", required = false) Boolean stopOnFirstAbove,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType
+    ) throws IOException {
+        Path spooled = UploadSpool.spool(body, ".video");
+        try {
+            return ResponseEntity.ok(detectionService.detectVideoFile(
+                    spooled, null, mediaTypeOrNull(contentType), email, sampleFps, stopOnFirstAbove));
+        } finally {
+            UploadSpool.delete(spooled);
+        }
+    }
+
+    @PostMapping(
+            path = "/video",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            summary = "Detectar ave en video (multipart/form-data)",
+            description = "Mismo modelo que /detect/video, con el archivo como parte del form."
+    )
+    public ResponseEntity<BirdVideoDetectResponse> analyzeVideoForm(
+            @RequestPart("file") MultipartFile file,
+            @RequestPart("email") String email,
+            @RequestPart(name = "sampleFps", required = false) Integer sampleFps,
+            @RequestPart(name = "stopOnFirstAbove", required = false) Boolean stopOnFirstAbove
+    ) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("El archivo de video es obligatorio");
+        }
+        Path spooled = UploadSpool.spool(file);
+        try {
+            return ResponseEntity.ok(detectionService.detectVideoFile(
+                    spooled, file.getOriginalFilename(), file.getContentType(), email, sampleFps, stopOnFirstAbove));
+        } finally {
+            UploadSpool.delete(spooled);
+        }
+    }
+
     @PostMapping(
             path = "/video-multipart",
             consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
@@ -88,4 +189,10 @@ public class VisualAnalysisController {
                 detectionService.detectVideoMultipart(file, email, sampleFps, stopOnFirstAbove)
         );
     }
-}
\ No newline at end of file
+
+    /** application/octet-stream no dice nada del archivo: en ese caso se usa el default del servicio. */
+    private static String mediaTypeOrNull(String contentType) {
+        if (contentType == null || contentType.isBlank()) return null;
+        return contentType.startsWith(MediaType.APPLICATION_OCTET_STREAM_VALUE) ? null : contentType;
+    }
+}
@@ -3,6 +3,7 @@ package com.birdex.domain;
 import java.util.UUID;
 
 import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,4 +24,8 @@ public class BirdVideoDetectResponse {
     private double trustLevel;
 
     private UUID sightingId;
+
+    /** JPEG del frame mejor puntuado por el modelo; uso interno (poster del avistaje), no se serializa. */
+    @JsonIgnore
+    private byte[] poster;
 }
@@ -0,0 +1,46 @@
+package com.birdex.domain;
+
+import com.birdex.dto.enums.DetectionJobStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "DetectionJobResponse", description = "Estado de un trabajo de detección asíncrono")
+public class DetectionJobResponse {
+
+    @Schema(description = "Identificador del trabajo", example = "3f1c2b9a-8d7e-4c1b-9a55-0f2e6d4b7a11")
+    private UUID jobId;
+
+    @Schema(description = "Tipo de detección", example = "VIDEO")
+    private String type;
+
+    @Schema(description = "Estado del trabajo", example = "DONE")
+    private DetectionJobStatus status;
+
+    @Schema(description = "Etiqueta de especie detectada (cuando terminó bien)", example = "Turdus rufiventris")
+    private String label;
+
+    @Schema(description = "Nivel de confianza (0..1)", example = "0.91")
+    private Double trustLevel;
+
+    @Schema(description = "Avistamiento PENDING creado por la detección", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID sightingId;
+
+    @Schema(description = "Motivo del fallo (status=FAILED)")
+    private String error;
+
+    private OffsetDateTime createdAt;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+}
@@ -0,0 +1,39 @@
+package com.birdex.domain;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@Schema(name = "NearbySightingItem", description = "Avistaje cercano a un punto")
+public class NearbySightingItem {
+
+    @Schema(description = "ID del avistaje", example = "a57f19f5-0e8b-4d8d-b2e0-23a749d26d1a")
+    private UUID sightingId;
+
+    @Schema(description = "Nombre científico", example = "Turdus rufiventris")
+    private String birdName;
+
+    @Schema(description = "Nombre común", example = "Zorzal colorado")
+    private String commonName;
+
+    @Schema(description = "Rareza (p. ej. Comun, Poco comun, Raro, Epico, Legendario)", example = "Comun")
+    private String rarity;
+
+    @Schema(description = "Fecha/hora del avistaje", example = "2025-09-06T17:07:45")
+    private LocalDateTime dateTime;
+
+    @Schema(description = "Latitud del avistaje", example = "-34.603722")
+    private BigDecimal latitude;
+
+    @Schema(description = "Longitud del avistaje", example = "-58.381592")
+    private BigDecimal longitude;
+
+    @Schema(description = "Distancia al punto consultado, en metros", example = "412.7")
+    private double distanceMeters;
+}
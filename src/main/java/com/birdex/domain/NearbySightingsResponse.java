@@ -0,0 +1,19 @@
+package com.birdex.domain;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(name = "NearbySightingsResponse", description = "Página de avistajes cercanos, del más cercano al más lejano")
+public class NearbySightingsResponse {
+
+    @Schema(description = "Avistajes de la página")
+    private List<NearbySightingItem> items;
+
+    @Schema(description = "Cursor para pedir la página siguiente (null si no hay más)", example = "QHmWZmZmZmaldBn1Do1NjrLgI6dJ0m0a")
+    private String nextCursor;
+}
@@ -12,4 +12,10 @@ import java.util.List;
 public class SightingByUserResponse {
     @ArraySchema(arraySchema = @Schema(description = "Listado del usuario"))
     private List<SightingResponse> sightingResponseList;
+
+    @Schema(description = "Cursor para pedir la página siguiente (null si no hay más)")
+    private String nextCursor;
+
+    @Schema(description = "Total de avistajes del usuario (sólo con withTotal=true)", example = "87")
+    private Long totalElements;
 }
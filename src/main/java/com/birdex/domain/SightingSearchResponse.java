@@ -0,0 +1,32 @@
+package com.birdex.domain;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(name = "SightingSearchResponse", description = "Página de la búsqueda de avistajes, más reciente primero")
+public class SightingSearchResponse {
+
+    @ArraySchema(arraySchema = @Schema(description = "Avistajes de la página"))
+    private List<SightingResponse> content;
+
+    @Schema(description = "Tamaño de página pedido", example = "20")
+    private int size;
+
+    @Schema(description = "Cantidad de avistajes en esta página", example = "20")
+    private int numberOfElements;
+
+    @Schema(description = "true si no hay más páginas", example = "false")
+    private boolean last;
+
+    @Schema(description = "Cursor para pedir la página siguiente (null si no hay más)")
+    private String nextCursor;
+
+    @Schema(description = "Total de avistajes que cumplen los filtros (sólo con withTotal=true)", example = "1250")
+    private Long totalElements;
+}
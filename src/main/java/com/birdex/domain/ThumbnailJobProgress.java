@@ -0,0 +1,52 @@
+package com.birdex.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "ThumbnailJobProgress", description = "Progreso de la generación de thumbnails de perfiles de aves")
+public class ThumbnailJobProgress {
+
+    @Schema(description = "IDLE, RUNNING, DONE o FAILED", example = "RUNNING")
+    private String status;
+
+    @Schema(description = "Aves a procesar en esta pasada (sin las ya cubiertas por el checkpoint)", example = "480")
+    private int total;
+
+    @Schema(description = "Aves terminadas en esta pasada", example = "125")
+    private int processed;
+
+    @Schema(description = "Aves con al menos una variante generada", example = "40")
+    private int ok;
+
+    @Schema(description = "Aves que ya tenían las dos variantes", example = "80")
+    private int skipped;
+
+    @Schema(description = "Aves sin imagen fuente o no decodificable", example = "3")
+    private int missing;
+
+    @Schema(description = "Aves que fallaron", example = "2")
+    private int errors;
+
+    @Schema(description = "Checkpoint desde el que se retomó (null = desde el principio)", example = "Pitangus sulphuratus")
+    private String resumedAfter;
+
+    @Schema(description = "Última ave persistida en el checkpoint", example = "Turdus amaurochalinus")
+    private String checkpoint;
+
+    @Schema(description = "Motivo del fallo (status=FAILED)")
+    private String error;
+
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+}
@@ -0,0 +1,34 @@
+package com.birdex.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data @Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "BirdCatalogItem", description = "Ave del catálogo con URLs públicas de su foto de perfil")
+public class BirdCatalogItem {
+
+    @Schema(description = "ID", example = "6c8a0a7d-1cfc-4d13-9e4c-91b2d3f4b9d1")
+    private UUID birdId;
+
+    @Schema(description = "Nombre científico", example = "Turdus rufiventris")
+    private String name;
+
+    @Schema(description = "Nombre común", example = "Zorzal colorado")
+    private String commonName;
+
+    @Schema(description = "Rareza", example = "Común")
+    private String rarity;
+
+    @Schema(description = "Miniatura ~256px", example = "http://localhost:9100/birds/turdus-rufiventris/profile_256.jpg")
+    private String thumbUrl;
+
+    @Schema(description = "Imagen ~600px", example = "http://localhost:9100/birds/turdus-rufiventris/profile_600.jpg")
+    private String imageUrl;
+}
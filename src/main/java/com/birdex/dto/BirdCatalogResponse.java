@@ -0,0 +1,21 @@
+package com.birdex.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data @Builder @AllArgsConstructor @NoArgsConstructor
+@Schema(name = "BirdCatalogResponse", description = "Catálogo completo de aves (v2: URLs en lugar de base64)")
+public class BirdCatalogResponse {
+
+    @Schema(description = "Huella del catálogo; es el mismo valor que el header ETag", example = "9f86d081884c7d65")
+    private String version;
+
+    @ArraySchema(arraySchema = @Schema(description = "Aves"), schema = @Schema(implementation = BirdCatalogItem.class))
+    private List<BirdCatalogItem> list;
+}
@@ -0,0 +1,32 @@
+package com.birdex.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Schema(name = "BirdFacetsResponse", description = "Conteo de aves por valor de cada filtro de búsqueda")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BirdFacetsResponse {
+
+    @Schema(description = "Aves que cumplen todos los filtros", example = "42")
+    private int total;
+
+    @Schema(description = "Aves por rareza (aplicando el resto de los filtros)",
+            example = "{\"Común\": 30, \"Raro\": 8, \"Épico\": 4}")
+    private Map<String, Integer> rarity;
+
+    @Schema(description = "Aves por color (aplicando el resto de los filtros)",
+            example = "{\"Amarillo\": 12, \"Gris\": 20}")
+    private Map<String, Integer> color;
+
+    @Schema(description = "Aves por tamaño (aplicando el resto de los filtros)",
+            example = "{\"Grande\": 10, \"Mediano\": 25, \"Pequeño\": 7}")
+    private Map<String, Integer> size;
+}
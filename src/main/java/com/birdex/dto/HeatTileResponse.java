@@ -0,0 +1,32 @@
+package com.birdex.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(name = "HeatTileResponse", description = "Avistajes confirmados de un tile, agrupados en celdas")
+public class HeatTileResponse {
+
+    @Schema(description = "Zoom del tile", example = "10")
+    private int z;
+
+    @Schema(description = "Columna del tile", example = "346")
+    private int x;
+
+    @Schema(description = "Fila del tile", example = "618")
+    private int y;
+
+    @Schema(description = "Zoom al que están expresadas las celdas (cada celda es un tile de ese zoom)", example = "16")
+    private int binZoom;
+
+    @Schema(description = "Total de avistajes del tile", example = "128")
+    private long total;
+
+    @Schema(description = "Celdas con avistajes como [x, y, cantidad], con x/y absolutos en binZoom",
+            example = "[[22144, 39552, 12], [22145, 39552, 3]]")
+    private List<long[]> bins;
+}
@@ -26,4 +26,16 @@ public class SightingsForBirdResponse {
 
     @ArraySchema(arraySchema = @Schema(description = "Avistajes de otros usuarios"))
     private List<SightingFullResponse> others;
+
+    @Schema(description = "Cursor para la página siguiente de `mine` (null si no hay más)")
+    private String mineNextCursor;
+
+    @Schema(description = "Cursor para la página siguiente de `others` (null si no hay más)")
+    private String othersNextCursor;
+
+    @Schema(description = "Total de avistajes propios (sólo con withTotal=true)", example = "4")
+    private Long mineTotal;
+
+    @Schema(description = "Total de avistajes de otros usuarios (sólo con withTotal=true)", example = "1830")
+    private Long othersTotal;
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.birdex.dto.enums;
+
+public enum DetectionJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == DONE || this == FAILED;
+    }
+}
@@ -0,0 +1,8 @@
+package com.birdex.entity;
+
+import java.util.UUID;
+
+public interface BirdColorView {
+    UUID getBirdId();
+    String getColor();
+}
@@ -0,0 +1,9 @@
+package com.birdex.entity;
+
+import java.util.UUID;
+
+public interface BirdRarityView {
+    UUID getBirdId();
+    String getBirdName();
+    String getRarity();
+}
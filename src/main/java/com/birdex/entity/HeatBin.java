@@ -0,0 +1,8 @@
+package com.birdex.entity;
+
+/** Celda de un tile de calor: coordenadas absolutas al zoom de las celdas y cantidad de avistajes. */
+public interface HeatBin {
+    int getX();
+    int getY();
+    long getSightings();
+}
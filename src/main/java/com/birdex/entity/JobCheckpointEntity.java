@@ -0,0 +1,42 @@
+package com.birdex.entity;
+
+import com.birdex.entity.enums.CheckpointStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+@Table(name = "job_checkpoints")
+public class JobCheckpointEntity {
+
+    @Id
+    @Column(name = "job_name", nullable = false, updatable = false, length = 64)
+    private String jobName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private CheckpointStatus status;
+
+    /** Última clave procesada (en orden) sin huecos antes; null = desde el principio. */
+    @Column(name = "last_key")
+    private String lastKey;
+
+    @Column(name = "processed", nullable = false)
+    private int processed;
+
+    @Column(name = "total", nullable = false)
+    private int total;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,6 @@
+package com.birdex.entity;
+
+public interface RarityPointsView {
+    String getRarity();
+    Integer getPoints();
+}
@@ -0,0 +1,7 @@
+package com.birdex.entity;
+
+/** Resultado de una tanda de limpieza: celdas revisadas y avistajes borrados. */
+public interface SightingCleanupBatch {
+    long getCells();
+    long getDeleted();
+}
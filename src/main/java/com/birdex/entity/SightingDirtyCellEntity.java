@@ -0,0 +1,24 @@
+package com.birdex.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * (ave, celda de ~250 m) con avistajes nuevos o modificados desde la última limpieza.
+ * La llena el trigger {@code trg_sightings_mark_dirty}; la consume {@code SightingCleanupJob}.
+ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+@Table(name = "sighting_dirty_cells")
+public class SightingDirtyCellEntity {
+
+    @EmbeddedId
+    private SightingDirtyCellId id;
+
+    @Column(name = "marked_at", nullable = false)
+    private LocalDateTime markedAt;
+}
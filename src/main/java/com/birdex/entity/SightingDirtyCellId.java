@@ -0,0 +1,20 @@
+package com.birdex.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SightingDirtyCellId implements Serializable {
+    @Column(name = "bird_id", nullable = false)
+    private UUID birdId;
+
+    @Column(name = "cell_id", nullable = false)
+    private Long cellId;
+}
@@ -17,6 +17,7 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+// Los índices parciales (WHERE deleted = FALSE ...) se definen sólo en scripts/bird_insert.sql
 @Table(
         name = "sightings",
         indexes = {
@@ -39,6 +40,14 @@ public class SightingEntity {
     @Column(name = "longitude", nullable = false, precision = 9, scale = 6)
     private BigDecimal longitude;
 
+    /** Celda de ~250 m ({@link com.birdex.utils.GeoCells}); se calcula al confirmar. */
+    @Column(name = "cell_id")
+    private Long cellId;
+
+    /** Geohash de 9 caracteres ({@link com.birdex.utils.GeoHash}) para la búsqueda por cercanía. */
+    @Column(name = "geohash", length = 12)
+    private String geohash;
+
     @Column(name = "location_text")
     private String locationText;
 
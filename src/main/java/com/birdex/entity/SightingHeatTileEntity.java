@@ -0,0 +1,25 @@
+package com.birdex.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Avistajes confirmados de un ave en un tile web mercator de zoom 16.
+ * La mantiene el trigger {@code trg_sightings_heat}; la lee {@code HeatTileService}.
+ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+@Table(
+        name = "sighting_heat_tiles",
+        indexes = @Index(name = "idx_sighting_heat_tiles_xy", columnList = "tile_x, tile_y")
+)
+public class SightingHeatTileEntity {
+
+    @EmbeddedId
+    private SightingHeatTileId id;
+
+    @Column(name = "sightings", nullable = false)
+    private int sightings;
+}
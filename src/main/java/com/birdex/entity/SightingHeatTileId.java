@@ -0,0 +1,23 @@
+package com.birdex.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SightingHeatTileId implements Serializable {
+    @Column(name = "bird_id", nullable = false)
+    private UUID birdId;
+
+    @Column(name = "tile_x", nullable = false)
+    private Integer tileX;
+
+    @Column(name = "tile_y", nullable = false)
+    private Integer tileY;
+}
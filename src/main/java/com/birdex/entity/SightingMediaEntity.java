@@ -0,0 +1,66 @@
+package com.birdex.entity;
+
+import com.birdex.entity.enums.MediaKind;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(
+        name = "sighting_media",
+        indexes = {
+                @Index(name = "idx_sighting_media_sighting", columnList = "sighting_id, created_at")
+        }
+)
+public class SightingMediaEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "media_id", nullable = false, updatable = false)
+    private UUID mediaId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "sighting_id", nullable = false)
+    private SightingEntity sighting;
+
+    @Column(name = "object_key", nullable = false, unique = true)
+    private String objectKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 10)
+    private MediaKind kind;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    /** Variante ~256px (de la imagen, o del poster en videos); null mientras no exista. */
+    @Column(name = "thumb_key")
+    private String thumbKey;
+
+    /** Variante ~600px (sólo imágenes); null mientras no exista. */
+    @Column(name = "medium_key")
+    private String mediumKey;
+
+    /** Poster de videos/audio; null mientras no exista. */
+    @Column(name = "poster_key")
+    private String posterKey;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
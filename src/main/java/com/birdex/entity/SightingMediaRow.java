@@ -0,0 +1,15 @@
+package com.birdex.entity;
+
+import com.birdex.entity.enums.MediaKind;
+
+import java.util.UUID;
+
+/** Proyección liviana de sighting_media para armar URLs sin cargar la entidad completa. */
+public interface SightingMediaRow {
+    UUID getSightingId();
+    String getObjectKey();
+    MediaKind getKind();
+    String getThumbKey();
+    String getMediumKey();
+    String getPosterKey();
+}
@@ -0,0 +1,8 @@
+package com.birdex.entity.enums;
+
+public enum CheckpointStatus {
+    /** El trabajo empezó y no terminó: el próximo arranque retoma desde last_key. */
+    RUNNING,
+    /** Terminó la pasada completa: el próximo arranque empieza de cero. */
+    DONE
+}
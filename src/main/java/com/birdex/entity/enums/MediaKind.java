@@ -0,0 +1,13 @@
+package com.birdex.entity.enums;
+
+public enum MediaKind {
+    IMAGE, VIDEO, AUDIO;
+
+    public static MediaKind fromContentType(String contentType) {
+        if (contentType == null) return IMAGE;
+        String ct = contentType.trim().toLowerCase();
+        if (ct.startsWith("video/")) return VIDEO;
+        if (ct.startsWith("audio/")) return AUDIO;
+        return IMAGE;
+    }
+}
@@ -0,0 +1,6 @@
+package com.birdex.entity.enums;
+
+public enum OutboxEventType {
+    /** Un avistaje pasó a CONFIRMED; aggregate_id = sighting_id. */
+    SIGHTING_CONFIRMED
+}
@@ -0,0 +1,10 @@
+package com.birdex.entity.enums;
+
+public enum OutboxStatus {
+    /** Por procesar (o reintentar a partir de available_at). */
+    PENDING,
+    /** Efectos aplicados. */
+    DONE,
+    /** Agotó los reintentos: queda para revisar a mano. */
+    FAILED
+}
@@ -107,6 +107,42 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
     }
 
+    @ExceptionHandler(JobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleJobNotFound(JobNotFoundException ex, HttpServletRequest req) {
+        ErrorResponse body = baseBuilder(HttpStatus.NOT_FOUND, "JOB_NOT_FOUND", ex.getMessage(), req)
+                .details(Map.of("jobId", ex.getJobId()))
+                .build();
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(InvalidCursorException ex, HttpServletRequest req) {
+        ErrorResponse body = baseBuilder(HttpStatus.BAD_REQUEST, "INVALID_CURSOR", ex.getMessage(), req)
+                .details(Map.of("cursor", String.valueOf(ex.getCursor())))
+                .build();
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    @ExceptionHandler(JobQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleJobQueueFull(JobQueueFullException ex, HttpServletRequest req) {
+        log.warn("Detection queue full ({} waiting)", ex.getQueueCapacity());
+        ErrorResponse body = baseBuilder(HttpStatus.TOO_MANY_REQUESTS, "JOB_QUEUE_FULL", ex.getMessage(), req)
+                .details(Map.of("queueCapacity", ex.getQueueCapacity()))
+                .build();
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", "5")
+                .body(body);
+    }
+
+    @ExceptionHandler(WorkerTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleWorkerTimeout(WorkerTimeoutException ex, HttpServletRequest req) {
+        log.warn("Model worker timeout: {}", ex.getMessage());
+        ErrorResponse body = baseBuilder(HttpStatus.GATEWAY_TIMEOUT, "MODEL_TIMEOUT", ex.getMessage(), req)
+                .details(Map.of("worker", ex.getWorker(), "timeoutMs", ex.getTimeoutMs()))
+                .build();
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(body);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneric(Exception ex, HttpServletRequest req) {
         log.error("Unhandled exception", ex);
@@ -0,0 +1,17 @@
+package com.birdex.exception;
+
+import java.util.UUID;
+
+public class JobNotFoundException extends RuntimeException {
+
+    private final UUID jobId;
+
+    public JobNotFoundException(UUID jobId) {
+        super("Detection job not found: " + jobId);
+        this.jobId = jobId;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+}
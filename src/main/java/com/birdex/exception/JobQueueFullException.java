@@ -0,0 +1,15 @@
+package com.birdex.exception;
+
+public class JobQueueFullException extends RuntimeException {
+
+    private final int queueCapacity;
+
+    public JobQueueFullException(int queueCapacity) {
+        super("Detection queue is full (" + queueCapacity + " jobs waiting), retry later");
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+}
@@ -0,0 +1,21 @@
+package com.birdex.exception;
+
+public class WorkerTimeoutException extends RuntimeException {
+
+    private final String worker;
+    private final int timeoutMs;
+
+    public WorkerTimeoutException(String worker, int timeoutMs) {
+        super("Worker " + worker + " did not answer within " + timeoutMs + " ms");
+        this.worker = worker;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public String getWorker() {
+        return worker;
+    }
+
+    public int getTimeoutMs() {
+        return timeoutMs;
+    }
+}
@@ -1,13 +1,20 @@
 package com.birdex.jobs;
 
+import com.birdex.config.ThumbnailsProperties;
+import com.birdex.domain.ThumbnailJobProgress;
+import com.birdex.entity.BirdNamesView;
+import com.birdex.entity.JobCheckpointEntity;
+import com.birdex.entity.enums.CheckpointStatus;
 import com.birdex.repository.BirdRepository;
+import com.birdex.repository.JobCheckpointRepository;
 import com.birdex.service.BucketService;
 import com.birdex.utils.Slugs;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.coobird.thumbnailator.Thumbnails;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import javax.imageio.ImageIO;
@@ -15,76 +22,319 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Genera las variantes JPEG 256/600 de los perfiles de aves en segundo plano, en tres etapas con
+ * su propio executor: descarga del original (I/O), decode + resize (CPU) y subida (I/O).
+ * Un semáforo acota las aves en vuelo entre etapas, así la memoria no crece con el catálogo.
+ * Las aves se procesan en orden de nombre y se persiste en {@code job_checkpoints} la última ave
+ * terminada sin huecos antes: si la app se reinicia a mitad de camino, se retoma desde ahí.
+ */
 @Component
-@ConditionalOnProperty(name = "birdex.thumbs.enabled", havingValue = "true", matchIfMissing = false)
 @RequiredArgsConstructor
 @Slf4j
-public class BirdThumbnailsGenerator implements CommandLineRunner {
+public class BirdThumbnailsGenerator {
+
+    static final String JOB_NAME = "bird-thumbnails";
 
     private final BirdRepository birdRepository;
     private final BucketService bucketService;
+    private final JobCheckpointRepository checkpointRepository;
+    private final ThumbnailsProperties props;
 
     private static final String CT_JPEG = "image/jpeg";
     private static final String CACHE = "public, max-age=31536000, immutable";
 
-    @Override
-    public void run(String... args) {
-        var birds = birdRepository.findAllProjectedBy();
-        int ok = 0, skipped = 0, missing = 0, errors = 0;
+    private enum Outcome {OK, SKIPPED, MISSING}
+
+    /** Un ave pasando por las etapas; cada etapa completa lo que le toca. */
+    private static final class Item {
+        final int index;
+        final String name;
+        final String key256;
+        final String key600;
+        boolean has256;
+        boolean has600;
+        byte[] source;
+        byte[] out256;
+        byte[] out600;
+        Outcome outcome;
 
-        log.info("=== Generando thumbnails JPEG para {} aves ===", birds.size());
-        for (var b : birds) {
-            String name = b.getName();
+        Item(int index, String name) {
+            this.index = index;
+            this.name = name;
             String slug = Slugs.of(name);
+            this.key256 = slug + "/profile_256.jpg";
+            this.key600 = slug + "/profile_600.jpg";
+        }
+    }
+
+    /** Estado de una pasada; se reemplaza entero al lanzar otra. */
+    private static final class Run {
+        final OffsetDateTime startedAt = now();
+        final String resumedAfter;
+        final List<String> names;
+        final boolean[] finished;
+        final AtomicInteger processed = new AtomicInteger();
+        final AtomicInteger ok = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicInteger missing = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        /** Primera posición todavía no terminada: todo lo anterior se puede checkpointear. */
+        int watermark;
+        volatile String status = "RUNNING";
+        volatile String checkpoint;
+        volatile String error;
+        volatile OffsetDateTime finishedAt;
+
+        Run(String resumedAfter, List<String> names) {
+            this.resumedAfter = resumedAfter;
+            this.names = names;
+            this.finished = new boolean[names.size()];
+            this.checkpoint = resumedAfter;
+        }
+
+        /** Marca una posición terminada y devuelve la última clave contigua terminada. */
+        synchronized String complete(int index) {
+            finished[index] = true;
+            while (watermark < finished.length && finished[watermark]) watermark++;
+            return watermark > 0 ? names.get(watermark - 1) : resumedAfter;
+        }
+    }
+
+    private volatile Run current;
+    private volatile boolean stopping;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (props.isEnabled()) start();
+    }
+
+    /** Lanza una pasada en segundo plano; false si ya hay una corriendo. */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) return false;
+        Thread t = new Thread(this::runSafely, "thumbs-pipeline");
+        t.setDaemon(true);
+        t.start();
+        return true;
+    }
 
-            try {
-                String key256 = slug + "/profile_256.jpg";
-                String key600 = slug + "/profile_600.jpg";
-
-                boolean has256 = bucketService.birdsObjectExists(key256);
-                boolean has600 = bucketService.birdsObjectExists(key600);
-                if (has256 && has600) {
-                    skipped++;
-                    continue;
-                }
-
-                String legacyKey = bucketService.resolveExistingProfileKey(name);
-                byte[] src = bucketService.readBirdObject(legacyKey);
-                if (src == null || src.length == 0) {
-                    log.warn("Sin imagen fuente para {} (key: {})", name, legacyKey);
-                    missing++;
-                    continue;
-                }
-
-                BufferedImage img;
-                try (var in = new ByteArrayInputStream(src)) {
-                    img = ImageIO.read(in);
-                }
-                if (img == null) {
-                    log.warn("No se pudo decodificar imagen de {}", legacyKey);
-                    missing++;
-                    continue;
-                }
-
-                if (!has256) {
-                    byte[] out256 = resizeToJpeg(img, 256);
-                    bucketService.uploadBirdObject(key256, out256, CT_JPEG, CACHE);
-                }
-                if (!has600) {
-                    byte[] out600 = resizeToJpeg(img, 600);
-                    bucketService.uploadBirdObject(key600, out600, CT_JPEG, CACHE);
-                }
-
-                ok++;
-            } catch (Exception e) {
-                errors++;
-                log.error("Error generando thumbnails para '{}': {}", name, e.getMessage(), e);
+    public ThumbnailJobProgress progress() {
+        Run r = current;
+        if (r == null) {
+            return ThumbnailJobProgress.builder().status("IDLE").build();
+        }
+        return ThumbnailJobProgress.builder()
+                .status(r.status)
+                .total(r.names.size())
+                .processed(r.processed.get())
+                .ok(r.ok.get())
+                .skipped(r.skipped.get())
+                .missing(r.missing.get())
+                .errors(r.errors.get())
+                .resumedAfter(r.resumedAfter)
+                .checkpoint(r.checkpoint)
+                .error(r.error)
+                .startedAt(r.startedAt)
+                .finishedAt(r.finishedAt)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // el checkpoint queda en RUNNING: el próximo arranque retoma desde ahí
+        stopping = true;
+    }
+
+    /* ============== pasada ============== */
+
+    private void runSafely() {
+        Run run = null;
+        try {
+            run = prepare();
+            current = run;
+            execute(run);
+        } catch (Exception e) {
+            if (run != null) {
+                run.error = e.getMessage();
+                run.status = "FAILED";
+                run.finishedAt = now();
             }
+            log.error("=== Thumbnails: la pasada falló: {} ===", e.getMessage(), e);
+        } finally {
+            running.set(false);
         }
+    }
+
+    private Run prepare() {
+        JobCheckpointEntity cp = checkpointRepository.findById(JOB_NAME).orElse(null);
+        String resumeAfter = cp != null && cp.getStatus() == CheckpointStatus.RUNNING ? cp.getLastKey() : null;
 
+        List<String> names = birdRepository.findAllProjectedBy().stream()
+                .map(BirdNamesView::getName)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .filter(n -> resumeAfter == null || n.compareTo(resumeAfter) > 0)
+                .toList();
+        return new Run(resumeAfter, names);
+    }
+
+    private void execute(Run run) throws InterruptedException {
+        int total = run.names.size();
+        if (run.resumedAfter != null) {
+            log.info("=== Thumbnails: retomando después de '{}' ({} aves pendientes) ===", run.resumedAfter, total);
+        } else {
+            log.info("=== Generando thumbnails JPEG para {} aves ===", total);
+        }
+        saveCheckpoint(run, CheckpointStatus.RUNNING, run.resumedAfter);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int resizeThreads = props.getResizeThreads() > 0 ? props.getResizeThreads() : cores;
+        ExecutorService fetchPool = pool("thumbs-fetch", props.getFetchThreads());
+        ExecutorService resizePool = pool("thumbs-resize", resizeThreads);
+        ExecutorService uploadPool = pool("thumbs-upload", props.getUploadThreads());
+        int maxInFlight = Math.max(1, props.getMaxInFlight());
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        int every = Math.max(1, props.getCheckpointEvery());
+
+        try {
+            for (int i = 0; i < total && !stopping; i++) {
+                inFlight.acquire();
+                Item item = new Item(i, run.names.get(i));
+                CompletableFuture
+                        .runAsync(() -> fetch(item), fetchPool)
+                        .thenRunAsync(() -> resize(item), resizePool)
+                        .thenRunAsync(() -> upload(item), uploadPool)
+                        .whenComplete((v, ex) -> {
+                            try {
+                                finish(run, item, ex, every);
+                            } finally {
+                                inFlight.release();
+                            }
+                        });
+            }
+            // espera a que se vacíe el pipeline
+            inFlight.acquire(maxInFlight);
+        } finally {
+            fetchPool.shutdownNow();
+            resizePool.shutdownNow();
+            uploadPool.shutdownNow();
+        }
+
+        if (stopping) {
+            log.info("=== Thumbnails: detenido en '{}' ({} de {}); se retoma en el próximo arranque ===",
+                    run.checkpoint, run.processed.get(), total);
+            return;
+        }
+        saveCheckpoint(run, CheckpointStatus.DONE, null);
+        run.status = "DONE";
+        run.finishedAt = now();
         log.info("=== Thumbnails: ok={}, skipped(existing)={}, missingSource={}, errors={} ===",
-                ok, skipped, missing, errors);
+                run.ok.get(), run.skipped.get(), run.missing.get(), run.errors.get());
+    }
+
+    private void finish(Run run, Item item, Throwable ex, int every) {
+        if (ex != null) {
+            run.errors.incrementAndGet();
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            log.error("Error generando thumbnails para '{}': {}", item.name, cause.getMessage(), cause);
+        } else {
+            switch (item.outcome) {
+                case OK -> run.ok.incrementAndGet();
+                case SKIPPED -> run.skipped.incrementAndGet();
+                case MISSING -> run.missing.incrementAndGet();
+            }
+        }
+        // liberar las imágenes antes de que el ítem salga del pipeline
+        item.source = item.out256 = item.out600 = null;
+
+        String contiguous = run.complete(item.index);
+        if (run.processed.incrementAndGet() % every == 0) {
+            saveCheckpoint(run, CheckpointStatus.RUNNING, contiguous);
+        }
+    }
+
+    /* ============== etapas ============== */
+
+    private void fetch(Item item) {
+        item.has256 = bucketService.birdsObjectExists(item.key256);
+        item.has600 = bucketService.birdsObjectExists(item.key600);
+        if (item.has256 && item.has600) {
+            item.outcome = Outcome.SKIPPED;
+            return;
+        }
+
+        String legacyKey = bucketService.resolveExistingProfileKey(item.name);
+        byte[] src = bucketService.readBirdObject(legacyKey);
+        if (src == null || src.length == 0) {
+            log.warn("Sin imagen fuente para {} (key: {})", item.name, legacyKey);
+            item.outcome = Outcome.MISSING;
+            return;
+        }
+        item.source = src;
+    }
+
+    private void resize(Item item) {
+        if (item.outcome != null) return;
+        try {
+            BufferedImage img;
+            try (var in = new ByteArrayInputStream(item.source)) {
+                img = ImageIO.read(in);
+            }
+            item.source = null;
+            if (img == null) {
+                log.warn("No se pudo decodificar la imagen de perfil de {}", item.name);
+                item.outcome = Outcome.MISSING;
+                return;
+            }
+            if (!item.has256) item.out256 = resizeToJpeg(img, 256);
+            if (!item.has600) item.out600 = resizeToJpeg(img, 600);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void upload(Item item) {
+        if (item.outcome != null) return;
+        if (item.out256 != null) bucketService.uploadBirdObject(item.key256, item.out256, CT_JPEG, CACHE);
+        if (item.out600 != null) bucketService.uploadBirdObject(item.key600, item.out600, CT_JPEG, CACHE);
+        item.outcome = Outcome.OK;
+    }
+
+    /* ============== helpers ============== */
+
+    private synchronized void saveCheckpoint(Run run, CheckpointStatus status, String lastKey) {
+        try {
+            JobCheckpointEntity cp = checkpointRepository.findById(JOB_NAME)
+                    .orElseGet(() -> JobCheckpointEntity.builder().jobName(JOB_NAME).build());
+            cp.setStatus(status);
+            cp.setLastKey(lastKey);
+            cp.setProcessed(run.processed.get());
+            cp.setTotal(run.names.size());
+            checkpointRepository.save(cp);
+            run.checkpoint = lastKey;
+        } catch (Exception e) {
+            // sin checkpoint la pasada sigue; sólo se pierde la posibilidad de retomar desde acá
+            log.warn("No se pudo guardar el checkpoint de thumbnails: {}", e.getMessage());
+        }
+    }
+
+    private static ExecutorService pool(String name, int threads) {
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, name + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     private static byte[] resizeToJpeg(BufferedImage src, int targetWidth) throws IOException {
@@ -96,4 +346,8 @@ public class BirdThumbnailsGenerator implements CommandLineRunner {
                 .toOutputStream(baos);
         return baos.toByteArray();
     }
+
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now(ZoneOffset.UTC);
+    }
 }
@@ -0,0 +1,152 @@
+package com.birdex.jobs;
+
+import com.birdex.config.OutboxProperties;
+import com.birdex.entity.OutboxEventEntity;
+import com.birdex.entity.enums.OutboxStatus;
+import com.birdex.repository.OutboxEventRepository;
+import com.birdex.service.SightingConfirmedHandler;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Consumidor de outbox_events. Cada evento se procesa en una transacción propia: se toma con
+ * FOR UPDATE SKIP LOCKED, se aplican sus efectos y se marca DONE, todo junto; si algo falla se
+ * revierte completo y el evento vuelve a PENDING con espera exponencial (o FAILED tras
+ * {@code maxAttempts}). Así cada efecto se aplica exactamente una vez aunque haya reintentos,
+ * reinicios o varias instancias.
+ * Se despierta al confirmar un avistaje y, por las dudas, cada {@code pollInterval}.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final SightingConfirmedHandler sightingConfirmedHandler;
+    private final OutboxProperties props;
+    private final TransactionTemplate tx;
+
+    /** Hilos acotados; la cola guarda a lo sumo un aviso por hilo (los demás avisos sobran). */
+    private final ExecutorService executor;
+    private final int threads;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            SightingConfirmedHandler sightingConfirmedHandler,
+                            OutboxProperties props,
+                            PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sightingConfirmedHandler = sightingConfirmedHandler;
+        this.props = props;
+        this.tx = new TransactionTemplate(transactionManager);
+
+        this.threads = Math.max(1, props.getThreads());
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads),
+                r -> {
+                    Thread t = new Thread(r, "outbox-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /** Pide una pasada; si ya hay una por hilo en curso o esperando, no hace falta otra. */
+    public void wakeUp() {
+        int n;
+        do {
+            n = pending.get();
+            if (n >= threads) return;
+        } while (!pending.compareAndSet(n, n + 1));
+        executor.execute(() -> {
+            pending.decrementAndGet();
+            drain();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${birdex.outbox.poll-interval:10s}",
+            initialDelayString = "${birdex.outbox.poll-interval:10s}")
+    public void poll() {
+        wakeUp();
+    }
+
+    /** Una vez por día se borran los eventos procesados más viejos que {@code retention}. */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purge() {
+        int deleted = outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(props.getRetention()));
+        if (deleted > 0) log.info("[OutboxDispatcher] {} eventos procesados eliminados", deleted);
+    }
+
+    private void drain() {
+        while (!executor.isShutdown()) {
+            OutboxEventEntity[] current = new OutboxEventEntity[1];
+            try {
+                Boolean processed = tx.execute(status -> {
+                    OutboxEventEntity event = outboxEventRepository.lockNextPending().orElse(null);
+                    if (event == null) return false;
+                    current[0] = event;
+                    dispatch(event);
+                    event.setStatus(OutboxStatus.DONE);
+                    event.setAttempts(event.getAttempts() + 1);
+                    event.setLastError(null);
+                    event.setProcessedAt(LocalDateTime.now());
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(processed)) return;
+            } catch (Exception e) {
+                if (current[0] == null) {
+                    log.warn("[OutboxDispatcher] No se pudo leer la cola de eventos: {}", e.getMessage());
+                    return;
+                }
+                // sin el fallo registrado el evento sigue disponible: volver a tomarlo ahora sería girar en falso
+                if (!recordFailure(current[0], e)) return;
+            }
+        }
+    }
+
+    private void dispatch(OutboxEventEntity event) {
+        switch (event.getEventType()) {
+            case SIGHTING_CONFIRMED -> sightingConfirmedHandler.handle(event.getAggregateId());
+        }
+    }
+
+    /** Deja el evento con espera (o FAILED). {@code false} si no se pudo registrar el fallo. */
+    private boolean recordFailure(OutboxEventEntity event, Exception e) {
+        UUID id = event.getEventId();
+        int attempt = event.getAttempts() + 1;
+        long backoffMs = props.getRetryBackoff().toMillis() << Math.min(attempt - 1, 10);
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        try {
+            outboxEventRepository.recordFailure(id, error,
+                    LocalDateTime.now().plusNanos(backoffMs * 1_000_000L), props.getMaxAttempts());
+        } catch (Exception ex) {
+            // el evento sigue PENDING: se reintenta en el próximo sondeo
+            log.warn("[OutboxDispatcher] No se pudo registrar el fallo del evento {}: {}", id, ex.getMessage());
+            return false;
+        }
+        if (attempt >= props.getMaxAttempts()) {
+            log.error("❌ Evento {} {} falló {} veces; queda FAILED", event.getEventType(), id, attempt, e);
+        } else {
+            log.warn("⚠️ Evento {} {} falló (intento {}/{}): {}",
+                    event.getEventType(), id, attempt, props.getMaxAttempts(), error);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
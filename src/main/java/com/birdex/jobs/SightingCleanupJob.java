@@ -1,112 +1,55 @@
 package com.birdex.jobs;
 
-import com.birdex.entity.SightingEntity;
-import com.birdex.repository.SightingRepository;
+import com.birdex.entity.SightingCleanupBatch;
+import com.birdex.repository.SightingDirtyCellRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Deja a lo sumo {@link #KEEP_PER_CELL} avistajes (los más recientes) por ave y celda de ~250 m.
+ * Sólo revisa las (ave, celda) marcadas como sucias por el trigger de {@code sightings}: el costo
+ * de cada pasada depende de lo que cambió desde la anterior, no del total de avistajes.
+ * El agrupamiento y el ranking se hacen en SQL (row_number por celda), sin traer entidades.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class SightingCleanupJob {
 
-    private final SightingRepository sightingRepository;
+    private final SightingDirtyCellRepository dirtyCellRepository;
 
-    private static final double GRID_METERS = 250.0;
     private static final int KEEP_PER_CELL = 5;
+    /** Celdas por transacción: acota locks y duración de cada tanda. */
+    private static final int CELLS_PER_BATCH = 500;
 
     /**
-     * Corre cada 15 minutos, en el minuto 0, 15, 30, 45.
+     * Corre cada 5 minutos.
      * Cron Spring: s m h d M dow
      */
     @Scheduled(cron = "0 */5 * * * *")
-    @Transactional
     public void run() {
         LocalDateTime start = LocalDateTime.now();
-        log.info("[SightingCleanupJob] Inicio limpieza de avistajes duplicados cercanos…");
 
-        List<SightingEntity> all = sightingRepository.findAllOrderByBirdAndDateTimeDesc();
-        if (all.isEmpty()) {
-            log.info("[SightingCleanupJob] No hay avistajes. Fin.");
-            return;
-        }
-
-        Map<String, List<SightingEntity>> byBird = new LinkedHashMap<>();
-        for (SightingEntity s : all) {
-            String birdKey = s.getBird().getName();
-            byBird.computeIfAbsent(birdKey, k -> new ArrayList<>()).add(s);
+        long cells = 0;
+        long deleted = 0;
+        while (true) {
+            // una transacción por tanda: una falla sólo devuelve esas celdas a la cola
+            SightingCleanupBatch batch = dirtyCellRepository.cleanupDirtyCells(CELLS_PER_BATCH, KEEP_PER_CELL);
+            cells += batch.getCells();
+            deleted += batch.getDeleted();
+            if (batch.getCells() < CELLS_PER_BATCH) break;
         }
 
-        List<UUID> toDelete = new ArrayList<>();
-        AtomicInteger cellsCount = new AtomicInteger(0);
-
-        for (Map.Entry<String, List<SightingEntity>> e : byBird.entrySet()) {
-            String birdName = e.getKey();
-            List<SightingEntity> sightings = e.getValue();
-
-            Map<String, List<SightingEntity>> byCell = new HashMap<>();
-
-            for (SightingEntity s : sightings) {
-                if (s.getLatitude() == null || s.getLongitude() == null) continue;
-
-                String cellKey = cellKeyFor(s.getLatitude(), s.getLongitude(), GRID_METERS);
-                byCell.computeIfAbsent(cellKey, k -> new ArrayList<>()).add(s);
-            }
-
-            for (Map.Entry<String, List<SightingEntity>> cellEntry : byCell.entrySet()) {
-                List<SightingEntity> list = cellEntry.getValue();
-
-                if (list.size() > KEEP_PER_CELL) {
-                    list.sort(Comparator.comparing(SightingEntity::getDateTime, Comparator.nullsLast(Comparator.reverseOrder())));
-                    List<SightingEntity> excess = list.subList(KEEP_PER_CELL, list.size());
-                    for (SightingEntity old : excess) {
-                        toDelete.add(old.getSightingId());
-                    }
-                }
-            }
-
-            cellsCount.addAndGet(byCell.size());
-            log.debug("[SightingCleanupJob] Ave='{}': celdas={}, candidatosABorrar={}",
-                    birdName, byCell.size(), toDelete.size());
-        }
-
-        if (!toDelete.isEmpty()) {
-            sightingRepository.deleteAllByIdInBatch(toDelete);
-        }
-
-        log.info("[SightingCleanupJob] Fin. aves={}, celdas={}, borrados={}, duración={}ms",
-                byBird.size(), cellsCount.get(), toDelete.size(),
-                java.time.Duration.between(start, LocalDateTime.now()).toMillis());
-    }
-
-
-    private static String cellKeyFor(BigDecimal lat, BigDecimal lon, double gridMeters) {
-        double dLat = lat.doubleValue();
-        double dLon = lon.doubleValue();
-
-
-        double degPerMeterLat = 1.0 / 111_320.0;
-        double cellDegLat = gridMeters * degPerMeterLat;
-
-
-        double degPerMeterLon = 1.0 / (111_320.0 * Math.cos(Math.toRadians(dLat)));
-
-        if (!Double.isFinite(degPerMeterLon) || degPerMeterLon <= 0) {
-            degPerMeterLon = 1.0 / 111_320.0;
+        if (cells == 0) {
+            log.debug("[SightingCleanupJob] Sin celdas sucias. Fin.");
+            return;
         }
-        double cellDegLon = gridMeters * degPerMeterLon;
-
-        long gx = (long) Math.floor(dLat / cellDegLat);
-        long gy = (long) Math.floor(dLon / cellDegLon);
-
-        return gx + ":" + gy;
+        log.info("[SightingCleanupJob] Fin. celdas={}, borrados={}, duración={}ms",
+                cells, deleted, Duration.between(start, LocalDateTime.now()).toMillis());
     }
-}
\ No newline at end of file
+}
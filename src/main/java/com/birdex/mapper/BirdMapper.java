@@ -4,6 +4,7 @@ package com.birdex.mapper;
 import com.birdex.dto.BirdDto;
 import com.birdex.entity.BirdEntity;
 import com.birdex.entity.MigratoryWaveEntity;
+import com.birdex.service.BirdCatalog;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -53,6 +54,33 @@ public class BirdMapper {
         return dto;
     }
 
+    /** Desde el catálogo en memoria: incluye rareza, colores y zonas ya resueltos. */
+    public BirdDto toDto(BirdCatalog.Entry bird) {
+        if (bird == null) return null;
+
+        BirdDto dto = new BirdDto();
+        dto.setName(bird.name());
+        dto.setCommonName(bird.commonName());
+        dto.setSize(bird.size());
+        dto.setDescription(bird.description());
+        dto.setCharacteristics(bird.characteristics());
+
+        dto.setSizeDetails(
+                BirdDto.Measurements.builder()
+                        .lengthMinMm(bird.lengthMinMm())
+                        .lengthMaxMm(bird.lengthMaxMm())
+                        .weightMinG(bird.weightMinG())
+                        .weightMaxG(bird.weightMaxG())
+                        .build()
+        );
+
+        dto.setMigratoryWave(bird.migratoryWave());
+        dto.setRarity(bird.rarity());
+        dto.setColors(bird.colors());
+        dto.setZones(bird.zones());
+        return dto;
+    }
+
     public BirdEntity toEntity(BirdDto dto) {
         if (dto == null) return null;
 
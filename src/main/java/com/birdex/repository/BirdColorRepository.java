@@ -2,6 +2,7 @@ package com.birdex.repository;
 
 import com.birdex.entity.BirdColor;
 import com.birdex.entity.BirdColorId;
+import com.birdex.entity.BirdColorView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,4 +20,13 @@ public interface BirdColorRepository extends JpaRepository<BirdColor, BirdColorI
         order by c.name
     """)
     List<String> findColorNamesByBirdName(@Param("name") String name);
+
+    /** Colores de todas las aves en una sola consulta (para el catálogo en memoria). */
+    @Query(value = """
+        select bc.bird_id as birdId, c.name as color
+        from bird_color bc
+        join colors c on c.color_id = bc.color_id
+        order by c.name
+    """, nativeQuery = true)
+    List<BirdColorView> findAllBirdColors();
 }
@@ -3,6 +3,7 @@ package com.birdex.repository;
 
 import com.birdex.entity.BirdRarityEntity;
 import com.birdex.entity.BirdRarityId;
+import com.birdex.entity.BirdRarityView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -25,6 +26,16 @@ public interface BirdRarityRepository extends JpaRepository<BirdRarityEntity, Bi
     """, nativeQuery = true)
     Optional<String> findRarityNameByBirdName(@Param("name") String name);
 
+    /** Rareza de todas las aves en una sola consulta (para el catálogo en memoria). */
+    @Query(value = """
+        select b.bird_id as birdId, b.name as birdName, r.name as rarity
+        from bird_rarity br
+        join rarities r on r.rarity_id = br.rarity_id
+        join birds b    on b.bird_id   = br.bird_id
+        order by b.name, r.name
+    """, nativeQuery = true)
+    List<BirdRarityView> findAllBirdRarities();
+
     @Query("""
         select r.name
         from BirdRarityEntity br
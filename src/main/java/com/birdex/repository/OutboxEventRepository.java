@@ -0,0 +1,54 @@
+package com.birdex.repository;
+
+import com.birdex.entity.OutboxEventEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, UUID> {
+
+    /**
+     * Próximo evento pendiente, bloqueado hasta el fin de la transacción del llamador. SKIP LOCKED:
+     * varios consumidores (o instancias) se reparten los eventos sin esperarse.
+     */
+    @Query(value = """
+        SELECT *
+        FROM outbox_events
+        WHERE status = 'PENDING'
+          AND available_at <= now()
+        ORDER BY available_at
+        LIMIT 1
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    Optional<OutboxEventEntity> lockNextPending();
+
+    /** Registra un intento fallido: vuelve a PENDING para más tarde, o FAILED si agotó los intentos. */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE outbox_events
+        SET attempts     = attempts + 1,
+            last_error   = :error,
+            available_at = :retryAt,
+            status       = CASE WHEN attempts + 1 >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END
+        WHERE event_id = :eventId
+          AND status = 'PENDING'
+        """, nativeQuery = true)
+    int recordFailure(@Param("eventId") UUID eventId,
+                      @Param("error") String error,
+                      @Param("retryAt") LocalDateTime retryAt,
+                      @Param("maxAttempts") int maxAttempts);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM outbox_events WHERE status = 'DONE' AND processed_at < :before", nativeQuery = true)
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,9 +1,11 @@
 package com.birdex.repository;
 
 import com.birdex.entity.RarityPointsEntity;
+import com.birdex.entity.RarityPointsView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.List;
 import java.util.Optional;
 
 import java.util.UUID;
@@ -21,4 +23,11 @@ public interface RarityPointsRepository extends JpaRepository<RarityPointsEntity
         WHERE lower(r.name) = lower(:rarity)
         """, nativeQuery = true)
     Optional<Integer> findPointsByRarity(@Param("rarity") String rarity);
+
+    @Query(value = """
+        SELECT r.name AS rarity, rp.points AS points
+        FROM rarity_points rp
+        JOIN rarities r ON rp.rarity_id = r.rarity_id
+        """, nativeQuery = true)
+    List<RarityPointsView> findAllPoints();
 }
@@ -0,0 +1,57 @@
+package com.birdex.repository;
+
+import com.birdex.entity.SightingCleanupBatch;
+import com.birdex.entity.SightingDirtyCellEntity;
+import com.birdex.entity.SightingDirtyCellId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface SightingDirtyCellRepository extends JpaRepository<SightingDirtyCellEntity, SightingDirtyCellId> {
+
+    /**
+     * Toma hasta {@code batchSize} celdas sucias (las más viejas primero) y, en la misma sentencia,
+     * borra de cada (ave, celda) los avistajes que excedan {@code keep}, más reciente primero.
+     * Las celdas tomadas se borran de la tabla: si la transacción falla vuelven a quedar sucias, y
+     * un alta concurrente en una celda tomada espera al commit y la vuelve a marcar.
+     */
+    @Transactional
+    @Query(value = """
+        WITH dirty AS (
+            DELETE FROM sighting_dirty_cells d
+            WHERE (d.bird_id, d.cell_id) IN (
+                SELECT bird_id, cell_id
+                FROM sighting_dirty_cells
+                ORDER BY marked_at
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING d.bird_id, d.cell_id
+        ),
+        ranked AS (
+            SELECT s.sighting_id,
+                   row_number() OVER (
+                       PARTITION BY d.bird_id, d.cell_id
+                       ORDER BY s.date_time DESC
+                   ) AS rn
+            FROM dirty d
+            JOIN sightings s
+              ON s.bird_id = d.bird_id
+             AND s.cell_id = d.cell_id
+             AND s.deleted = FALSE
+        ),
+        removed AS (
+            DELETE FROM sightings s
+            USING ranked r
+            WHERE s.sighting_id = r.sighting_id
+              AND r.rn > :keep
+            RETURNING 1
+        )
+        SELECT (SELECT count(*) FROM dirty)   AS cells,
+               (SELECT count(*) FROM removed) AS deleted
+        """, nativeQuery = true)
+    SightingCleanupBatch cleanupDirtyCells(@Param("batchSize") int batchSize, @Param("keep") int keep);
+}
@@ -0,0 +1,50 @@
+package com.birdex.repository;
+
+import com.birdex.utils.FeedCursor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Listados de avistajes paginados por keyset sobre (date_time DESC, sighting_id DESC): cada página
+ * arranca en el índice justo después del cursor, así su costo no depende de cuántas se pidieron
+ * antes (fragmento de {@link SightingRepository}). Devuelven ids en orden; el conteo es aparte y
+ * opcional.
+ */
+public interface SightingFeedRepository {
+
+    /** Filtros de GET /sighting/search, ya normalizados (minúsculas; null = sin filtro). */
+    record SearchFilter(String rarityLower, String colorLower, String sizeLower) {
+    }
+
+    /** Alcance de la lista de un ave: propios ({@code mine}) o del resto de los usuarios. */
+    record BirdScope(UUID birdId, UUID userId, boolean mine) {
+    }
+
+    /** Fila de la lista de un ave: lo que muestra la respuesta, con el autor, sin entidades. */
+    record BirdSightingRow(UUID sightingId, LocalDateTime dateTime, BigDecimal latitude, BigDecimal longitude,
+                           String locationText, String userEmail, String username) {
+        public FeedCursor cursor() {
+            return new FeedCursor(dateTime, sightingId);
+        }
+    }
+
+    /**
+     * @param after  última fila de la página anterior (null = primera página)
+     * @param offset sólo para la paginación por número de página (legacy); 0 con cursor
+     */
+    List<FeedCursor> searchPage(SearchFilter filter, FeedCursor after, int offset, int limit);
+
+    long searchCount(SearchFilter filter);
+
+    List<FeedCursor> userPage(UUID userId, FeedCursor after, int limit);
+
+    long userCount(UUID userId);
+
+    /** Página de la lista de un ave con el email y username del autor en la misma consulta. */
+    List<BirdSightingRow> birdPage(BirdScope scope, FeedCursor after, int limit);
+
+    long birdCount(BirdScope scope);
+}
@@ -0,0 +1,159 @@
+package com.birdex.repository;
+
+import com.birdex.utils.FeedCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+class SightingFeedRepositoryImpl implements SightingFeedRepository {
+
+    private static final String CONFIRMED = "'CONFIRMED'";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /** WHERE armado sólo con los filtros presentes (sin parámetros null, que Postgres no sabe tipar). */
+    private record Where(String sql, Map<String, Object> params) {
+    }
+
+    @Override
+    public List<FeedCursor> searchPage(SearchFilter filter, FeedCursor after, int offset, int limit) {
+        return page(searchWhere(filter), after, offset, limit);
+    }
+
+    @Override
+    public long searchCount(SearchFilter filter) {
+        return count(searchWhere(filter));
+    }
+
+    @Override
+    public List<FeedCursor> userPage(UUID userId, FeedCursor after, int limit) {
+        return page(userWhere(userId), after, 0, limit);
+    }
+
+    @Override
+    public long userCount(UUID userId) {
+        return count(userWhere(userId));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<BirdSightingRow> birdPage(BirdScope scope, FeedCursor after, int limit) {
+        Where where = birdWhere(scope);
+        // autor en el mismo SELECT: sin entidades ni carga lazy del usuario por fila
+        String sql = "SELECT s.sighting_id, s.date_time, s.latitude, s.longitude, s.location_text, u.email, u.username"
+                + " FROM sightings s JOIN users u ON u.user_id = s.user_id"
+                + " WHERE " + where.sql()
+                + (after != null ? " AND (s.date_time, s.sighting_id) < (:afterTime, :afterId)" : "")
+                + " ORDER BY s.date_time DESC, s.sighting_id DESC LIMIT :limit";
+        Query q = em.createNativeQuery(sql);
+        where.params().forEach(q::setParameter);
+        bindAfter(q, after);
+        q.setParameter("limit", limit);
+
+        List<Object[]> rows = q.getResultList();
+        List<BirdSightingRow> out = new ArrayList<>(rows.size());
+        for (Object[] r : rows) {
+            out.add(new BirdSightingRow(
+                    (UUID) r[0],
+                    toLocalDateTime(r[1]),
+                    (BigDecimal) r[2],
+                    (BigDecimal) r[3],
+                    (String) r[4],
+                    (String) r[5],
+                    (String) r[6]));
+        }
+        return out;
+    }
+
+    @Override
+    public long birdCount(BirdScope scope) {
+        return count(birdWhere(scope));
+    }
+
+    /* ============== filtros ============== */
+
+    // mismos criterios que la búsqueda JPQL anterior (no filtra por estado)
+    private static Where searchWhere(SearchFilter f) {
+        StringBuilder sql = new StringBuilder("s.deleted = FALSE");
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (f.sizeLower() != null) {
+            sql.append(" AND lower(b.size) = :size");
+            params.put("size", f.sizeLower());
+        }
+        if (f.rarityLower() != null) {
+            sql.append("""
+                     AND EXISTS (SELECT 1 FROM bird_rarity br JOIN rarities r ON r.rarity_id = br.rarity_id
+                                 WHERE br.bird_id = s.bird_id AND lower(r.name) = :rarity)""");
+            params.put("rarity", f.rarityLower());
+        }
+        if (f.colorLower() != null) {
+            sql.append("""
+                     AND EXISTS (SELECT 1 FROM bird_color bc JOIN colors c ON c.color_id = bc.color_id
+                                 WHERE bc.bird_id = s.bird_id AND lower(c.name) = :color)""");
+            params.put("color", f.colorLower());
+        }
+        return new Where(sql.toString(), params);
+    }
+
+    private static Where userWhere(UUID userId) {
+        return new Where("s.user_id = :userId AND s.state = " + CONFIRMED + " AND s.deleted = FALSE",
+                Map.of("userId", userId));
+    }
+
+    private static Where birdWhere(BirdScope scope) {
+        String user = scope.mine() ? "s.user_id = :userId" : "s.user_id <> :userId";
+        return new Where("s.bird_id = :birdId AND " + user + " AND s.state = " + CONFIRMED + " AND s.deleted = FALSE",
+                Map.of("birdId", scope.birdId(), "userId", scope.userId()));
+    }
+
+    /* ============== consultas ============== */
+
+    @SuppressWarnings("unchecked")
+    private List<FeedCursor> page(Where where, FeedCursor after, int offset, int limit) {
+        String sql = "SELECT s.sighting_id, s.date_time FROM sightings s JOIN birds b ON b.bird_id = s.bird_id"
+                + " WHERE " + where.sql()
+                + (after != null ? " AND (s.date_time, s.sighting_id) < (:afterTime, :afterId)" : "")
+                + " ORDER BY s.date_time DESC, s.sighting_id DESC"
+                + (offset > 0 ? " OFFSET :offset" : "")
+                + " LIMIT :limit";
+        Query q = em.createNativeQuery(sql);
+        where.params().forEach(q::setParameter);
+        bindAfter(q, after);
+        if (offset > 0) q.setParameter("offset", offset);
+        q.setParameter("limit", limit);
+
+        List<Object[]> rows = q.getResultList();
+        List<FeedCursor> out = new ArrayList<>(rows.size());
+        for (Object[] r : rows) out.add(new FeedCursor(toLocalDateTime(r[1]), (UUID) r[0]));
+        return out;
+    }
+
+    private long count(Where where) {
+        Query q = em.createNativeQuery("SELECT count(*) FROM sightings s JOIN birds b ON b.bird_id = s.bird_id"
+                + " WHERE " + where.sql());
+        where.params().forEach(q::setParameter);
+        return ((Number) q.getSingleResult()).longValue();
+    }
+
+    private static void bindAfter(Query q, FeedCursor after) {
+        if (after == null) return;
+        q.setParameter("afterTime", after.dateTime());
+        q.setParameter("afterId", after.sightingId());
+    }
+
+    private static LocalDateTime toLocalDateTime(Object v) {
+        if (v instanceof LocalDateTime ldt) return ldt;
+        if (v instanceof Timestamp ts) return ts.toLocalDateTime();
+        return null;
+    }
+}
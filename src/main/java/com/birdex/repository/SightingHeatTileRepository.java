@@ -0,0 +1,52 @@
+package com.birdex.repository;
+
+import com.birdex.entity.HeatBin;
+import com.birdex.entity.SightingHeatTileEntity;
+import com.birdex.entity.SightingHeatTileId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SightingHeatTileRepository extends JpaRepository<SightingHeatTileEntity, SightingHeatTileId> {
+
+    /**
+     * Suma los tiles de zoom 16 en [minX, maxX] x [minY, maxY], agrupados en celdas de
+     * {@code 2^shift} tiles de lado.
+     */
+    @Query(value = """
+        SELECT h.tile_x >> :shift AS x,
+               h.tile_y >> :shift AS y,
+               sum(h.sightings)   AS sightings
+        FROM sighting_heat_tiles h
+        WHERE h.tile_x BETWEEN :minX AND :maxX
+          AND h.tile_y BETWEEN :minY AND :maxY
+          AND h.sightings > 0
+        GROUP BY 1, 2
+        """, nativeQuery = true)
+    List<HeatBin> sumBins(@Param("minX") int minX, @Param("maxX") int maxX,
+                          @Param("minY") int minY, @Param("maxY") int maxY,
+                          @Param("shift") int shift);
+
+    /** Igual que {@link #sumBins} pero sólo para las aves indicadas (usa la PK por ave). */
+    @Query(value = """
+        SELECT h.tile_x >> :shift AS x,
+               h.tile_y >> :shift AS y,
+               sum(h.sightings)   AS sightings
+        FROM sighting_heat_tiles h
+        WHERE h.bird_id IN (:birdIds)
+          AND h.tile_x BETWEEN :minX AND :maxX
+          AND h.tile_y BETWEEN :minY AND :maxY
+          AND h.sightings > 0
+        GROUP BY 1, 2
+        """, nativeQuery = true)
+    List<HeatBin> sumBinsForBirds(@Param("birdIds") Collection<UUID> birdIds,
+                                  @Param("minX") int minX, @Param("maxX") int maxX,
+                                  @Param("minY") int minY, @Param("maxY") int maxY,
+                                  @Param("shift") int shift);
+}
@@ -0,0 +1,42 @@
+package com.birdex.repository;
+
+import com.birdex.entity.SightingMediaEntity;
+import com.birdex.entity.SightingMediaRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SightingMediaRepository extends JpaRepository<SightingMediaEntity, UUID> {
+
+    @Query("""
+        select m.sighting.sightingId as sightingId,
+               m.objectKey as objectKey,
+               m.kind as kind,
+               m.thumbKey as thumbKey,
+               m.mediumKey as mediumKey,
+               m.posterKey as posterKey
+        from SightingMediaEntity m
+        where m.sighting.sightingId in :sightingIds
+        order by m.createdAt desc
+        """)
+    List<SightingMediaRow> findRowsBySightingIds(@Param("sightingIds") Collection<UUID> sightingIds);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update SightingMediaEntity m set m.thumbKey = :thumbKey, m.mediumKey = :mediumKey where m.objectKey = :objectKey")
+    int updateVariants(@Param("objectKey") String objectKey,
+                       @Param("thumbKey") String thumbKey,
+                       @Param("mediumKey") String mediumKey);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update SightingMediaEntity m set m.posterKey = :posterKey, m.thumbKey = :thumbKey where m.objectKey = :objectKey")
+    int updatePoster(@Param("objectKey") String objectKey,
+                     @Param("posterKey") String posterKey,
+                     @Param("thumbKey") String thumbKey);
+}
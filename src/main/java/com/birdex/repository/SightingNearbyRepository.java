@@ -0,0 +1,23 @@
+package com.birdex.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/** Búsqueda por cercanía sobre el índice de geohash (fragmento de {@link SightingRepository}). */
+public interface SightingNearbyRepository {
+
+    /** Fila de la búsqueda: lo justo para armar la respuesta, sin entidades. */
+    record NearbyRow(UUID sightingId, UUID birdId, BigDecimal latitude, BigDecimal longitude,
+                     LocalDateTime dateTime, double distanceMeters) {
+    }
+
+    /**
+     * Avistajes confirmados dentro del radio, ordenados por (distancia, id).
+     * {@code prefixes} son los geohash que cubren el círculo; {@code afterDistance}/{@code afterId}
+     * son la última fila de la página anterior (null = primera página).
+     */
+    List<NearbyRow> findNearby(List<String> prefixes, double lat, double lon, double radiusMeters,
+                               LocalDateTime since, Double afterDistance, UUID afterId, int limit);
+}
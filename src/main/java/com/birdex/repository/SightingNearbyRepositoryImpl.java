@@ -0,0 +1,90 @@
+package com.birdex.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class SightingNearbyRepositoryImpl implements SightingNearbyRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<NearbyRow> findNearby(List<String> prefixes, double lat, double lon, double radiusMeters,
+                                      LocalDateTime since, Double afterDistance, UUID afterId, int limit) {
+        if (prefixes.isEmpty()) return List.of();
+
+        // un rango [prefijo, prefijo || '~') por celda: cada uno es un range scan de idx_sightings_geohash
+        StringBuilder ranges = new StringBuilder();
+        for (int i = 0; i < prefixes.size(); i++) {
+            if (i > 0) ranges.append(" OR ");
+            ranges.append("(s.geohash >= :p").append(i).append(" AND s.geohash < :q").append(i).append(')');
+        }
+
+        String sql = """
+                SELECT sighting_id, bird_id, latitude, longitude, date_time, distance
+                FROM (
+                    SELECT s.sighting_id, s.bird_id, s.latitude, s.longitude, s.date_time,
+                           2 * 6371008.8 * asin(least(1.0, sqrt(
+                               power(sin(radians(s.latitude::float8 - :lat) / 2), 2)
+                               + cos(radians(:lat)) * cos(radians(s.latitude::float8))
+                                 * power(sin(radians(s.longitude::float8 - :lon) / 2), 2)
+                           ))) AS distance
+                    FROM sightings s
+                    WHERE s.deleted = FALSE
+                      AND s.state = 'CONFIRMED'
+                      AND (%s)
+                      %s
+                ) n
+                WHERE n.distance <= :radius
+                  %s
+                ORDER BY n.distance, n.sighting_id
+                LIMIT :limit
+                """.formatted(
+                ranges,
+                since != null ? "AND s.date_time >= :since" : "",
+                afterDistance != null ? "AND (n.distance, n.sighting_id) > (:afterDistance, :afterId)" : "");
+
+        Query q = em.createNativeQuery(sql);
+        for (int i = 0; i < prefixes.size(); i++) {
+            q.setParameter("p" + i, prefixes.get(i));
+            q.setParameter("q" + i, prefixes.get(i) + "~");
+        }
+        q.setParameter("lat", lat);
+        q.setParameter("lon", lon);
+        q.setParameter("radius", radiusMeters);
+        q.setParameter("limit", limit);
+        if (since != null) q.setParameter("since", since);
+        if (afterDistance != null) {
+            q.setParameter("afterDistance", afterDistance);
+            q.setParameter("afterId", afterId);
+        }
+
+        List<Object[]> rows = q.getResultList();
+        List<NearbyRow> out = new ArrayList<>(rows.size());
+        for (Object[] r : rows) {
+            out.add(new NearbyRow(
+                    (UUID) r[0],
+                    (UUID) r[1],
+                    (BigDecimal) r[2],
+                    (BigDecimal) r[3],
+                    toLocalDateTime(r[4]),
+                    ((Number) r[5]).doubleValue()));
+        }
+        return out;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object v) {
+        if (v instanceof LocalDateTime ldt) return ldt;
+        if (v instanceof Timestamp ts) return ts.toLocalDateTime();
+        return null;
+    }
+}
@@ -0,0 +1,230 @@
+package com.birdex.service;
+
+import com.birdex.dto.ZonePointDto;
+import com.birdex.entity.BirdColorView;
+import com.birdex.entity.BirdEntity;
+import com.birdex.entity.MigratoryWaveEntity;
+import com.birdex.repository.BirdColorRepository;
+import com.birdex.repository.BirdRepository;
+import com.birdex.utils.Slugs;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Catálogo de aves (birds + rareza + colores + zonas + ola migratoria) como snapshot inmutable en
+ * memoria, indexado por id, nombre, nombre común y slug. El catálogo es de sólo lectura para la API:
+ * se arma una vez y {@link #refresh()} lo reconstruye y lo reemplaza de una sola vez.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BirdCatalog {
+
+    private final BirdRepository birdRepository;
+    private final BirdColorRepository birdColorRepository;
+    private final RarityCatalog rarityCatalog;
+
+    /** Registro compacto de un ave, listo para armar los DTOs sin ir a la base. */
+    public record Entry(UUID birdId,
+                        String name,
+                        String commonName,
+                        String slug,
+                        String size,
+                        Integer lengthMinMm,
+                        Integer lengthMaxMm,
+                        Integer weightMinG,
+                        Integer weightMaxG,
+                        String description,
+                        String characteristics,
+                        String image,
+                        String rarity,
+                        List<String> colors,
+                        Map<Short, List<String>> migratoryWave,
+                        List<ZonePointDto> zones) {
+    }
+
+    private record Snapshot(List<Entry> all,
+                            Map<UUID, Entry> byId,
+                            Map<String, Entry> byName,
+                            Map<String, Entry> byCommonName,
+                            Map<String, Entry> bySlug,
+                            BirdSearchIndex searchIndex,
+                            long version) {
+    }
+
+    private volatile Snapshot snapshot;
+    private final AtomicLong versions = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            log.warn("No se pudo precargar el catálogo de aves ({}); se reintenta en el primer uso", e.getMessage());
+        }
+    }
+
+    /** Todas las aves ordenadas por nombre científico. */
+    public List<Entry> all() {
+        return snapshot().all();
+    }
+
+    /** Identifica el snapshot vigente: cambia cada vez que se reconstruye. */
+    public long version() {
+        return snapshot().version();
+    }
+
+    /** Índice facetado sobre el mismo snapshot (se reemplaza junto con él). */
+    BirdSearchIndex searchIndex() {
+        return snapshot().searchIndex();
+    }
+
+    public Optional<Entry> byId(UUID birdId) {
+        return Optional.ofNullable(birdId == null ? null : snapshot().byId().get(birdId));
+    }
+
+    /** Nombre científico exacto, sin distinguir mayúsculas ni acentos. */
+    public Optional<Entry> byName(String name) {
+        return Optional.ofNullable(name == null ? null : snapshot().byName().get(normalize(name)));
+    }
+
+    /** Nombre común exacto, sin distinguir mayúsculas ni acentos. */
+    public Optional<Entry> byCommonName(String commonName) {
+        return Optional.ofNullable(commonName == null ? null : snapshot().byCommonName().get(normalize(commonName)));
+    }
+
+    public Optional<Entry> bySlug(String slug) {
+        return Optional.ofNullable(slug == null ? null : snapshot().bySlug().get(Slugs.of(slug)));
+    }
+
+    /**
+     * Equivalente en memoria de {@code findFirstByNameContainingIgnoreCase}: primero coincidencia exacta
+     * (nombre o slug), si no la primera ave, en orden alfabético, cuyo nombre contiene el texto.
+     */
+    public Optional<Entry> findByNameContaining(String partial) {
+        if (partial == null) return Optional.empty();
+        Optional<Entry> exact = byName(partial).or(() -> bySlug(partial));
+        if (exact.isPresent()) return exact;
+        String needle = partial.toLowerCase(Locale.ROOT);
+        return snapshot().all().stream()
+                .filter(e -> e.name().toLowerCase(Locale.ROOT).contains(needle))
+                .findFirst();
+    }
+
+    /** Equivalente en memoria de {@code findFirstByCommonNameContainingIgnoreCase}. */
+    public Optional<Entry> findByCommonNameContaining(String partial) {
+        if (partial == null) return Optional.empty();
+        Optional<Entry> exact = byCommonName(partial);
+        if (exact.isPresent()) return exact;
+        String needle = partial.toLowerCase(Locale.ROOT);
+        return snapshot().all().stream()
+                .filter(e -> e.commonName().toLowerCase(Locale.ROOT).contains(needle))
+                .findFirst();
+    }
+
+    /** Reconstruye el snapshot (también la rareza) y lo reemplaza atómicamente. */
+    public void refresh() {
+        rarityCatalog.invalidate();
+        Snapshot fresh = load();
+        synchronized (this) {
+            snapshot = fresh;
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s != null) return s;
+        synchronized (this) {
+            if (snapshot == null) snapshot = load();
+            return snapshot;
+        }
+    }
+
+    private Snapshot load() {
+        long t0 = System.nanoTime();
+        Map<UUID, List<String>> colorsByBird = new HashMap<>();
+        for (BirdColorView row : birdColorRepository.findAllBirdColors()) {
+            colorsByBird.computeIfAbsent(row.getBirdId(), k -> new ArrayList<>()).add(row.getColor());
+        }
+
+        List<Entry> all = new ArrayList<>();
+        for (BirdEntity b : birdRepository.findAll()) {
+            all.add(toEntry(b, colorsByBird.getOrDefault(b.getBirdId(), List.of())));
+        }
+        all.sort(Comparator.comparing(Entry::name, String.CASE_INSENSITIVE_ORDER));
+
+        Map<UUID, Entry> byId = new HashMap<>();
+        Map<String, Entry> byName = new HashMap<>();
+        Map<String, Entry> byCommonName = new HashMap<>();
+        Map<String, Entry> bySlug = new HashMap<>();
+        for (Entry e : all) {
+            byId.put(e.birdId(), e);
+            byName.putIfAbsent(normalize(e.name()), e);
+            byCommonName.putIfAbsent(normalize(e.commonName()), e);
+            bySlug.putIfAbsent(e.slug(), e);
+        }
+
+        log.info("🐦 Catálogo de aves cargado: {} aves en {} ms", all.size(), (System.nanoTime() - t0) / 1_000_000);
+        List<Entry> sorted = List.copyOf(all);
+        return new Snapshot(sorted, Map.copyOf(byId), Map.copyOf(byName),
+                Map.copyOf(byCommonName), Map.copyOf(bySlug), new BirdSearchIndex(sorted), versions.incrementAndGet());
+    }
+
+    private Entry toEntry(BirdEntity b, List<String> colors) {
+        Map<Short, List<String>> wave = b.getMigratoryWaves() == null ? Map.of() : b.getMigratoryWaves().stream()
+                .collect(Collectors.groupingBy(
+                        MigratoryWaveEntity::getMonth,
+                        TreeMap::new,
+                        Collectors.mapping(
+                                mw -> mw.getProvince().getName(),
+                                Collectors.collectingAndThen(
+                                        Collectors.toCollection(() -> new TreeSet<>(String.CASE_INSENSITIVE_ORDER)),
+                                        List::copyOf
+                                )
+                        )
+                ));
+
+        List<ZonePointDto> zones = b.getZones() == null ? List.of() : b.getZones().stream()
+                .sorted(Comparator.comparing(z -> z.getName(), Comparator.nullsLast(String::compareTo)))
+                .map(z -> ZonePointDto.builder()
+                        .name(z.getName())
+                        .latitude(z.getLatitude())
+                        .longitude(z.getLongitude())
+                        .build())
+                .toList();
+
+        return new Entry(
+                b.getBirdId(),
+                b.getName(),
+                b.getCommonName(),
+                Slugs.of(b.getName()),
+                b.getSize(),
+                b.getLengthMinMm(),
+                b.getLengthMaxMm(),
+                b.getWeightMinG(),
+                b.getWeightMaxG(),
+                b.getDescription(),
+                b.getCharacteristics(),
+                b.getImage(),
+                rarityCatalog.rarityOf(b.getBirdId()).orElse(""),
+                List.copyOf(colors),
+                Collections.unmodifiableMap(wave),
+                zones
+        );
+    }
+
+    /** minúsculas y sin acentos, como {@code lower(unaccent(...))} en las consultas. */
+    static String normalize(String s) {
+        return Normalizer.normalize(s.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,149 @@
+package com.birdex.service;
+
+import com.birdex.dto.BirdCatalogItem;
+import com.birdex.dto.BirdCatalogResponse;
+import com.birdex.dto.enums.BirdImageSize;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuestas del catálogo completo, armadas una vez y reutilizadas mientras no cambie ni el
+ * catálogo ni el bucket de birds:
+ * - v2: URLs públicas + huella (ETag) para que el cliente revalide con If-None-Match.
+ * - legacy (/bird/all): el JSON con las fotos en base64 ya serializado y comprimido con gzip.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BirdCatalogFeedService {
+
+    /** Si el índice del bucket no está cargado no hay versión confiable: se rearma cada tanto. */
+    private static final Duration UNVERSIONED_TTL = Duration.ofMinutes(10);
+
+    private final BirdCatalog birdCatalog;
+    private final BirdService birdService;
+    private final BucketService bucketService;
+    private final ObjectMapper objectMapper;
+
+    /** Cuerpo listo para enviar junto con su ETag. */
+    public record CachedBody<T>(T body, String etag) {
+    }
+
+    private record Version(long catalog, long objects) {
+        boolean reliable() {
+            return objects >= 0;
+        }
+    }
+
+    private record Entry<T>(Version version, long builtAt, CachedBody<T> value) {
+        boolean fresh(Version current) {
+            if (!version.equals(current)) return false;
+            return current.reliable() || System.nanoTime() - builtAt < UNVERSIONED_TTL.toNanos();
+        }
+    }
+
+    private volatile Entry<BirdCatalogResponse> catalog;
+    private volatile Entry<byte[]> legacyGzip;
+
+    /** Un lock por cuerpo: v2 (barato) no espera detrás de la descarga de fotos del legacy. */
+    private final Object catalogLock = new Object();
+    private final Object legacyLock = new Object();
+
+    public CachedBody<BirdCatalogResponse> catalogV2() {
+        Version v = currentVersion();
+        Entry<BirdCatalogResponse> e = catalog;
+        if (e != null && e.fresh(v)) return e.value();
+        synchronized (catalogLock) {
+            e = catalog;
+            if (e == null || !e.fresh(v)) {
+                e = new Entry<>(v, System.nanoTime(), buildCatalog());
+                catalog = e;
+            }
+            return e.value();
+        }
+    }
+
+    /** JSON de {@code BirdProgressResponse} comprimido con gzip (Content-Encoding: gzip). */
+    public CachedBody<byte[]> legacyProgressGzip() {
+        Version v = currentVersion();
+        Entry<byte[]> e = legacyGzip;
+        if (e != null && e.fresh(v)) return e.value();
+        synchronized (legacyLock) {
+            e = legacyGzip;
+            if (e == null || !e.fresh(v)) {
+                e = new Entry<>(v, System.nanoTime(), buildLegacy());
+                legacyGzip = e;
+            }
+            return e.value();
+        }
+    }
+
+    private Version currentVersion() {
+        return new Version(birdCatalog.version(), bucketService.birdObjectsVersion());
+    }
+
+    private CachedBody<BirdCatalogResponse> buildCatalog() {
+        List<BirdCatalogItem> items = birdCatalog.all().stream()
+                .map(b -> BirdCatalogItem.builder()
+                        .birdId(b.birdId())
+                        .name(b.name())
+                        .commonName(b.commonName())
+                        .rarity(b.rarity())
+                        .thumbUrl(bucketService.getBirdProfilePublicUrl(b.name(), BirdImageSize.THUMB_256))
+                        .imageUrl(bucketService.getBirdProfilePublicUrl(b.name(), BirdImageSize.MEDIUM_600))
+                        .build())
+                .toList();
+
+        MessageDigest md = sha256();
+        for (BirdCatalogItem it : items) {
+            for (Object field : new Object[]{it.getBirdId(), it.getName(), it.getCommonName(),
+                    it.getRarity(), it.getThumbUrl(), it.getImageUrl()}) {
+                md.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+                md.update((byte) 0);
+            }
+        }
+        String etag = fingerprint(md);
+        return new CachedBody<>(BirdCatalogResponse.builder().version(etag).list(items).build(), etag);
+    }
+
+    private CachedBody<byte[]> buildLegacy() {
+        long t0 = System.nanoTime();
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(1 << 20);
+        try (GZIPOutputStream gz = new GZIPOutputStream(buf, 64 * 1024)) {
+            objectMapper.writeValue(gz, birdService.getBirds());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo serializar el catálogo legacy", e);
+        }
+        byte[] body = buf.toByteArray();
+        MessageDigest md = sha256();
+        md.update(body);
+        log.info("📦 Catálogo legacy /bird/all precalculado: {} KB gzip en {} ms",
+                body.length / 1024, (System.nanoTime() - t0) / 1_000_000);
+        return new CachedBody<>(body, fingerprint(md));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String fingerprint(MessageDigest md) {
+        return HexFormat.of().formatHex(md.digest(), 0, 8);
+    }
+}
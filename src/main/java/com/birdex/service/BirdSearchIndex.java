@@ -0,0 +1,194 @@
+package com.birdex.service;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Índice de búsqueda facetada sobre el snapshot del catálogo. Cada ave es una posición (el orden
+ * alfabético del catálogo); cada valor de rareza/color/tamaño tiene un {@link BitSet} con sus aves,
+ * y longitud/peso se guardan como arrays ordenados para resolver rangos con búsqueda binaria.
+ * Un filtro es una intersección de bitsets, así que filtrar, contar y calcular facetas no toca la base.
+ * Inmutable: se arma junto con el snapshot y se reemplaza con él.
+ */
+final class BirdSearchIndex {
+
+    /** Filtros de GET /bird; null = sin filtro. Texto sin distinguir mayúsculas ni acentos. */
+    record Query(String rarity, String color, String size,
+                 Integer lengthMinMm, Integer lengthMaxMm,
+                 Integer weightMinG, Integer weightMaxG) {
+    }
+
+    /** Cantidad de aves por valor de cada faceta (con el resto de los filtros aplicados). */
+    record Facets(int total,
+                  Map<String, Integer> rarity,
+                  Map<String, Integer> color,
+                  Map<String, Integer> size) {
+    }
+
+    /** Valor de faceta con su etiqueta original y sus aves. */
+    private record Facet(String label, BitSet birds) {
+    }
+
+    /** (valor, posición) ordenado por valor, para los rangos de longitud/peso. */
+    private record Sorted(int[] values, int[] positions) {
+    }
+
+    private static final String EXCLUDED_NAME = "desconocida";
+
+    private final List<BirdCatalog.Entry> entries;
+    private final BitSet searchable;
+    private final Map<String, Facet> rarities;
+    private final Map<String, Facet> colors;
+    private final Map<String, Facet> sizes;
+    private final Sorted lengthMin;
+    private final Sorted lengthMax;
+    private final Sorted weightMin;
+    private final Sorted weightMax;
+
+    BirdSearchIndex(List<BirdCatalog.Entry> entries) {
+        this.entries = entries;
+        this.searchable = new BitSet(entries.size());
+        Map<String, Facet> r = new TreeMap<>();
+        Map<String, Facet> c = new TreeMap<>();
+        Map<String, Facet> s = new TreeMap<>();
+
+        for (int i = 0; i < entries.size(); i++) {
+            BirdCatalog.Entry e = entries.get(i);
+            if (EXCLUDED_NAME.equals(normalize(e.name()))) continue;
+            searchable.set(i);
+            add(r, e.rarity(), i);
+            add(s, e.size(), i);
+            for (String color : e.colors()) add(c, color, i);
+        }
+        this.rarities = Collections.unmodifiableMap(r);
+        this.colors = Collections.unmodifiableMap(c);
+        this.sizes = Collections.unmodifiableMap(s);
+
+        this.lengthMin = sorted(BirdCatalog.Entry::lengthMinMm);
+        this.lengthMax = sorted(BirdCatalog.Entry::lengthMaxMm);
+        this.weightMin = sorted(BirdCatalog.Entry::weightMinG);
+        this.weightMax = sorted(BirdCatalog.Entry::weightMaxG);
+    }
+
+    BirdCatalog.Entry entry(int position) {
+        return entries.get(position);
+    }
+
+    /** Aves que cumplen todos los filtros. */
+    BitSet match(Query q) {
+        BitSet out = (BitSet) searchable.clone();
+        and(out, rarities, q.rarity());
+        and(out, colors, q.color());
+        and(out, sizes, q.size());
+        applyRanges(out, q);
+        return out;
+    }
+
+    /**
+     * Facetas "disyuntivas": el conteo de cada valor de una faceta aplica todos los filtros
+     * menos el de esa misma faceta, así el cliente ve cuántas aves quedarían al cambiar ese valor.
+     */
+    Facets facets(Query q) {
+        BitSet base = (BitSet) searchable.clone();
+        applyRanges(base, q);
+
+        BitSet byRarity = (BitSet) base.clone();
+        and(byRarity, colors, q.color());
+        and(byRarity, sizes, q.size());
+
+        BitSet byColor = (BitSet) base.clone();
+        and(byColor, rarities, q.rarity());
+        and(byColor, sizes, q.size());
+
+        BitSet bySize = (BitSet) base.clone();
+        and(bySize, rarities, q.rarity());
+        and(bySize, colors, q.color());
+
+        return new Facets(
+                match(q).cardinality(),
+                counts(rarities, byRarity),
+                counts(colors, byColor),
+                counts(sizes, bySize)
+        );
+    }
+
+    /* ============== construcción ============== */
+
+    private static void add(Map<String, Facet> facet, String value, int position) {
+        if (value == null || value.isBlank()) return;
+        facet.computeIfAbsent(normalize(value), k -> new Facet(value.trim(), new BitSet())).birds().set(position);
+    }
+
+    private Sorted sorted(Function<BirdCatalog.Entry, Integer> field) {
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = searchable.nextSetBit(0); i >= 0; i = searchable.nextSetBit(i + 1)) {
+            Integer v = field.apply(entries.get(i));
+            if (v != null) pairs.add(new int[]{v, i});
+        }
+        pairs.sort(Comparator.comparingInt(p -> p[0]));
+        int[] values = new int[pairs.size()];
+        int[] positions = new int[pairs.size()];
+        for (int i = 0; i < pairs.size(); i++) {
+            values[i] = pairs.get(i)[0];
+            positions[i] = pairs.get(i)[1];
+        }
+        return new Sorted(values, positions);
+    }
+
+    /* ============== consulta ============== */
+
+    private static void and(BitSet out, Map<String, Facet> facet, String value) {
+        if (value == null || value.isBlank()) return;
+        Facet f = facet.get(normalize(value));
+        if (f == null) out.clear();
+        else out.and(f.birds());
+    }
+
+    private void applyRanges(BitSet out, Query q) {
+        // mismos criterios que la consulta SQL: el rango del ave tiene que solaparse con el pedido
+        if (q.lengthMinMm() != null) out.and(atLeast(lengthMax, q.lengthMinMm()));
+        if (q.lengthMaxMm() != null) out.and(atMost(lengthMin, q.lengthMaxMm()));
+        if (q.weightMinG() != null) out.and(atLeast(weightMax, q.weightMinG()));
+        if (q.weightMaxG() != null) out.and(atMost(weightMin, q.weightMaxG()));
+    }
+
+    /** Aves con valor >= min (las que no tienen valor quedan afuera). */
+    private BitSet atLeast(Sorted s, int min) {
+        BitSet out = new BitSet(entries.size());
+        for (int i = lowerBound(s.values(), min); i < s.values().length; i++) out.set(s.positions()[i]);
+        return out;
+    }
+
+    /** Aves con valor <= max (las que no tienen valor quedan afuera). */
+    private BitSet atMost(Sorted s, int max) {
+        BitSet out = new BitSet(entries.size());
+        int end = max == Integer.MAX_VALUE ? s.values().length : lowerBound(s.values(), max + 1);
+        for (int i = 0; i < end; i++) out.set(s.positions()[i]);
+        return out;
+    }
+
+    /** Primer índice con values[i] >= key. */
+    private static int lowerBound(int[] values, int key) {
+        int lo = 0, hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static Map<String, Integer> counts(Map<String, Facet> facet, BitSet scope) {
+        Map<String, Integer> out = new LinkedHashMap<>();
+        for (Facet f : facet.values()) {
+            BitSet hit = (BitSet) f.birds().clone();
+            hit.and(scope);
+            out.put(f.label(), hit.cardinality());
+        }
+        return out;
+    }
+
+    private static String normalize(String s) {
+        return BirdCatalog.normalize(s);
+    }
+}
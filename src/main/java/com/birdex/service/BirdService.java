@@ -1,108 +1,104 @@
 package com.birdex.service;
 
 import com.birdex.dto.BirdDto;
+import com.birdex.dto.BirdFacetsResponse;
 import com.birdex.dto.BirdListItem;
 import com.birdex.dto.BirdProgressProfile;
 import com.birdex.dto.BirdProgressResponse;
 import com.birdex.dto.enums.BirdImageSize;
 import com.birdex.entity.BirdEntity;
-import com.birdex.entity.BirdNamesView;
-import com.birdex.entity.BirdSummary;
 import com.birdex.mapper.BirdMapper;
-import com.birdex.repository.BirdColorRepository;
-import com.birdex.repository.BirdRarityRepository;
-import com.birdex.repository.BirdRepository;
-import com.birdex.utils.Slugs;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
-import com.birdex.dto.ZonePointDto;
-import com.birdex.repository.BirdRepository.ZonePointRow;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class BirdService {
-    private final BirdRepository birdRepository;
     private final BirdMapper birdMapper;
     private final BucketService bucketService;
-    private final BirdRarityRepository birdRarityRepository;
-    private final BirdColorRepository birdColorRepository;
+    private final RarityCatalog rarityCatalog;
+    private final BirdCatalog birdCatalog;
 
     public String getDescription(String commonName) {
-        return birdRepository.findFirstByCommonNameContainingIgnoreCase(commonName).orElseThrow(() -> {
+        return birdCatalog.findByCommonNameContaining(commonName).orElseThrow(() -> {
             log.warn("No bird found for common name: {}", commonName);
             return new RuntimeException("Bird not found for common name: " + commonName);
-        }).getDescription();
+        }).description();
     }
 
     public BirdDto getBySpecificName(String specificName) {
-        BirdEntity entity = birdRepository.findFirstByNameContainingIgnoreCase(specificName).orElseThrow(() -> {
+        BirdCatalog.Entry bird = birdCatalog.findByNameContaining(specificName).orElseThrow(() -> {
             log.warn("No bird found for name: {}", specificName);
             return new RuntimeException("Bird not found for name: " + specificName);
         });
 
-        BirdDto dto = birdMapper.toDto(entity);
+        BirdDto dto = birdMapper.toDto(bird);
 
         String thumb = bucketService.getBirdProfilePublicUrl(dto.getName(), BirdImageSize.THUMB_256);
         dto.setThumbUrl(thumb);
         String medium = bucketService.getBirdProfilePublicUrl(dto.getName(), BirdImageSize.MEDIUM_600);
         dto.setImageUrl(medium);
 
-        String rarity = birdRarityRepository.findRarityNameByBirdName(entity.getName()).orElse("");
-        dto.setRarity(rarity);
-
-        dto.setColors(birdColorRepository.findColorNamesByBirdName(entity.getName()));
-
-        dto.setZones(
-                entity.getZones() == null ? List.of() :
-                        entity.getZones().stream()
-                                .map(z -> ZonePointDto.builder()
-                                        .name(z.getName())
-                                        .latitude(z.getLatitude())
-                                        .longitude(z.getLongitude())
-                                        .build())
-                                .toList()
-        );
-
-
         return dto;
     }
 
+    /** Descargas de fotos en paralelo al armar el listado legacy (cada una es un GET a MinIO). */
+    private static final int PHOTO_FETCH_THREADS = 8;
+
+    /** Pool acotado y compartido entre rearmados; {@link BirdCatalogFeedService} hace uno por vez. */
+    private final ExecutorService photoFetchPool = Executors.newFixedThreadPool(PHOTO_FETCH_THREADS, r -> {
+        Thread t = new Thread(r, "bird-photo-fetch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Listado legacy con las fotos en base64. Es caro (una descarga por ave): el controller lo sirve
+     * desde el cuerpo precalculado de {@link BirdCatalogFeedService}, que sólo lo rearma cuando cambia
+     * el catálogo o el bucket.
+     */
     public BirdProgressResponse getBirds() {
-        List<BirdNamesView> birds = birdRepository.findAllByOrderByNameAsc();
-
-        List<BirdProgressProfile> list = new ArrayList<>();
-        BirdProgressResponse.BirdProgressResponseBuilder builder = BirdProgressResponse.builder();
-
-        for (BirdNamesView b : birds) {
-            String slugifyName = Slugs.of(b.getName());
-            String birdPhoto = bucketService.getBirdProfileBase64(slugifyName);
-            String rarity = birdRarityRepository.findRarityNameByBirdName(b.getName()).orElse("");
+        List<BirdCatalog.Entry> birds = birdCatalog.all();
+
+        List<CompletableFuture<BirdProgressProfile>> pending = birds.stream()
+                .map(b -> CompletableFuture.supplyAsync(() -> BirdProgressProfile.builder()
+                        .name(b.name())
+                        .rarity(b.rarity())
+                        .commonName(b.commonName())
+                        .photoBase64(bucketService.getBirdProfileBase64(b.slug()))
+                        .build(), photoFetchPool))
+                .toList();
 
-            BirdProgressProfile bpp = BirdProgressProfile.builder()
-                    .name(b.getName())
-                    .rarity(rarity)
-                    .commonName(b.getCommonName())
-                    .photoBase64(birdPhoto)
-                    .build();
+        List<BirdProgressProfile> list = new ArrayList<>(pending.size());
+        for (CompletableFuture<BirdProgressProfile> f : pending) list.add(f.join());
 
-            list.add(bpp);
-        }
-
-        return builder
+        return BirdProgressResponse.builder()
                 .list(list)
                 .build();
     }
 
+    @PreDestroy
+    public void shutdown() {
+        photoFetchPool.shutdownNow();
+    }
+
 
     public Page<BirdListItem> search(
             String rarity,
@@ -114,10 +110,66 @@ public class BirdService {
             Integer weightMaxG,
             Pageable pageable
     ) {
-        String r = normalize(rarity);
-        String c = normalize(color);
-        String s = normalize(size);
+        // índice facetado en memoria: filtro + conteo sin consultas a la base
+        BirdSearchIndex index = birdCatalog.searchIndex();
+        BitSet matches = index.match(query(rarity, color, size, lengthMinMm, lengthMaxMm, weightMinG, weightMaxG));
+
+        List<BirdCatalog.Entry> hits = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            hits.add(index.entry(i)); // ya vienen ordenadas por nombre
+        }
+        Comparator<BirdCatalog.Entry> order = comparatorFor(pageable.getSort());
+        if (order != null) hits.sort(order);
+
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+
+        List<BirdListItem> content = hits.subList(from, to).stream()
+                .map(it -> BirdListItem.builder()
+                        .birdId(it.birdId())
+                        .name(it.name())
+                        .commonName(it.commonName())
+                        .size(it.size())
+                        .lengthMinMm(it.lengthMinMm())
+                        .lengthMaxMm(it.lengthMaxMm())
+                        .weightMinG(it.weightMinG())
+                        .weightMaxG(it.weightMaxG())
+                        .rarity(it.rarity())
+                        .colors(it.colors())
+                        .thumbUrl(bucketService.getBirdProfilePublicUrl(it.name(), BirdImageSize.THUMB_256))
+                        .imageUrl(bucketService.getBirdProfilePublicUrl(it.name(), BirdImageSize.MEDIUM_600))
+                        .zones(it.zones())
+                        .build())
+                .toList();
+
+        return new PageImpl<>(content, pageable, hits.size());
+    }
+
+    /** Conteos por rareza/color/tamaño para los mismos filtros de {@link #search}. */
+    public BirdFacetsResponse facets(
+            String rarity,
+            String color,
+            String size,
+            Integer lengthMinMm,
+            Integer lengthMaxMm,
+            Integer weightMinG,
+            Integer weightMaxG
+    ) {
+        BirdSearchIndex.Facets f = birdCatalog.searchIndex().facets(
+                query(rarity, color, size, lengthMinMm, lengthMaxMm, weightMinG, weightMaxG));
+
+        return BirdFacetsResponse.builder()
+                .total(f.total())
+                .rarity(f.rarity())
+                .color(f.color())
+                .size(f.size())
+                .build();
+    }
 
+    /** Filtros limpios para el índice: textos recortados, medidas positivas y rangos invertidos corregidos. */
+    private BirdSearchIndex.Query query(String rarity, String color, String size,
+                                        Integer lengthMinMm, Integer lengthMaxMm,
+                                        Integer weightMinG, Integer weightMaxG) {
         Integer lenMin = cleanPositive(lengthMinMm);
         Integer lenMax = cleanPositive(lengthMaxMm);
         if (lenMin != null && lenMax != null && lenMin > lenMax) {
@@ -133,42 +185,29 @@ public class BirdService {
             wMin = wMax;
             wMax = tmp;
         }
+        return new BirdSearchIndex.Query(normalize(rarity), normalize(color), normalize(size),
+                lenMin, lenMax, wMin, wMax);
+    }
 
-        Page<BirdSummary> page = birdRepository.searchBirds(r, c, s, lenMin, lenMax, wMin, wMax, pageable);
-
-        List<BirdListItem> content = page.getContent().stream()
-                .map(it -> {
-                    String thumb = bucketService.getBirdProfilePublicUrl(it.getName(), BirdImageSize.THUMB_256);
-                    String medium = bucketService.getBirdProfilePublicUrl(it.getName(), BirdImageSize.MEDIUM_600);
-
-                    List<ZonePointDto> zones = birdRepository.findZonesForBird(it.getBirdId())
-                            .stream()
-                            .map(row -> ZonePointDto.builder()
-                                    .name(row.getName())
-                                    .latitude(row.getLatitude())
-                                    .longitude(row.getLongitude())
-                                    .build())
-                            .toList();
-
-                    return BirdListItem.builder()
-                            .birdId(it.getBirdId())
-                            .name(it.getName())
-                            .commonName(it.getCommonName())
-                            .size(it.getSize())
-                            .lengthMinMm(it.getLengthMinMm())
-                            .lengthMaxMm(it.getLengthMaxMm())
-                            .weightMinG(it.getWeightMinG())
-                            .weightMaxG(it.getWeightMaxG())
-                            .rarity(it.getRarity())
-                            .colors(it.getColors())
-                            .thumbUrl(thumb)
-                            .imageUrl(medium)
-                            .zones(zones)
-                            .build();
-                })
-                .toList();
-
-        return new PageImpl<>(content, pageable, page.getTotalElements());
+    /** null = orden natural del catálogo (name asc); los campos desconocidos se ignoran. */
+    private static Comparator<BirdCatalog.Entry> comparatorFor(Sort sort) {
+        Comparator<BirdCatalog.Entry> out = null;
+        for (Sort.Order o : sort) {
+            Comparator<BirdCatalog.Entry> c = switch (o.getProperty()) {
+                case "name" -> Comparator.comparing(BirdCatalog.Entry::name, String.CASE_INSENSITIVE_ORDER);
+                case "commonName" -> Comparator.comparing(BirdCatalog.Entry::commonName, String.CASE_INSENSITIVE_ORDER);
+                case "size" -> Comparator.comparing(BirdCatalog.Entry::size, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+                case "lengthMinMm" -> Comparator.comparing(BirdCatalog.Entry::lengthMinMm, Comparator.nullsLast(Integer::compare));
+                case "lengthMaxMm" -> Comparator.comparing(BirdCatalog.Entry::lengthMaxMm, Comparator.nullsLast(Integer::compare));
+                case "weightMinG" -> Comparator.comparing(BirdCatalog.Entry::weightMinG, Comparator.nullsLast(Integer::compare));
+                case "weightMaxG" -> Comparator.comparing(BirdCatalog.Entry::weightMaxG, Comparator.nullsLast(Integer::compare));
+                default -> null;
+            };
+            if (c == null) continue;
+            if (o.isDescending()) c = c.reversed();
+            out = (out == null) ? c : out.thenComparing(c);
+        }
+        return out;
     }
 
     private String normalize(String v) {
@@ -180,7 +219,7 @@ public class BirdService {
     }
 
     public String getRarityForBird(BirdEntity bird) {
-        return birdRarityRepository.findRarityNameByBirdName(bird.getName())
+        return rarityCatalog.rarityOf(bird.getBirdId())
                 .orElse("COMMON"); // valor por defecto si no tiene rareza asignada
     }
 }
@@ -34,14 +34,29 @@ public class BirdnetService {
 
     private final AudioAIModelClient audioAIModelClient;
     private final BirdRepository birdRepository;
+    private final BirdCatalog birdCatalog;
     private final SightingRepository sightingRepository;
     private final UserRepository userRepository;
     private final BucketService bucketService;
+    private final SightingMediaService sightingMediaService;
+    private final InferenceCache<BirdnetAnalyzeResponse> audioInferenceCache;
     private static final String CACHE = "public, max-age=31536000, immutable";
 
     public Detection analyze(BirdnetAnalyzeRequest req) {
-        // 🔹 Ejecutar análisis principal (lógica original)
-        BirdnetAnalyzeResponse resp = audioAIModelClient.analyze(req);
+        // base64 legacy: se decodifica una sola vez y el resto del flujo trabaja con bytes
+        byte[] audio = Base64Sanitizer.decode(req.getBase64());
+        return analyzeAudio(audio, FileMetadataExtractor.extractMimeType(req.getBase64()), req.getMinConf(), req.getEmail());
+    }
+
+    /** Análisis sobre el audio ya en bytes (endpoints binarios y JSON legacy). */
+    public Detection analyzeAudio(byte[] audio, String mimeType, Double minConf, String email) {
+        if (audio == null || audio.length == 0) {
+            throw new IllegalArgumentException("Audio vacío o nulo");
+        }
+        // 🔹 Ejecutar análisis principal (cacheado por contenido: un reintento no vuelve a llamar a BirdNET)
+        BirdnetAnalyzeResponse resp = copyOf(audioInferenceCache.get(
+                InferenceCache.key(audio, minConf),
+                () -> audioAIModelClient.tryAnalyze(audio, minConf).orElse(null)));
 
         Detection best = (resp == null || resp.getDetections() == null)
                 ? null
@@ -56,16 +71,12 @@ public class BirdnetService {
         if (raw == null || raw.isBlank()) return defaultDetectionResponse();
 
         String sci = extractScientific(raw);
-        boolean ok = birdRepository.existsByNameIgnoreCase(sci);
-
-        if (!ok) {
-            ok = birdRepository.existsNormalized(sci);
-        }
+        // catálogo en memoria: nombre científico o común, sin mayúsculas ni acentos
+        boolean ok = birdCatalog.byName(sci).isPresent() || birdCatalog.byCommonName(sci).isPresent();
         if (!ok) {
             String common = extractCommon(raw);
             if (common != null) {
-                ok = birdRepository.existsByCommonNameIgnoreCase(common)
-                        || birdRepository.existsNormalized(common);
+                ok = birdCatalog.byCommonName(common).isPresent() || birdCatalog.byName(common).isPresent();
             }
         }
 
@@ -76,23 +87,21 @@ public class BirdnetService {
         // 🟢 Si la detección es válida, crear el avistamiento y guardar el audio
         if (ok) {
             try {
-                log.info("🎧 Creando SightingEntity en estado PENDING para usuario {}", req.getEmail());
-
-                UserEntity user = userRepository.findByEmail(req.getEmail())
-                        .orElseThrow(() -> new UserNotFoundException(req.getEmail()));
+                log.info("🎧 Creando SightingEntity en estado PENDING para usuario {}", email);
 
-                // 2️⃣ Extraer datos y guardar el archivo de audio
-                String mimeType = FileMetadataExtractor.extractMimeType(req.getBase64());
-                byte[] data = FileMetadataExtractor.extractData(req.getBase64());
+                UserEntity user = userRepository.findByEmail(email)
+                        .orElseThrow(() -> new UserNotFoundException(email));
 
+                // 2️⃣ Guardar el archivo de audio (los mismos bytes que se analizaron)
                 String slugBird = Slugs.of(best.getLabel());
                 String generated = FilenameGenerator.generate(
-                        req.getEmail() != null ? req.getEmail() : "anonimo",
+                        email != null ? email : "anonimo",
                         slugBird,
                         mimeType
                 );
 
-                BirdEntity bird = birdRepository.findFirstByNameContainingIgnoreCase(slugBird.replace("_", " "))
+                BirdEntity bird = birdCatalog.findByNameContaining(slugBird.replace("_", " "))
+                        .map(b -> birdRepository.getReferenceById(b.birdId()))
                         .orElseThrow(() -> {
                             log.warn("No bird found for name: {}", slugBird);
                             return new BirdNotFoundException(slugBird);
@@ -110,13 +119,14 @@ public class BirdnetService {
                 log.info("✅ SightingEntity creado con ID: {}", pending.getSightingId());
 
                 String keyWithinBucket = String.format("%s/%s/%s/%s",
-                        req.getEmail(),
+                        email,
                         slugBird,
                         pending.getSightingId(),
                         lastPathSegment(generated)
                 );
 
-                bucketService.uploadSightingObject(keyWithinBucket, data, toContentType(mimeType), CACHE);
+                bucketService.uploadSightingObject(keyWithinBucket, audio, toContentType(mimeType), CACHE);
+                sightingMediaService.record(pending, keyWithinBucket, toContentType(mimeType), audio.length);
                 log.info("🎵 Audio guardado en bucket con key: {}", keyWithinBucket);
 
                 // 3️⃣ Asociar el sightingId al resultado
@@ -132,6 +142,24 @@ public class BirdnetService {
 
     // ---------------- utilitarios ----------------
 
+    /** Copia profunda: las detecciones se mutan más abajo y la respuesta cacheada se comparte. */
+    private static BirdnetAnalyzeResponse copyOf(BirdnetAnalyzeResponse cached) {
+        if (cached == null || cached.getDetections() == null) return cached;
+        BirdnetAnalyzeResponse copy = new BirdnetAnalyzeResponse();
+        copy.setDetections(cached.getDetections().stream()
+                .filter(Objects::nonNull)
+                .map(d -> {
+                    Detection c = new Detection();
+                    c.setStart_tim(d.getStart_tim());
+                    c.setEnd_time(d.getEnd_time());
+                    c.setLabel(d.getLabel());
+                    c.setConfidence(d.getConfidence());
+                    return c;
+                })
+                .toList());
+        return copy;
+    }
+
     private String extractScientific(String label) {
         String left = splitLeft(label, "_", "-", "/", "(", ",");
         String[] parts = left.trim().split("\\s+");
@@ -0,0 +1,103 @@
+package com.birdex.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Copia en memoria de las keys de un bucket, para resolver existencia y prefijos sin ir a MinIO.
+ * Se carga con un listado paginado completo, se actualiza con cada subida propia y se vuelve a
+ * listar periódicamente para levantar cambios hechos por fuera de la API.
+ * Hasta el primer listado exitoso {@link #ready()} es false y el llamador debe ir a la red.
+ */
+@Slf4j
+class BucketKeyIndex {
+
+    private final String bucket;
+    private final Supplier<Iterable<String>> lister;
+
+    /** Keys ordenadas como las devuelve un LIST de S3 (lexicográfico), así los prefijos resuelven igual. */
+    private volatile NavigableSet<String> keys;
+
+    /** Subidas propias con su instante, para no perderlas si caen en medio de un refresh. */
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+
+    /** Cambia cada vez que el contenido del índice cambia (para invalidar lo derivado de él). */
+    private final AtomicLong version = new AtomicLong();
+
+    BucketKeyIndex(String bucket, Supplier<Iterable<String>> lister) {
+        this.bucket = bucket;
+        this.lister = lister;
+    }
+
+    boolean ready() {
+        return keys != null;
+    }
+
+    boolean contains(String key) {
+        NavigableSet<String> k = keys;
+        return k != null && k.contains(key);
+    }
+
+    /** Primera key (orden lexicográfico) que empieza con el prefijo y no es un "directorio". */
+    String firstWithPrefix(String prefix) {
+        NavigableSet<String> k = keys;
+        if (k == null) return null;
+        for (String key : k.tailSet(prefix, true)) {
+            if (!key.startsWith(prefix)) return null;
+            if (!key.endsWith("/")) return key;
+        }
+        return null;
+    }
+
+    void added(String key) {
+        recentWrites.put(key, System.nanoTime());
+        NavigableSet<String> k = keys;
+        if (k != null) k.add(key);
+        version.incrementAndGet();
+    }
+
+    long version() {
+        return version.get();
+    }
+
+    int size() {
+        NavigableSet<String> k = keys;
+        return k == null ? 0 : k.size();
+    }
+
+    /**
+     * Lista el bucket completo y reemplaza el índice de una vez. Si falla se conserva el índice
+     * anterior (o sigue sin estar listo, y el llamador cae a HEAD/LIST).
+     */
+    synchronized void refresh() {
+        long startedAt = System.nanoTime();
+        NavigableSet<String> fresh = new ConcurrentSkipListSet<>();
+        try {
+            for (String key : lister.get()) {
+                if (key != null) fresh.add(key);
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo listar el bucket '{}' para el índice de keys: {}", bucket, e.getMessage());
+            return;
+        }
+        NavigableSet<String> previous = keys;
+        boolean first = previous == null;
+        keys = fresh;
+        // lo subido mientras corría el listado puede no estar en él (se aplica después del swap
+        // para no perder una subida que haya escrito en el set viejo)
+        recentWrites.forEach((key, at) -> {
+            if (at - startedAt >= 0) fresh.add(key);
+        });
+        recentWrites.values().removeIf(at -> at - startedAt < 0);
+        if (first || !fresh.equals(previous)) version.incrementAndGet();
+
+        if (first) log.info("Índice de keys del bucket '{}' cargado ({} objetos)", bucket, fresh.size());
+        else log.debug("Índice de keys del bucket '{}' refrescado ({} objetos)", bucket, fresh.size());
+    }
+}
@@ -5,6 +5,7 @@ import com.birdex.domain.SightingImageItem;
 import com.birdex.dto.enums.BirdImageSize;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
@@ -21,10 +22,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.Normalizer;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Service
 @Slf4j
@@ -32,6 +33,8 @@ public class BucketService {
 
     private final BucketProperties bucketProperties;
     private S3Client s3;
+    /** Keys del bucket de birds: las URLs de perfil se resuelven en memoria, sin HEAD/LIST por ave. */
+    private BucketKeyIndex birdIndex;
 
     private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
 
@@ -62,8 +65,13 @@ public class BucketService {
 
         // Asegurar buckets configurados
         String birdsBucket = birdsBucket();
-        if (birdsBucket != null && !birdsBucket.isBlank()) ensureBucketExists(birdsBucket);
-        else log.warn("minio.birds.bucket no configurado.");
+        if (birdsBucket != null && !birdsBucket.isBlank()) {
+            ensureBucketExists(birdsBucket);
+            birdIndex = new BucketKeyIndex(birdsBucket, () -> listAllKeys(birdsBucket));
+            birdIndex.refresh();
+        } else {
+            log.warn("minio.birds.bucket no configurado.");
+        }
 
         String sightingsBucket = sightingsBucket();
         if (sightingsBucket != null && !sightingsBucket.isBlank()) ensureBucketExists(sightingsBucket);
@@ -80,6 +88,19 @@ public class BucketService {
                 : null;
     }
 
+    @Scheduled(fixedDelayString = "${minio.birds.index-refresh:PT10M}",
+            initialDelayString = "${minio.birds.index-refresh:PT10M}")
+    public void refreshBirdIndex() {
+        if (birdIndex != null) birdIndex.refresh();
+    }
+
+    private Iterable<String> listAllKeys(String bucket) {
+        ListObjectsV2Request req = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .build();
+        return () -> s3.listObjectsV2Paginator(req).contents().stream().map(S3Object::key).iterator();
+    }
+
     private void ensureBucketExists(String bucket) {
         try {
             s3.headBucket(HeadBucketRequest.builder().bucket(bucket).build());
@@ -104,49 +125,32 @@ public class BucketService {
     // =========================
 
     /**
-     * Sube la foto base64 de un usuario al bucket de users y retorna la key final (p.ej. users/{email}/profile.jpg).
+     * Sube la foto de perfil original y borra las anteriores. Las variantes _256/_600 las genera
+     * {@link ImageVariantService} en segundo plano a partir de los mismos bytes.
      */
-    public String uploadUserProfileBase64(String email, String base64, String contentType, boolean generateVariants) {
+    public String uploadUserProfile(String email, byte[] bytes, String contentType) {
         String bucket = usersBucket();
         if (bucket == null || bucket.isBlank()) {
             throw new IllegalStateException("Config 'minio.users.bucket' vacío o nulo");
         }
-        if (base64 == null || base64.isBlank()) {
-            throw new IllegalArgumentException("Base64 vacío para foto de perfil");
+        if (bytes == null || bytes.length == 0) {
+            throw new IllegalArgumentException("Foto de perfil vacía");
         }
+        String ct = (contentType != null && !contentType.isBlank()) ? contentType : "image/jpeg";
 
         // Tomamos snapshot de lo que existe ANTES de subir
         List<String> existing = listUserProfileKeys(bucket, email);
 
-        ContentAndPayload cap = extractContentTypeAndPayload(base64, contentType);
-        String ext = extFromContentType(cap.contentType);
+        String ext = extFromContentType(ct);
         String baseKey = userProfileBaseKey(email);         // <email>/profile
         String keyOrig = baseKey + ext;                     // <email>/profile.jpg (o .png/.webp)
-        String key256 = variantKey(keyOrig, "_256");
-        String key600 = variantKey(keyOrig, "_600");
-
-        byte[] bytes = Base64.getDecoder().decode(cap.payload.replaceAll("\\s", "").getBytes(StandardCharsets.UTF_8));
 
         // 1) Subimos el original
-        putObject(bucket, keyOrig, bytes, cap.contentType, CACHE_IMMUTABLE);
-
-        // 2) (Opcional) variantes
-        if (generateVariants) {
-            // Aquí iría el resize real; placeholder con el mismo buffer
-            putObject(bucket, key256, bytes, cap.contentType, CACHE_IMMUTABLE);
-            putObject(bucket, key600, bytes, cap.contentType, CACHE_IMMUTABLE);
-        }
-
-        // 3) Borramos lo anterior (si existía) EXCEPTO las keys recién subidas
-        var keep = new java.util.HashSet<String>();
-        keep.add(keyOrig);
-        if (generateVariants) {
-            keep.add(key256);
-            keep.add(key600);
-        }
+        putObject(bucket, keyOrig, bytes, ct, CACHE_IMMUTABLE);
 
+        // 2) Borramos lo anterior (si existía): originales y variantes de fotos previas
         for (String oldKey : existing) {
-            if (!keep.contains(oldKey) && objectExists(bucket, oldKey)) {
+            if (!oldKey.equals(keyOrig) && objectExists(bucket, oldKey)) {
                 try {
                     s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(oldKey).build());
                     log.info("Eliminado perfil anterior '{}'", oldKey);
@@ -160,6 +164,19 @@ public class BucketService {
         return keyOrig;
     }
 
+    /** Sube un objeto al bucket de users (p. ej. las variantes de la foto de perfil). */
+    public void uploadUserObject(String key, byte[] data, String contentType, String cacheControl) {
+        String bucket = usersBucket();
+        if (bucket == null || bucket.isBlank()) {
+            throw new IllegalStateException("Config 'minio.users.bucket' vacío o nulo");
+        }
+        try {
+            putObject(bucket, key, data, contentType, cacheControl);
+        } catch (Exception e) {
+            throw new RuntimeException("No se pudo subir users/" + key, e);
+        }
+    }
+
     /**
      * Retorna URL pública de la foto de perfil del usuario para un size dado: "orig" | "256" | "600".
      */
@@ -174,10 +191,13 @@ public class BucketService {
         if (all.isEmpty()) return null; // no hay foto
 
         // 2) Elegir la más reciente por lastModified (por si hubiera más de una)
+        Set<String> present = new HashSet<>(all);
         String chosen = null;
         java.time.Instant latestTs = null;
 
         for (String k : all) {
+            // las variantes se suben después del original: no pueden ganar por fecha
+            if (isDerivedKey(k, present)) continue;
             try {
                 HeadObjectResponse head = s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(k).build());
                 if (chosen == null || (head.lastModified() != null && head.lastModified().isAfter(latestTs))) {
@@ -196,12 +216,12 @@ public class BucketService {
         }
 
         // 3) Si piden size, intentar variantes; si no existen, caer al original
-        if ("256".equals(size)) {
-            String k = variantKey(chosen, "_256");
-            return buildPublicUrl(bucket, objectExists(bucket, k) ? k : chosen);
-        } else if ("600".equals(size)) {
-            String k = variantKey(chosen, "_600");
-            return buildPublicUrl(bucket, objectExists(bucket, k) ? k : chosen);
+        if ("256".equals(size) || "600".equals(size)) {
+            String suffix = "_" + size;
+            for (String k : List.of(jpegVariantKey(chosen, suffix), variantKey(chosen, suffix))) {
+                if (present.contains(k)) return buildPublicUrl(bucket, k);
+            }
+            return buildPublicUrl(bucket, chosen);
         }
 
         // 4) Por defecto, original
@@ -259,22 +279,6 @@ public class BucketService {
         return safeEmail + "/";
     }
 
-    private ContentAndPayload extractContentTypeAndPayload(String base64, String fallbackContentType) {
-        // data:<mime>;base64,<payload>
-        Pattern p = Pattern.compile("^data:([\\w/+-\\.]+);base64,(.+)$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-        Matcher m = p.matcher(base64);
-        if (m.find()) {
-            String ct = m.group(1);
-            String payload = m.group(2);
-            return new ContentAndPayload(ct, payload);
-        }
-        String ct = (fallbackContentType != null && !fallbackContentType.isBlank()) ? fallbackContentType : "image/jpeg";
-        return new ContentAndPayload(ct, base64);
-    }
-
-    private record ContentAndPayload(String contentType, String payload) {
-    }
-
     private void putObject(String bucket, String key, byte[] data, String contentType, String cacheControl) {
         PutObjectRequest.Builder pb = PutObjectRequest.builder()
                 .bucket(bucket)
@@ -310,11 +314,11 @@ public class BucketService {
         };
 
         String keyToUse;
-        if (objectExists(bucket, preferredKey)) {
+        if (birdsObjectExists(preferredKey)) {
             keyToUse = preferredKey;
         } else {
             keyToUse = resolveProfileKey(bucket, birdName);
-            if (!objectExists(bucket, keyToUse)) {
+            if (!birdsObjectExists(keyToUse)) {
                 log.warn("Imagen no encontrada para '{}': ni '{}' ni '{}'", birdName, preferredKey, keyToUse);
                 keyToUse = preferredKey;
             }
@@ -322,7 +326,16 @@ public class BucketService {
         return buildPublicUrl(bucket, keyToUse);
     }
 
+    /**
+     * Versión del contenido del bucket de birds según el índice en memoria; cambia con cada subida
+     * o cambio detectado en el refresh. -1 si el índice todavía no está cargado.
+     */
+    public long birdObjectsVersion() {
+        return (birdIndex != null && birdIndex.ready()) ? birdIndex.version() : -1;
+    }
+
     public boolean birdsObjectExists(String key) {
+        if (birdIndex != null && birdIndex.ready()) return birdIndex.contains(key);
         String bucket = birdsBucket();
         return objectExists(bucket, key);
     }
@@ -351,6 +364,7 @@ public class BucketService {
                 pb.cacheControl(cacheControl);
             }
             s3.putObject(pb.build(), RequestBody.fromBytes(data));
+            if (birdIndex != null) birdIndex.added(key);
             log.info("Subido '{}' a bucket '{}' ({} bytes)", key, bucket, data.length);
         } catch (Exception e) {
             throw new RuntimeException("No se pudo subir birds/" + key, e);
@@ -413,6 +427,11 @@ public class BucketService {
         String base = profileBaseName();
         String prefix = slug + "/" + base;
 
+        if (birdIndex != null && birdIndex.ready()) {
+            String indexed = birdIndex.firstWithPrefix(prefix);
+            return indexed != null ? indexed : slug + "/" + base + ".jpg";
+        }
+
         ListObjectsV2Request req = ListObjectsV2Request.builder()
                 .bucket(bucket)
                 .prefix(prefix)
@@ -457,79 +476,162 @@ public class BucketService {
         }
     }
 
+    /**
+     * Igual que {@link #uploadSightingObject(String, byte[], String, String)} pero desde un archivo
+     * en disco: el SDK lo sube en streaming, sin copiarlo al heap.
+     */
+    public void uploadSightingObject(String key, Path file, String contentType, String cacheControl) {
+        String bucket = sightingsBucket();
+        if (bucket == null || bucket.isBlank()) {
+            throw new IllegalStateException("Config 'minio.sightings.bucket' vacío o nulo");
+        }
+        try {
+            PutObjectRequest.Builder pb = PutObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .contentType(contentType);
+            if (cacheControl != null && !cacheControl.isBlank()) {
+                pb.cacheControl(cacheControl);
+            }
+            s3.putObject(pb.build(), RequestBody.fromFile(file));
+            log.info("Subido '{}' a bucket sightings '{}' ({} bytes, desde archivo)", key, bucket, Files.size(file));
+        } catch (Exception e) {
+            throw new RuntimeException("No se pudo subir sightings/" + key, e);
+        }
+    }
+
     /**
      * Devuelve URLs públicas (thumb e image) de los objetos (imágenes, videos y audio .mp3) de un prefijo.
      * - Imágenes: intenta variantes _256 / _600; si no existen usa el original.
      * - Videos/Audio(.mp3): thumb = poster si existe (<nombre>_poster.jpg o <nombre>.jpg); imageUrl = el propio archivo.
      */
     public List<SightingImageItem> listSightingImageUrls(String prefix, int maxItems) {
+        UUID only = new UUID(0L, 0L);
+        return listSightingMediaBulk(Map.of(only, prefix), maxItems).getOrDefault(only, List.of());
+    }
+
+    /**
+     * Igual que {@link #listSightingImageUrls(String, int)} pero para muchos avistajes a la vez:
+     * un único LIST por usuario (sobre el prefijo común de sus avistajes) y las variantes/posters se
+     * resuelven contra ese listado en memoria, sin HEAD por objeto.
+     *
+     * @param prefixBySighting sightingId -> prefijo {email}/{slug}/{sightingId}/
+     * @return sightingId -> media, más reciente primero (vacío si el avistaje no tiene archivos)
+     */
+    public Map<UUID, List<SightingImageItem>> listSightingMediaBulk(Map<UUID, String> prefixBySighting,
+                                                                    int maxItemsPerSighting) {
         String bucket = sightingsBucket();
         if (bucket == null || bucket.isBlank()) {
             throw new IllegalStateException("Config 'minio.sightings.bucket' vacío o nulo");
         }
 
-        class Item {
-            final String key;
-            final java.time.Instant lastModified;
-
-            Item(String key, java.time.Instant lm) {
-                this.key = key;
-                this.lastModified = lm;
-            }
-        }
+        Map<UUID, List<SightingImageItem>> out = new HashMap<>();
+        Map<String, UUID> sightingByPrefix = new HashMap<>();
+        Map<String, List<String>> prefixesByUser = new HashMap<>();
+        prefixBySighting.forEach((id, prefix) -> {
+            out.put(id, new ArrayList<>());
+            sightingByPrefix.put(prefix, id);
+            int slash = prefix.indexOf('/');
+            String user = slash >= 0 ? prefix.substring(0, slash + 1) : prefix;
+            prefixesByUser.computeIfAbsent(user, k -> new ArrayList<>()).add(prefix);
+        });
 
-        List<Item> keys = new ArrayList<>();
-        try {
-            ListObjectsV2Request req = ListObjectsV2Request.builder()
-                    .bucket(bucket)
-                    .prefix(prefix)
-                    .build();
-
-            for (var page : s3.listObjectsV2Paginator(req)) {
-                for (S3Object obj : page.contents()) {
-                    String key = obj.key();
-                    if (isMediaKey(key)) {
-                        keys.add(new Item(key, obj.lastModified()));
+        for (List<String> prefixes : prefixesByUser.values()) {
+            String listPrefix = commonFolder(prefixes);
+            try {
+                Set<String> present = new HashSet<>();
+                Map<UUID, List<S3Object>> mediaBySighting = new HashMap<>();
+
+                ListObjectsV2Request req = ListObjectsV2Request.builder()
+                        .bucket(bucket)
+                        .prefix(listPrefix)
+                        .build();
+                for (var page : s3.listObjectsV2Paginator(req)) {
+                    for (S3Object obj : page.contents()) {
+                        present.add(obj.key());
+                        if (!isMediaKey(obj.key())) continue;
+                        UUID id = owningSighting(obj.key(), listPrefix.length(), sightingByPrefix);
+                        if (id != null) mediaBySighting.computeIfAbsent(id, k -> new ArrayList<>()).add(obj);
                     }
                 }
+
+                mediaBySighting.forEach((id, objects) -> {
+                    // más recientes primero
+                    objects.sort(Comparator.comparing(S3Object::lastModified).reversed());
+                    List<SightingImageItem> items = out.get(id);
+                    for (S3Object obj : objects) {
+                        if (items.size() >= maxItemsPerSighting) break;
+                        if (isDerivedKey(obj.key(), present)) continue;
+                        items.add(toSightingImageItem(bucket, obj.key(), present));
+                    }
+                });
+            } catch (Exception e) {
+                throw new RuntimeException("No se pudieron listar media en sightings bajo '" + listPrefix + "'", e);
             }
+        }
+        return out;
+    }
 
-            // más recientes primero
-            keys.sort((a, b) -> b.lastModified.compareTo(a.lastModified));
-
-            List<SightingImageItem> out = new ArrayList<>();
-            for (Item it : keys) {
-                String key = it.key;
-
-                if (isImageKey(key)) {
-                    // IMAGEN
-                    String thumbKey = variantKey(key, "_256");
-                    String imageKey = variantKey(key, "_600");
-
-                    String keyForThumb = objectExists(bucket, thumbKey) ? thumbKey : key;
-                    String keyForImage = objectExists(bucket, imageKey) ? imageKey : key;
-
-                    out.add(new SightingImageItem(
-                            buildPublicUrl(bucket, keyForThumb),
-                            buildPublicUrl(bucket, keyForImage)
-                    ));
-                } else if (isVideo(key) || isAudio(key)) {
-                    // VIDEO o AUDIO (.mp3)
-                    String posterKey = resolvePosterKeyIfAny(bucket, key);
-                    String thumbUrl = posterKey != null ? buildPublicUrl(bucket, posterKey) : null;
-
-                    out.add(new SightingImageItem(
-                            thumbUrl != null ? thumbUrl : buildPublicUrl(bucket, key),
-                            buildPublicUrl(bucket, key)
-                    ));
-                }
+    private SightingImageItem toSightingImageItem(String bucket, String key, Set<String> present) {
+        if (isImageKey(key)) {
+            return new SightingImageItem(
+                    buildPublicUrl(bucket, presentVariant(key, "_256", present)),
+                    buildPublicUrl(bucket, presentVariant(key, "_600", present))
+            );
+        }
+        // VIDEO o AUDIO (.mp3): miniatura del poster si existe, si no el poster
+        String posterKey = resolvePosterKeyIfAny(key, present);
+        return new SightingImageItem(
+                buildPublicUrl(bucket, posterKey != null ? presentVariant(posterKey, "_256", present) : key),
+                buildPublicUrl(bucket, key)
+        );
+    }
+
+    /** Avistaje dueño de la key: se prueba cada '/' a partir del prefijo listado contra los prefijos pedidos. */
+    private static UUID owningSighting(String key, int from, Map<String, UUID> sightingByPrefix) {
+        for (int i = key.indexOf('/', Math.max(0, from - 1)); i >= 0; i = key.indexOf('/', i + 1)) {
+            UUID id = sightingByPrefix.get(key.substring(0, i + 1));
+            if (id != null) return id;
+        }
+        return null;
+    }
 
-                if (out.size() >= maxItems) break;
+    /** Variantes (_256/_600) y posters de otro archivo del mismo listado no son media propia. */
+    private static boolean isDerivedKey(String key, Set<String> present) {
+        int dot = key.lastIndexOf('.');
+        if (dot <= 0) return false;
+        String stem = key.substring(0, dot);
+        for (String suffix : DERIVED_SUFFIXES) {
+            if (!stem.endsWith(suffix)) continue;
+            String base = stem.substring(0, stem.length() - suffix.length());
+            for (String ext : MEDIA_EXTENSIONS) {
+                if (present.contains(base + ext)) return true;
             }
-            return out;
-        } catch (Exception e) {
-            throw new RuntimeException("No se pudieron listar media en sightings bajo '" + prefix + "'", e);
         }
+        // poster con el mismo nombre que el video/audio (<nombre>.jpg)
+        if (isImageKey(key)) {
+            for (String ext : List.of(".mp4", ".mov", ".webm", ".mkv", ".mp3")) {
+                if (present.contains(stem + ext)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static final List<String> DERIVED_SUFFIXES = List.of("_256", "_600", "_poster");
+    private static final List<String> MEDIA_EXTENSIONS = List.of(
+            ".jpg", ".jpeg", ".png", ".webp", ".mp4", ".mov", ".webm", ".mkv", ".mp3");
+
+    /** Carpeta común (terminada en '/') de un grupo de prefijos del mismo usuario. */
+    private static String commonFolder(List<String> prefixes) {
+        String common = prefixes.get(0);
+        for (String p : prefixes) {
+            int n = Math.min(common.length(), p.length());
+            int i = 0;
+            while (i < n && common.charAt(i) == p.charAt(i)) i++;
+            common = common.substring(0, i);
+        }
+        int slash = common.lastIndexOf('/');
+        return slash >= 0 ? common.substring(0, slash + 1) : common;
     }
 
 
@@ -548,6 +650,11 @@ public class BucketService {
         }
     }
 
+    /** URL pública de una key del bucket de sightings (sin verificar que exista). */
+    public String sightingPublicUrl(String key) {
+        return buildPublicUrl(sightingsBucket(), key);
+    }
+
     public String buildPublicUrl(String bucket, String key) {
         String endpoint = bucketProperties.getEndpoint();
         String base = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
@@ -648,6 +755,24 @@ public class BucketService {
         return isImageKey(key) || isVideo(key) || isAudio(key);
     }
 
+    /** Variante generada (JPEG) o, en media anterior, variante con la extensión del original. */
+    private static String presentVariant(String key, String suffix, Set<String> present) {
+        String jpeg = jpegVariantKey(key, suffix);
+        if (present.contains(jpeg)) return jpeg;
+        String sameExt = variantKey(key, suffix);
+        return present.contains(sameExt) ? sameExt : key;
+    }
+
+    /** Key del poster de un video/audio: {@code a/b/clip.mp4} -> {@code a/b/clip_poster.jpg}. */
+    public static String posterKey(String mediaKey) {
+        return replaceExt(variantKey(mediaKey, "_poster"), ".jpg");
+    }
+
+    /** Key de una variante redimensionada: {@code a/b/foto.png} -> {@code a/b/foto_256.jpg}. */
+    public static String jpegVariantKey(String key, String suffix) {
+        return replaceExt(variantKey(key, suffix), ".jpg");
+    }
+
     private static String variantKey(String key, String suffix) {
         if (key == null || key.isBlank()) return key;
         int dot = key.lastIndexOf('.');
@@ -664,12 +789,12 @@ public class BucketService {
     /**
      * Para videos/audio: intentamos 1) sufijo _poster.jpg  2) mismo nombre con .jpg
      */
-    private String resolvePosterKeyIfAny(String bucket, String mediaKey) {
-        String candidate1 = replaceExt(variantKey(mediaKey, "_poster"), ".jpg");
-        if (objectExists(bucket, candidate1)) return candidate1;
+    private static String resolvePosterKeyIfAny(String mediaKey, Set<String> present) {
+        String candidate1 = posterKey(mediaKey);
+        if (present.contains(candidate1)) return candidate1;
 
         String candidate2 = replaceExt(mediaKey, ".jpg");
-        if (objectExists(bucket, candidate2)) return candidate2;
+        if (present.contains(candidate2)) return candidate2;
 
         return null;
     }
@@ -699,6 +824,7 @@ public class BucketService {
                             .build(),
                     RequestBody.fromBytes(bytes)
             );
+            if (birdIndex != null) birdIndex.added(key);
             log.info("Perfil '{}' subido en bucket '{}' ({} bytes)", key, bucket, bytes.length);
             return key;
         } catch (Exception e) {
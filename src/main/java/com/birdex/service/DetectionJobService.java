@@ -0,0 +1,240 @@
+package com.birdex.service;
+
+import com.birdex.config.DetectionJobsProperties;
+import com.birdex.domain.BirdDetectRequest;
+import com.birdex.domain.BirdVideoDetectRequest;
+import com.birdex.domain.DetectionJobResponse;
+import com.birdex.dto.enums.DetectionJobStatus;
+import com.birdex.exception.JobNotFoundException;
+import com.birdex.exception.JobQueueFullException;
+import com.birdex.utils.UploadSpool;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Detecciones asíncronas: el POST devuelve un jobId al instante y el trabajo corre en un executor
+ * acotado (hilos + cola con límite). El cliente consulta el estado o se suscribe por SSE.
+ * Los trabajos viven en memoria y se purgan {@code retention} después de terminar.
+ */
+@Slf4j
+@Service
+public class DetectionJobService {
+
+    private final DetectionService detectionService;
+    private final DetectionJobsProperties props;
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    /** Resultado común de imagen/video: lo que el trabajo necesita guardar. */
+    private record Outcome(String label, Double trustLevel, UUID sightingId) {
+    }
+
+    private static final class Job {
+        final UUID id = UUID.randomUUID();
+        final String type;
+        final OffsetDateTime createdAt = now();
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        volatile DetectionJobStatus status = DetectionJobStatus.QUEUED;
+        volatile OffsetDateTime startedAt;
+        volatile OffsetDateTime finishedAt;
+        volatile Outcome outcome;
+        volatile String error;
+
+        Job(String type) {
+            this.type = type;
+        }
+
+        DetectionJobResponse snapshot() {
+            Outcome o = outcome;
+            return DetectionJobResponse.builder()
+                    .jobId(id)
+                    .type(type)
+                    .status(status)
+                    .label(o != null ? o.label() : null)
+                    .trustLevel(o != null ? o.trustLevel() : null)
+                    .sightingId(o != null ? o.sightingId() : null)
+                    .error(error)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+
+    public DetectionJobService(DetectionService detectionService, DetectionJobsProperties props) {
+        this.detectionService = detectionService;
+        this.props = props;
+        int threads = Math.max(1, props.getThreads());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, props.getQueueCapacity())),
+                r -> {
+                    Thread t = new Thread(r, "detection-job");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /* ================= submit ================= */
+
+    public DetectionJobResponse submitImage(BirdDetectRequest request) {
+        return submit("IMAGE", () -> {
+            var r = detectionService.detect(request);
+            return new Outcome(r.getLabel(), r.getTrustLevel(), r.getSightingId());
+        });
+    }
+
+    public DetectionJobResponse submitVideo(BirdVideoDetectRequest request) {
+        return submit("VIDEO", () -> {
+            var r = detectionService.detectVideo(request);
+            return new Outcome(r.getLabel(), r.getTrustLevel(), r.getSightingId());
+        });
+    }
+
+    /**
+     * El upload se spoolea a disco antes de responder (el MultipartFile deja de ser legible cuando
+     * termina el request) y el trabajo borra el archivo al terminar.
+     */
+    public DetectionJobResponse submitVideoUpload(MultipartFile file, String email,
+                                                  Integer sampleFps, Boolean stopOnFirstAbove) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("El archivo de video es obligatorio");
+        }
+        Path spooled = UploadSpool.spool(file);
+        String originalName = file.getOriginalFilename();
+        String contentType = file.getContentType();
+        try {
+            return submit("VIDEO_MULTIPART", () -> {
+                try {
+                    var r = detectionService.detectVideoUpload(spooled, originalName, contentType,
+                            email, sampleFps, stopOnFirstAbove);
+                    return new Outcome(r.getLabel(), r.getTrustLevel(), r.getSightingId());
+                } finally {
+                    UploadSpool.delete(spooled);
+                }
+            });
+        } catch (RuntimeException e) {
+            UploadSpool.delete(spooled);
+            throw e;
+        }
+    }
+
+    private DetectionJobResponse submit(String type, Supplier<Outcome> work) {
+        Job job = new Job(type);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, work));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new JobQueueFullException(props.getQueueCapacity());
+        }
+        log.info("🧾 Trabajo de detección {} encolado ({}, en cola={})", job.id, type, executor.getQueue().size());
+        return job.snapshot();
+    }
+
+    /* ================= consulta ================= */
+
+    public DetectionJobResponse get(UUID jobId) {
+        return find(jobId).snapshot();
+    }
+
+    public SseEmitter subscribe(UUID jobId) {
+        Job job = find(jobId);
+        SseEmitter emitter = new SseEmitter(props.getSseTimeout().toMillis());
+        synchronized (job) {
+            if (job.status.isFinished()) {
+                sendFinal(emitter, job.snapshot());
+                return emitter;
+            }
+            job.emitters.add(emitter);
+        }
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+        emitter.onError(e -> job.emitters.remove(emitter));
+        send(emitter, "status", job.snapshot());
+        return emitter;
+    }
+
+    /* ================= ejecución ================= */
+
+    private void run(Job job, Supplier<Outcome> work) {
+        job.startedAt = now();
+        update(job, DetectionJobStatus.RUNNING);
+        try {
+            job.outcome = work.get();
+            job.finishedAt = now();
+            update(job, DetectionJobStatus.DONE);
+            log.info("✅ Trabajo de detección {} terminado (sightingId={})", job.id, job.outcome.sightingId());
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.finishedAt = now();
+            update(job, DetectionJobStatus.FAILED);
+            log.warn("❌ Trabajo de detección {} falló: {}", job.id, e.getMessage());
+        }
+    }
+
+    private void update(Job job, DetectionJobStatus status) {
+        List<SseEmitter> listeners;
+        DetectionJobResponse snapshot;
+        synchronized (job) {
+            job.status = status;
+            snapshot = job.snapshot();
+            listeners = List.copyOf(job.emitters);
+            if (status.isFinished()) job.emitters.clear();
+        }
+        for (SseEmitter emitter : listeners) {
+            if (status.isFinished()) sendFinal(emitter, snapshot);
+            else send(emitter, "status", snapshot);
+        }
+    }
+
+    private static void sendFinal(SseEmitter emitter, DetectionJobResponse snapshot) {
+        if (send(emitter, "done", snapshot)) emitter.complete();
+    }
+
+    private static boolean send(SseEmitter emitter, String event, DetectionJobResponse snapshot) {
+        try {
+            emitter.send(SseEmitter.event().name(event).id(snapshot.getJobId().toString()).data(snapshot));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "PT1M")
+    public void purgeFinished() {
+        OffsetDateTime limit = now().minus(props.getRetention());
+        jobs.values().removeIf(j -> j.status.isFinished() && j.finishedAt != null && j.finishedAt.isBefore(limit));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Job find(UUID jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) throw new JobNotFoundException(jobId);
+        return job;
+    }
+
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now(ZoneOffset.UTC);
+    }
+}
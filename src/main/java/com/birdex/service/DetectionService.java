@@ -10,6 +10,7 @@ import com.birdex.entity.SightingEntity;
 import com.birdex.entity.UserEntity;
 import com.birdex.exception.BirdNotFoundException;
 import com.birdex.exception.UserNotFoundException;
+import com.birdex.exception.WorkerTimeoutException;
 import com.birdex.repository.BirdRepository;
 import com.birdex.repository.SightingRepository;
 import com.birdex.repository.UserRepository;
@@ -17,12 +18,15 @@ import com.birdex.utils.Base64Sanitizer;
 import com.birdex.utils.FileMetadataExtractor;
 import com.birdex.utils.FilenameGenerator;
 import com.birdex.utils.Slugs;
+import com.birdex.utils.UploadSpool;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 
 @Slf4j
@@ -35,6 +39,9 @@ public class DetectionService {
     private final BucketService bucketService;
     private final UserRepository userRepository;
     private final BirdRepository birdRepository;
+    private final BirdCatalog birdCatalog;
+    private final SightingMediaService sightingMediaService;
+    private final ImageVariantService imageVariantService;
     private static final String CACHE = "public, max-age=31536000, immutable";
 
     public BirdVideoDetectResponse detectVideo(BirdVideoDetectRequest req) {
@@ -55,9 +62,8 @@ public class DetectionService {
             log.info("🔍 Resultado del modelo de video: label='{}', trustLevel={}",
                     result.getLabel(), result.getTrustLevel());
 
-            // 2) Guardar el archivo en el bucket
+            // 2) Guardar el archivo en el bucket (los mismos bytes ya decodificados)
             String mimeType = FileMetadataExtractor.extractMimeType(req.getFileBase64());
-            byte[] data = FileMetadataExtractor.extractData(req.getFileBase64());
 
             String generated = FilenameGenerator.generate(
                     req.getEmail(),
@@ -67,7 +73,8 @@ public class DetectionService {
 
             String slugBird = Slugs.of(result.getLabel());
 
-            BirdEntity bird = birdRepository.findFirstByNameContainingIgnoreCase(slugBird.replace("_", " "))
+            BirdEntity bird = birdCatalog.findByNameContaining(slugBird.replace("_", " "))
+                    .map(b -> birdRepository.getReferenceById(b.birdId()))
                     .orElseThrow(() -> {
                         log.warn("No bird found for name: {}", slugBird);
                         return new BirdNotFoundException(slugBird);
@@ -93,10 +100,12 @@ public class DetectionService {
             // 👇 acá estaba el error: ahora usamos el fallback correcto para VIDEO
             bucketService.uploadSightingObject(
                     keyWithinBucket,
-                    data,
+                    bytes,
                     toContentType(mimeType, "video/mp4"),
                     CACHE
             );
+            sightingMediaService.record(pending, keyWithinBucket, toContentType(mimeType, "video/mp4"), bytes.length);
+            imageVariantService.submitVideoPoster(keyWithinBucket, result.getPoster());
             log.info("🎞️ Video guardado en bucket con key: {}", keyWithinBucket);
 
             return BirdVideoDetectResponse.builder()
@@ -105,6 +114,8 @@ public class DetectionService {
                     .sightingId(pending.getSightingId())
                     .build();
 
+        } catch (WorkerTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             log.error("❌ Error durante la detección de video: {}", e.getMessage(), e);
             throw new RuntimeException("Error procesando detección de video: " + e.getMessage(), e);
@@ -113,31 +124,35 @@ public class DetectionService {
 
 
     public BirdDetectResponse detect(BirdDetectRequest request) {
-        log.info("🕊️ Iniciando detección de ave para usuario: {}", request.getEmail());
+        // base64 legacy: una sola decodificación; modelo y bucket usan los mismos bytes
+        byte[] bytes = Base64Sanitizer.decode(request.getFileBase64());
+        return detectImage(bytes, FileMetadataExtractor.extractMimeType(request.getFileBase64()), request.getEmail());
+    }
+
+    /** Detección sobre la imagen ya en bytes (endpoints binarios y JSON legacy). */
+    public BirdDetectResponse detectImage(byte[] bytes, String mimeType, String email) {
+        log.info("🕊️ Iniciando detección de ave para usuario: {}", email);
 
-        UserEntity userEntity = userRepository.findByEmail(request.getEmail()).orElseThrow(() -> {
-            log.warn("No user found for email: {}", request.getEmail());
-            return new UserNotFoundException(request.getEmail());
+        UserEntity userEntity = userRepository.findByEmail(email).orElseThrow(() -> {
+            log.warn("No user found for email: {}", email);
+            return new UserNotFoundException(email);
         });
 
         try {
-            String mimeType = FileMetadataExtractor.extractMimeType(request.getFileBase64());
-            byte[] data = FileMetadataExtractor.extractData(request.getFileBase64());
-
             String generated = FilenameGenerator.generate(
-                    request.getEmail() != null ? request.getEmail() : "anonimo",
+                    email != null ? email : "anonimo",
                     "pending",
                     mimeType
             );
 
-            byte[] bytes = Base64Sanitizer.decode(request.getFileBase64());
             var result = modelProcessor.evaluateImage(bytes);
             log.info("🔍 Resultado del modelo: label='{}', trustLevel={}",
                     result.getLabel(), result.getTrustLevel());
 
             String slugBird = Slugs.of(result.getLabel());
 
-            BirdEntity bird = birdRepository.findFirstByNameContainingIgnoreCase(slugBird.replace("_", " "))
+            BirdEntity bird = birdCatalog.findByNameContaining(slugBird.replace("_", " "))
+                    .map(b -> birdRepository.getReferenceById(b.birdId()))
                     .orElseThrow(() -> {
                         log.warn("No bird found for name: {}", slugBird);
                         return new BirdNotFoundException(slugBird);
@@ -154,19 +169,20 @@ public class DetectionService {
             log.info("✅ SightingEntity creado con ID: {}", pending.getSightingId());
 
             String keyWithinBucket = String.format("%s/%s/%s/%s",
-                    request.getEmail(),
+                    email,
                     slugBird,
                     pending.getSightingId(),
                     lastPathSegment(generated)
             );
 
-            // 👇 acá también estaba llamando al método con 1 solo parámetro
             bucketService.uploadSightingObject(
                     keyWithinBucket,
-                    data,
+                    bytes,
                     toContentType(mimeType, "image/jpeg"),
                     CACHE
             );
+            sightingMediaService.record(pending, keyWithinBucket, toContentType(mimeType, "image/jpeg"), bytes.length);
+            imageVariantService.submitSightingImage(keyWithinBucket, bytes);
             log.info("🪶 Imagen guardada en bucket con key: {}", keyWithinBucket);
 
             return BirdDetectResponse.builder()
@@ -175,6 +191,8 @@ public class DetectionService {
                     .sightingId(pending.getSightingId())
                     .build();
 
+        } catch (WorkerTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             log.error("❌ Error durante la detección: {}", e.getMessage(), e);
             throw new RuntimeException("Error procesando detección: " + e.getMessage(), e);
@@ -185,11 +203,59 @@ public class DetectionService {
                                                         String email,
                                                         Integer sampleFps,
                                                         Boolean stopOnFirstAbove) {
-        log.info("🎥 (multipart) Iniciando detección de video para usuario: {}", email);
-
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("El archivo de video es obligatorio");
         }
+        Path spooled = null;
+        try {
+            spooled = UploadSpool.spool(file);
+            return detectVideoUpload(spooled, file.getOriginalFilename(), file.getContentType(),
+                    email, sampleFps, stopOnFirstAbove);
+        } catch (IOException e) {
+            log.error("❌ Error leyendo el archivo multipart: {}", e.getMessage(), e);
+            throw new RuntimeException("Error leyendo el archivo multipart: " + e.getMessage(), e);
+        } finally {
+            UploadSpool.delete(spooled);
+        }
+    }
+
+    /**
+     * Detección sobre un video spooleado a disco: el mismo archivo se manda al worker y a S3
+     * en streaming, nunca como byte[]. No borra el archivo; eso queda a cargo de quien lo creó.
+     */
+    public BirdVideoDetectResponse detectVideoUpload(Path videoFile,
+                                                     String originalName,
+                                                     String contentType,
+                                                     String email,
+                                                     Integer sampleFps,
+                                                     Boolean stopOnFirstAbove) {
+        return detectSpooledVideo(videoFile, originalName, contentType, email, sampleFps, stopOnFirstAbove, true);
+    }
+
+    /** Igual que {@link #detectVideoUpload} pero con el modelo de /detect/video (no exige recorte YOLO). */
+    public BirdVideoDetectResponse detectVideoFile(Path videoFile,
+                                                   String originalName,
+                                                   String contentType,
+                                                   String email,
+                                                   Integer sampleFps,
+                                                   Boolean stopOnFirstAbove) {
+        return detectSpooledVideo(videoFile, originalName, contentType, email, sampleFps, stopOnFirstAbove, false);
+    }
+
+    private BirdVideoDetectResponse detectSpooledVideo(Path videoFile,
+                                                       String originalName,
+                                                       String contentType,
+                                                       String email,
+                                                       Integer sampleFps,
+                                                       Boolean stopOnFirstAbove,
+                                                       boolean multipartModel) {
+        // distingue en los logs /detect/video (cuerpo crudo) de /detect/video-multipart
+        String tag = multipartModel ? "video-multipart" : "video";
+        log.info("🎥 ({}) Iniciando detección de video para usuario: {}", tag, email);
+
+        if (videoFile == null || !Files.isRegularFile(videoFile)) {
+            throw new IllegalArgumentException("El archivo de video es obligatorio");
+        }
 
         UserEntity userEntity = userRepository.findByEmail(email).orElseThrow(() -> {
             log.warn("No user found for email: {}", email);
@@ -197,17 +263,19 @@ public class DetectionService {
         });
 
         try {
-            byte[] data = file.getBytes();
             int fps = (sampleFps == null || sampleFps < 1) ? 1 : sampleFps;
             boolean stop = stopOnFirstAbove != null && stopOnFirstAbove;
 
-            var result = modelProcessor.evaluateVideoMultipart(data, fps, stop);
-            log.info("🔍 (multipart) Resultado del modelo de video: label='{}', trustLevel={}",
-                    result.getLabel(), result.getTrustLevel());
+            var result = multipartModel
+                    ? modelProcessor.evaluateVideoMultipart(videoFile, fps, stop)
+                    : modelProcessor.evaluateVideo(videoFile, fps, stop);
+            log.info("🔍 ({}) Resultado del modelo de video: label='{}', trustLevel={}",
+                    tag, result.getLabel(), result.getTrustLevel());
 
             String slugBird = Slugs.of(result.getLabel());
 
-            BirdEntity bird = birdRepository.findFirstByNameContainingIgnoreCase(slugBird.replace("_", " "))
+            BirdEntity bird = birdCatalog.findByNameContaining(slugBird.replace("_", " "))
+                    .map(b -> birdRepository.getReferenceById(b.birdId()))
                     .orElseThrow(() -> {
                         log.warn("No bird found for name: {}", slugBird);
                         return new BirdNotFoundException(slugBird);
@@ -221,10 +289,9 @@ public class DetectionService {
                     .build();
 
             pending = sightingRepository.save(pending);
-            log.info("✅ (multipart) SightingEntity creado con ID: {}", pending.getSightingId());
+            log.info("✅ ({}) SightingEntity creado con ID: {}", tag, pending.getSightingId());
 
-            String originalName = file.getOriginalFilename();
-            String mimeType = file.getContentType();
+            String mimeType = contentType;
             if (mimeType == null || mimeType.isBlank()) {
                 mimeType = "video/mp4";
             }
@@ -240,8 +307,10 @@ public class DetectionService {
                     )
             );
 
-            bucketService.uploadSightingObject(keyWithinBucket, data, mimeType, CACHE);
-            log.info("🎞️ (multipart) Video guardado en bucket con key: {}", keyWithinBucket);
+            bucketService.uploadSightingObject(keyWithinBucket, videoFile, mimeType, CACHE);
+            sightingMediaService.record(pending, keyWithinBucket, mimeType, Files.size(videoFile));
+            imageVariantService.submitVideoPoster(keyWithinBucket, result.getPoster());
+            log.info("🎞️ ({}) Video guardado en bucket con key: {}", tag, keyWithinBucket);
 
             return BirdVideoDetectResponse.builder()
                     .label(result.getLabel())
@@ -249,12 +318,11 @@ public class DetectionService {
                     .sightingId(pending.getSightingId())
                     .build();
 
-        } catch (IOException e) {
-            log.error("❌ Error leyendo el archivo multipart: {}", e.getMessage(), e);
-            throw new RuntimeException("Error leyendo el archivo multipart: " + e.getMessage(), e);
+        } catch (WorkerTimeoutException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("❌ Error durante la detección multipart: {}", e.getMessage(), e);
-            throw new RuntimeException("Error procesando detección multipart: " + e.getMessage(), e);
+            log.error("❌ ({}) Error durante la detección de video: {}", tag, e.getMessage(), e);
+            throw new RuntimeException("Error procesando detección de video (" + tag + "): " + e.getMessage(), e);
         }
     }
 
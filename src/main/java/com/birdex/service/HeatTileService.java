@@ -0,0 +1,175 @@
+package com.birdex.service;
+
+import com.birdex.dto.HeatTileResponse;
+import com.birdex.entity.HeatBin;
+import com.birdex.exception.BirdNotFoundException;
+import com.birdex.repository.SightingHeatTileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Tiles de calor (z/x/y web mercator) armados desde {@code sighting_heat_tiles}, el conteo por ave
+ * y tile de zoom 16 que mantiene un trigger. Un tile de zoom z suma los tiles de zoom 16 que contiene,
+ * agrupados en una grilla de hasta 64 x 64 celdas; el costo depende de las filas del agregado, no de
+ * la cantidad de avistajes. Los tiles armados se guardan unos segundos con su ETag.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class HeatTileService {
+
+    /** Zoom del agregado en la base: las celdas nunca son más chicas que un tile de este zoom. */
+    public static final int BASE_ZOOM = 16;
+    public static final int MAX_ZOOM = 22;
+    /** 2^6 = 64 celdas por lado. */
+    private static final int BIN_BITS = 6;
+
+    private static final Duration TTL = Duration.ofSeconds(30);
+    private static final int MAX_CACHED_TILES = 4096;
+
+    private final SightingHeatTileRepository heatTileRepository;
+    private final BirdCatalog birdCatalog;
+
+    /** Tile listo para enviar junto con su ETag. */
+    public record Tile(HeatTileResponse body, String etag) {
+    }
+
+    private record Key(int z, int x, int y, UUID birdId, String rarity) {
+    }
+
+    private record Cached(long builtAt, Tile tile) {
+        boolean fresh() {
+            return System.nanoTime() - builtAt < TTL.toNanos();
+        }
+    }
+
+    private final Map<Key, Cached> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+            return size() > MAX_CACHED_TILES;
+        }
+    };
+
+    public static boolean validTile(int z, int x, int y) {
+        if (z < 0 || z > MAX_ZOOM) return false;
+        long n = 1L << z;
+        return x >= 0 && x < n && y >= 0 && y < n;
+    }
+
+    /**
+     * @param birdName nombre científico o slug (null = todas las aves)
+     * @param rarity   rareza, sin distinguir mayúsculas ni acentos (null = todas)
+     */
+    public Tile tile(int z, int x, int y, String birdName, String rarity) {
+        UUID birdId = null;
+        if (birdName != null && !birdName.isBlank()) {
+            birdId = birdCatalog.byName(birdName).or(() -> birdCatalog.bySlug(birdName))
+                    .map(BirdCatalog.Entry::birdId)
+                    .orElseThrow(() -> new BirdNotFoundException(birdName));
+        }
+        String rarityKey = rarity == null || rarity.isBlank() ? null : BirdCatalog.normalize(rarity);
+
+        Key key = new Key(z, x, y, birdId, rarityKey);
+        Cached c;
+        synchronized (cache) {
+            c = cache.get(key);
+        }
+        if (c != null && c.fresh()) return c.tile();
+
+        Tile tile = build(key);
+        synchronized (cache) {
+            cache.put(key, new Cached(System.nanoTime(), tile));
+        }
+        return tile;
+    }
+
+    private Tile build(Key k) {
+        int binZoom = Math.min(k.z() + BIN_BITS, BASE_ZOOM);
+        int shift = BASE_ZOOM - binZoom;
+
+        // rango de tiles de zoom 16 que cubre el tile pedido (si z > 16, el que lo contiene)
+        int minX, maxX, minY, maxY;
+        if (k.z() <= BASE_ZOOM) {
+            int span = BASE_ZOOM - k.z();
+            minX = k.x() << span;
+            maxX = ((k.x() + 1) << span) - 1;
+            minY = k.y() << span;
+            maxY = ((k.y() + 1) << span) - 1;
+        } else {
+            minX = maxX = k.x() >> (k.z() - BASE_ZOOM);
+            minY = maxY = k.y() >> (k.z() - BASE_ZOOM);
+        }
+
+        List<HeatBin> rows;
+        Set<UUID> birds = birdsFor(k);
+        if (birds == null) {
+            rows = heatTileRepository.sumBins(minX, maxX, minY, maxY, shift);
+        } else if (birds.isEmpty()) {
+            rows = List.of();
+        } else {
+            rows = heatTileRepository.sumBinsForBirds(birds, minX, maxX, minY, maxY, shift);
+        }
+
+        List<long[]> bins = new ArrayList<>(rows.size());
+        long total = 0;
+        for (HeatBin b : rows) {
+            bins.add(new long[]{b.getX(), b.getY(), b.getSightings()});
+            total += b.getSightings();
+        }
+        // orden estable: el ETag depende del contenido, no del orden que devuelva el GROUP BY
+        bins.sort(Comparator.<long[]>comparingLong(b -> b[1]).thenComparingLong(b -> b[0]));
+
+        MessageDigest md = sha256();
+        ByteBuffer buf = ByteBuffer.allocate(24);
+        for (long[] b : bins) {
+            buf.clear();
+            buf.putLong(b[0]).putLong(b[1]).putLong(b[2]);
+            md.update(buf.array());
+        }
+        String etag = HexFormat.of().formatHex(md.digest(), 0, 8);
+
+        HeatTileResponse body = HeatTileResponse.builder()
+                .z(k.z()).x(k.x()).y(k.y())
+                .binZoom(binZoom)
+                .total(total)
+                .bins(bins)
+                .build();
+        log.debug("🔥 Tile de calor {}/{}/{} (ave={}, rareza={}): {} celdas, {} avistajes",
+                k.z(), k.x(), k.y(), k.birdId(), k.rarity(), bins.size(), total);
+        return new Tile(body, etag);
+    }
+
+    /** Aves a sumar: null = todas; vacío = ninguna cumple el filtro. */
+    private Set<UUID> birdsFor(Key k) {
+        if (k.birdId() == null && k.rarity() == null) return null;
+        Set<UUID> out = new HashSet<>();
+        if (k.birdId() != null) {
+            BirdCatalog.Entry e = birdCatalog.byId(k.birdId()).orElse(null);
+            if (e != null && matchesRarity(e, k.rarity())) out.add(e.birdId());
+            return out;
+        }
+        for (BirdCatalog.Entry e : birdCatalog.all()) {
+            if (matchesRarity(e, k.rarity())) out.add(e.birdId());
+        }
+        return out;
+    }
+
+    private static boolean matchesRarity(BirdCatalog.Entry e, String rarity) {
+        return rarity == null || (e.rarity() != null && BirdCatalog.normalize(e.rarity()).equals(rarity));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
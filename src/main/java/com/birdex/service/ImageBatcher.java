@@ -0,0 +1,145 @@
+package com.birdex.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Junta pedidos de clasificación de imágenes durante hasta {@code maxWaitMs} o hasta
+ * {@code maxSize} imágenes y los manda como un único lote al worker.
+ * Mientras todos los workers están ocupados no se arma ningún lote nuevo, así que bajo carga
+ * los pedidos se acumulan en la cola y el siguiente lote sale lleno.
+ */
+@Slf4j
+class ImageBatcher {
+
+    private record Pending(byte[] image, long enqueuedAt, CompletableFuture<WorkerProtocol.Prediction> result) {
+    }
+
+    private final Function<List<byte[]>, List<WorkerProtocol.Prediction>> batchFn;
+    private final int maxSize;
+    private final long maxWaitNanos;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Semaphore inFlight;
+    private final ExecutorService runners;
+    private final Thread collector;
+    private volatile boolean running = true;
+
+    private final DistributionSummary batchSizes;
+    private final Timer queueWait;
+
+    ImageBatcher(Function<List<byte[]>, List<WorkerProtocol.Prediction>> batchFn,
+                 int maxSize, int maxWaitMs, int concurrency, MeterRegistry registry) {
+        this.batchFn = batchFn;
+        this.maxSize = Math.max(1, maxSize);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+        int n = Math.max(1, concurrency);
+        this.inFlight = new Semaphore(n);
+        this.runners = Executors.newFixedThreadPool(n, r -> {
+            Thread t = new Thread(r, "img-batch-runner");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.batchSizes = DistributionSummary.builder("birdex.detect.image.batch.size")
+                .description("Imágenes por lote enviado al worker de clasificación")
+                .baseUnit("images")
+                .serviceLevelObjectives(1, 2, 4, 8, 16, 32)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.queueWait = Timer.builder("birdex.detect.image.batch.wait")
+                .description("Tiempo que un pedido espera en la cola del micro-batcher")
+                .publishPercentileHistogram()
+                .register(registry);
+
+        this.collector = new Thread(this::collectLoop, "img-batch-collector");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    WorkerProtocol.Prediction submit(byte[] imageBytes) {
+        Pending p = new Pending(imageBytes, System.nanoTime(), new CompletableFuture<>());
+        queue.add(p);
+        try {
+            return p.result().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando la clasificación", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new RuntimeException("Fallo en lote de clasificación", e.getCause());
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        collector.interrupt();
+        runners.shutdownNow();
+        Pending p;
+        while ((p = queue.poll()) != null) {
+            p.result().completeExceptionally(new IllegalStateException("Clasificador detenido"));
+        }
+    }
+
+    /* ============== collector ============== */
+
+    private void collectLoop() {
+        while (running) {
+            try {
+                inFlight.acquire();
+                List<Pending> batch = nextBatch();
+                runners.execute(() -> run(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RejectedExecutionException e) {
+                return;
+            }
+        }
+    }
+
+    private List<Pending> nextBatch() throws InterruptedException {
+        List<Pending> batch = new ArrayList<>(maxSize);
+        batch.add(queue.take());
+        // lo que ya está encolado sale sin esperar
+        queue.drainTo(batch, maxSize - batch.size());
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxSize) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) break;
+            Pending next = queue.poll(left, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void run(List<Pending> batch) {
+        try {
+            long now = System.nanoTime();
+            batch.forEach(p -> queueWait.record(now - p.enqueuedAt(), TimeUnit.NANOSECONDS));
+            batchSizes.record(batch.size());
+
+            List<WorkerProtocol.Prediction> results = batchFn.apply(batch.stream().map(Pending::image).toList());
+            if (results.size() != batch.size()) {
+                throw new IllegalStateException("El worker devolvió " + results.size()
+                        + " resultados para un lote de " + batch.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (Exception e) {
+            log.warn("Lote de {} imágenes falló: {}", batch.size(), e.getMessage());
+            batch.forEach(p -> p.result().completeExceptionally(e));
+        } finally {
+            inFlight.release();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.birdex.service;
+
+import com.birdex.config.ImageVariantsProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.coobird.thumbnailator.Thumbnails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Variantes redimensionadas (_256 / _600, JPEG) de fotos subidas por usuarios: perfiles y
+ * avistajes, y posters de videos de avistajes. Corre después de la subida en un executor acotado, así el request no espera el resize;
+ * hasta que la variante existe las lecturas sirven el original.
+ * Las entradas WebP se leen con el plugin imageio-webp; la salida es siempre JPEG porque ImageIO
+ * no trae escritor WebP.
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    private static final String CT_JPEG = "image/jpeg";
+    private static final String CACHE = "public, max-age=31536000, immutable";
+    private static final int THUMB = 256;
+    private static final int MEDIUM = 600;
+
+    private final BucketService bucketService;
+    private final SightingMediaService sightingMediaService;
+    private final ImageVariantsProperties props;
+    private final ThreadPoolExecutor executor;
+
+    public ImageVariantService(BucketService bucketService,
+                               SightingMediaService sightingMediaService,
+                               ImageVariantsProperties props) {
+        this.bucketService = bucketService;
+        this.sightingMediaService = sightingMediaService;
+        this.props = props;
+        int threads = Math.max(1, props.getThreads());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, props.getQueueCapacity())),
+                r -> {
+                    Thread t = new Thread(r, "image-variants");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Variantes de una foto de avistaje; al terminar quedan registradas en sighting_media. */
+    public void submitSightingImage(String objectKey, byte[] original) {
+        submit(objectKey, () -> {
+            Variants v = render(objectKey, original);
+            if (v == null) return;
+            bucketService.uploadSightingObject(v.thumbKey(), v.thumb(), CT_JPEG, CACHE);
+            bucketService.uploadSightingObject(v.mediumKey(), v.medium(), CT_JPEG, CACHE);
+            sightingMediaService.recordVariants(objectKey, v.thumbKey(), v.mediumKey());
+        });
+    }
+
+    /**
+     * Poster de un video de avistaje (el frame que el modelo puntuó más alto) y su miniatura _256.
+     * Quedan registrados en sighting_media para que los feeds no sirvan el MP4 como miniatura.
+     */
+    public void submitVideoPoster(String videoKey, byte[] posterJpeg) {
+        if (posterJpeg == null || posterJpeg.length == 0) {
+            log.info("Sin frame de poster para '{}': el feed usa el video", videoKey);
+            return;
+        }
+        String posterKey = BucketService.posterKey(videoKey);
+        submit(videoKey, () -> {
+            bucketService.uploadSightingObject(posterKey, posterJpeg, CT_JPEG, CACHE);
+            String thumbKey = null;
+            BufferedImage img = decode(posterKey, posterJpeg);
+            if (img != null) {
+                thumbKey = BucketService.jpegVariantKey(posterKey, "_" + THUMB);
+                bucketService.uploadSightingObject(thumbKey, toJpeg(img, THUMB), CT_JPEG, CACHE);
+            }
+            sightingMediaService.recordPoster(videoKey, posterKey, thumbKey);
+        });
+    }
+
+    /** Variantes de la foto de perfil de un usuario (bucket users). */
+    public void submitUserProfile(String objectKey, byte[] original) {
+        submit(objectKey, () -> {
+            Variants v = render(objectKey, original);
+            if (v == null) return;
+            bucketService.uploadUserObject(v.thumbKey(), v.thumb(), CT_JPEG, CACHE);
+            bucketService.uploadUserObject(v.mediumKey(), v.medium(), CT_JPEG, CACHE);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /* ============== internos ============== */
+
+    private record Variants(String thumbKey, byte[] thumb, String mediumKey, byte[] medium) {
+    }
+
+    @FunctionalInterface
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    /**
+     * Encola el trabajo; si hay una transacción activa, recién al commitear (la fila de
+     * sighting_media tiene que estar visible para registrar las variantes).
+     */
+    private void submit(String objectKey, Work work) {
+        Runnable task = () -> {
+            long t0 = System.nanoTime();
+            try {
+                work.run();
+                log.info("🖼️ Variantes generadas para '{}' en {} ms", objectKey, (System.nanoTime() - t0) / 1_000_000);
+            } catch (Exception e) {
+                log.warn("No se pudieron generar variantes para '{}': {}", objectKey, e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(objectKey, task);
+                }
+            });
+        } else {
+            enqueue(objectKey, task);
+        }
+    }
+
+    private void enqueue(String objectKey, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // sin variante se sirve el original: degradado pero correcto
+            log.warn("Cola de variantes llena ({}): '{}' queda sin variantes", props.getQueueCapacity(), objectKey);
+        }
+    }
+
+    private Variants render(String objectKey, byte[] original) throws IOException {
+        BufferedImage img = decode(objectKey, original);
+        if (img == null) return null;
+        return new Variants(
+                BucketService.jpegVariantKey(objectKey, "_" + THUMB), toJpeg(img, THUMB),
+                BucketService.jpegVariantKey(objectKey, "_" + MEDIUM), toJpeg(img, MEDIUM)
+        );
+    }
+
+    private static BufferedImage decode(String objectKey, byte[] bytes) throws IOException {
+        BufferedImage img;
+        try (var in = new ByteArrayInputStream(bytes)) {
+            img = ImageIO.read(in);
+        }
+        if (img == null) {
+            log.warn("No se pudo decodificar '{}': sin variantes", objectKey);
+            return null;
+        }
+        return opaque(img);
+    }
+
+    /** JPEG no tiene canal alfa: las transparencias (PNG/WebP) se aplanan sobre blanco. */
+    private static BufferedImage opaque(BufferedImage src) {
+        if (!src.getColorModel().hasAlpha()) return src;
+        BufferedImage rgb = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(src, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    /** Lado mayor a lo sumo {@code target}px; las imágenes más chicas no se agrandan. */
+    private byte[] toJpeg(BufferedImage src, int target) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+        var builder = Thumbnails.of(src);
+        if (Math.max(src.getWidth(), src.getHeight()) > target) builder.size(target, target);
+        else builder.scale(1.0);
+        builder.outputFormat("jpg")
+                .outputQuality(props.getQuality())
+                .toOutputStream(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,149 @@
+package com.birdex.service;
+
+import com.birdex.config.InferenceCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache acotado (LRU + TTL) de resultados de inferencia, indexado por el SHA-256 del archivo
+ * decodificado más los parámetros del modelo. Un reintento o una segunda subida del mismo archivo
+ * no vuelve a correr el modelo.
+ * <p>
+ * Los valores deben ser inmutables o copiarse al leerlos: el mismo objeto se entrega a todos los hits.
+ * Expone {@code birdex.inference.cache.requests{cache,result=hit|miss}} y {@code birdex.inference.cache.size}.
+ */
+public class InferenceCache<V> {
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Map<String, Entry<V>> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public InferenceCache(String name, InferenceCacheProperties props, MeterRegistry registry) {
+        this.enabled = props.isEnabled() && props.getMaxEntries() > 0;
+        this.ttlNanos = props.getTtl().toNanos();
+        int max = Math.max(1, props.getMaxEntries());
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                return size() > max;
+            }
+        };
+        this.hits = Counter.builder("birdex.inference.cache.requests")
+                .tag("cache", name).tag("result", "hit").register(registry);
+        this.misses = Counter.builder("birdex.inference.cache.requests")
+                .tag("cache", name).tag("result", "miss").register(registry);
+        Gauge.builder("birdex.inference.cache.size", this, InferenceCache::size)
+                .tag("cache", name).register(registry);
+    }
+
+    /** Clave = sha256(data) + parámetros del modelo que cambian el resultado. */
+    public static String key(byte[] data, Object... params) {
+        MessageDigest md = sha256();
+        md.update(data);
+        return key(md, params);
+    }
+
+    /** Igual que {@link #key(byte[], Object...)} pero hasheando el archivo en streaming. */
+    public static String key(Path file, Object... params) {
+        MessageDigest md = sha256();
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buf)) > 0) md.update(buf, 0, n);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer " + file, e);
+        }
+        return key(md, params);
+    }
+
+    private static String key(MessageDigest md, Object... params) {
+        StringBuilder sb = new StringBuilder(HexFormat.of().formatHex(md.digest()));
+        for (Object p : params) sb.append('|').append(p);
+        return sb.toString();
+    }
+
+    /**
+     * Devuelve el valor cacheado o lo calcula. Sólo se guardan valores que pasan {@code cacheable}
+     * (p. ej. no se cachean respuestas por defecto ante un error del modelo).
+     */
+    public V get(String key, Supplier<V> loader, Predicate<V> cacheable) {
+        return get(key, loader, cacheable, Function.identity());
+    }
+
+    /**
+     * Igual que {@link #get(String, Supplier, Predicate)}, pero guarda {@code toCached(valor)}: el que
+     * llama recibe el valor completo y la caché retiene una versión reducida (p. ej. sin el poster).
+     */
+    public V get(String key, Supplier<V> loader, Predicate<V> cacheable, Function<V, V> toCached) {
+        if (!enabled) return loader.get();
+        V cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        V value = loader.get();
+        if (value != null && cacheable.test(value)) {
+            synchronized (entries) {
+                entries.put(key, new Entry<>(toCached.apply(value), System.nanoTime() + ttlNanos));
+            }
+        }
+        return value;
+    }
+
+    public V get(String key, Supplier<V> loader) {
+        return get(key, loader, v -> true);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private V lookup(String key) {
+        synchronized (entries) {
+            Entry<V> e = entries.get(key);
+            if (e == null) return null;
+            if (System.nanoTime() - e.expiresAt() > 0) {
+                entries.remove(key);
+                return null;
+            }
+            return e.value();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
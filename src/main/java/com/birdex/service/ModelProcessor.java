@@ -1,266 +1,180 @@
 package com.birdex.service;
 
+import com.birdex.config.InferenceCacheProperties;
+import com.birdex.config.ModelWorkersProperties;
 import com.birdex.domain.BirdDetectResponse;
 import com.birdex.domain.BirdVideoDetectResponse;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PreDestroy;
-import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.*;
-import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
-import java.util.Objects;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
+@Slf4j
 @Component
 public class ModelProcessor {
 
-    private static final ObjectMapper MAPPER = new ObjectMapper();
-
     private static final String IMG_WORKER = "src/main/resources/birdex_worker_image.py";
     private static final String VID_WORKER = "src/main/resources/birdex_worker_video.py";
     private static final String VID_MULTIPART_WORKER = "src/main/resources/birdex_worker_video_multipart.py";
 
-    private Process imgProc;
-    private BufferedReader imgReader;
-    private BufferedOutputStream imgWriter;
-
-    private Process vidProc;
-    private BufferedReader vidReader;
-    private BufferedOutputStream vidWriter;
-    private int lastVideoFps = 1;
-    private boolean lastVideoStop = false;
-
-    private Process vidMultipartProc;
-    private BufferedReader vidMultipartReader;
-    private BufferedOutputStream vidMultipartWriter;
-    private int lastVideoMultipartFps = 1;
-    private boolean lastVideoMultipartStop = false;
+    private static final String NO_PARAMS = "{}";
+
+    private final WorkerPool imgPool;
+    private final WorkerPool vidPool;
+    private final WorkerPool vidMultipartPool;
+    private final ImageBatcher imgBatcher;
+
+    private final InferenceCache<WorkerProtocol.Prediction> imgCache;
+    private final InferenceCache<WorkerProtocol.Prediction> vidCache;
+    private final InferenceCache<WorkerProtocol.Prediction> vidMultipartCache;
+
+    public ModelProcessor(ModelWorkersProperties props,
+                          InferenceCacheProperties cacheProps,
+                          MeterRegistry meterRegistry) {
+        String python = props.getPython();
+        this.imgPool = new WorkerPool("img", python, IMG_WORKER,
+                props.getImage().getSize(), props.getImage().getTimeoutMs());
+        this.vidPool = new WorkerPool("vid", python, VID_WORKER,
+                props.getVideo().getSize(), props.getVideo().getTimeoutMs());
+        this.vidMultipartPool = new WorkerPool("vid-multipart", python, VID_MULTIPART_WORKER,
+                props.getVideoMultipart().getSize(), props.getVideoMultipart().getTimeoutMs());
+        ModelWorkersProperties.Batch batch = props.getImageBatch();
+        this.imgBatcher = batch.isEnabled() && batch.getMaxSize() > 1
+                ? new ImageBatcher(this::evaluateImageBatch, batch.getMaxSize(), batch.getMaxWaitMs(),
+                imgPool.size(), meterRegistry)
+                : null;
+        this.imgCache = new InferenceCache<>("image", cacheProps, meterRegistry);
+        this.vidCache = new InferenceCache<>("video", cacheProps, meterRegistry);
+        this.vidMultipartCache = new InferenceCache<>("video-multipart", cacheProps, meterRegistry);
+        log.info("Pools de workers: img={}, vid={}, vid-multipart={}, img-batch={}",
+                imgPool.size(), vidPool.size(), vidMultipartPool.size(),
+                imgBatcher != null ? batch.getMaxSize() + "/" + batch.getMaxWaitMs() + "ms" : "off");
+    }
 
     /* ================= API ================= */
 
-    @SneakyThrows
     public BirdDetectResponse evaluateImage(byte[] imageBytes) {
         if (imageBytes == null || imageBytes.length == 0) {
             throw new IllegalArgumentException("Imagen vacía o nula");
         }
-        ensureImgWorker();
-        String line = askWorker(imgWriter, imgReader, imageBytes, 10_000);
-        return parseImageResponse(line);
+        WorkerProtocol.Prediction p = imgCache.get(InferenceCache.key(imageBytes),
+                () -> imgBatcher != null
+                        ? imgBatcher.submit(imageBytes)
+                        : single(imgPool.ask(NO_PARAMS, List.of(WorkerPayload.of(imageBytes)))),
+                WorkerProtocol.Prediction::ok);
+        return toImageResponse(p);
+    }
+
+    /**
+     * Clasifica varias imágenes en un solo pedido al worker (un único forward pass del lado Python).
+     * Devuelve las predicciones en el mismo orden que {@code images}.
+     */
+    List<WorkerProtocol.Prediction> evaluateImageBatch(List<byte[]> images) {
+        int timeoutMs = imgPool.timeoutMs() * images.size();
+        List<WorkerPayload> payloads = images.stream().map(WorkerPayload::of).toList();
+        return items(imgPool.ask(NO_PARAMS, payloads, timeoutMs), images.size());
     }
 
-    @SneakyThrows
     public BirdVideoDetectResponse evaluateVideo(byte[] videoBytes, int sampleFps, boolean stopOnFirstAbove) {
         if (videoBytes == null || videoBytes.length == 0) {
             throw new IllegalArgumentException("Video vacío o nulo");
         }
-        lastVideoFps = Math.max(1, sampleFps);
-        lastVideoStop = stopOnFirstAbove;
-        ensureVidWorker(lastVideoFps, lastVideoStop);
-        String line = askWorker(vidWriter, vidReader, videoBytes, 60_000);
-        return parseVideoResponse(line);
+        int fps = Math.max(1, sampleFps);
+        WorkerProtocol.Prediction p = vidCache.get(InferenceCache.key(videoBytes, fps, stopOnFirstAbove),
+                () -> single(vidPool.ask(videoParams(fps, stopOnFirstAbove), List.of(WorkerPayload.of(videoBytes)))),
+                WorkerProtocol.Prediction::ok, WorkerProtocol.Prediction::withoutPoster);
+        return toVideoResponse(p);
     }
 
-    @SneakyThrows
-    public BirdVideoDetectResponse evaluateVideoMultipart(byte[] videoBytes, int sampleFps, boolean stopOnFirstAbove) {
-        if (videoBytes == null || videoBytes.length == 0) {
+    /** Video ya spooleado a disco, con el modelo de /detect/video. */
+    public BirdVideoDetectResponse evaluateVideo(Path videoFile, int sampleFps, boolean stopOnFirstAbove) {
+        if (videoFile == null || !Files.isRegularFile(videoFile)) {
+            throw new IllegalArgumentException("Video vacío o nulo");
+        }
+        int fps = Math.max(1, sampleFps);
+        WorkerProtocol.Prediction p = vidCache.get(InferenceCache.key(videoFile, fps, stopOnFirstAbove),
+                () -> single(vidPool.ask(videoParams(fps, stopOnFirstAbove), List.of(WorkerPayload.of(videoFile)))),
+                WorkerProtocol.Prediction::ok, WorkerProtocol.Prediction::withoutPoster);
+        return toVideoResponse(p);
+    }
+
+    /**
+     * Video ya spooleado a disco: se hashea y se manda al worker en streaming desde el archivo,
+     * sin cargarlo entero en memoria.
+     */
+    public BirdVideoDetectResponse evaluateVideoMultipart(Path videoFile, int sampleFps, boolean stopOnFirstAbove) {
+        if (videoFile == null || !Files.isRegularFile(videoFile)) {
             throw new IllegalArgumentException("Video vacío o nulo (multipart)");
         }
-        lastVideoMultipartFps = Math.max(1, sampleFps);
-        lastVideoMultipartStop = stopOnFirstAbove;
-        ensureVidMultipartWorker(lastVideoMultipartFps, lastVideoMultipartStop);
-        String line = askWorker(vidMultipartWriter, vidMultipartReader, videoBytes, 60_000);
-        return parseVideoResponse(line);
+        int fps = Math.max(1, sampleFps);
+        WorkerProtocol.Prediction p = vidMultipartCache.get(InferenceCache.key(videoFile, fps, stopOnFirstAbove),
+                () -> single(vidMultipartPool.ask(videoParams(fps, stopOnFirstAbove), List.of(WorkerPayload.of(videoFile)))),
+                WorkerProtocol.Prediction::ok, WorkerProtocol.Prediction::withoutPoster);
+        return toVideoResponse(p);
     }
 
     /* ============== Workers lifecycle ============== */
 
-    private synchronized void ensureImgWorker() throws IOException {
-        if (imgProc != null && imgProc.isAlive()) return;
-        startImgWorker();
-    }
-
-    private synchronized void ensureVidMultipartWorker(int fps, boolean stopOnFirstAbove) throws IOException {
-        if (vidMultipartProc != null && vidMultipartProc.isAlive()) return;
-        startVidMultipartWorker(fps, stopOnFirstAbove);
-    }
-
-    private void startVidMultipartWorker(int fps, boolean stop) throws IOException {
-        ProcessBuilder pb = new ProcessBuilder("python", VID_MULTIPART_WORKER,
-                "--fps=" + fps,
-                "--stop=" + (stop ? "1" : "0"));
-        pb.redirectErrorStream(false);
-        vidMultipartProc = pb.start();
-        vidMultipartReader = new BufferedReader(new InputStreamReader(vidMultipartProc.getInputStream(), StandardCharsets.UTF_8));
-        vidMultipartWriter = new BufferedOutputStream(vidMultipartProc.getOutputStream());
-    }
-
-    private synchronized void ensureVidWorker(int fps, boolean stopOnFirstAbove) throws IOException {
-        if (vidProc != null && vidProc.isAlive()) return;
-        startVidWorker(fps, stopOnFirstAbove);
+    /**
+     * Siempre se pide el poster: sale del mismo recorrido de frames, sin decodificar el video otra vez.
+     * Sólo hace falta en la primera subida, así que las cachés de video lo descartan.
+     */
+    private static String videoParams(int fps, boolean stop) {
+        return "{\"fps\":" + fps + ",\"stop\":" + stop + ",\"poster\":true}";
     }
 
-    private void startImgWorker() throws IOException {
-        ProcessBuilder pb = new ProcessBuilder("python", IMG_WORKER);
-        pb.redirectErrorStream(false);
-        imgProc = pb.start();
-        imgReader = new BufferedReader(new InputStreamReader(imgProc.getInputStream(), StandardCharsets.UTF_8));
-        imgWriter = new BufferedOutputStream(imgProc.getOutputStream());
-    }
-
-    private void startVidWorker(int fps, boolean stop) throws IOException {
-        ProcessBuilder pb = new ProcessBuilder("python", VID_WORKER,
-                "--fps=" + fps,
-                "--stop=" + (stop ? "1" : "0"));
-        pb.redirectErrorStream(false);
-        vidProc = pb.start();
-        vidReader = new BufferedReader(new InputStreamReader(vidProc.getInputStream(), StandardCharsets.UTF_8));
-        vidWriter = new BufferedOutputStream(vidProc.getOutputStream());
+    @PreDestroy
+    public void shutdown() {
+        if (imgBatcher != null) imgBatcher.shutdown();
+        imgPool.shutdown();
+        vidPool.shutdown();
+        vidMultipartPool.shutdown();
     }
 
-    @SneakyThrows
-    private String askWorker(BufferedOutputStream writer, BufferedReader reader, byte[] payload, int timeoutMs) {
-        synchronized (this) {
-
-            java.util.function.Supplier<String> sendAndRead = () -> {
-                try {
-                    byte[] len = ByteBuffer.allocate(4).putInt(payload.length).array();
-                    writer.write(len);
-                    writer.write(payload);
-                    writer.flush();
+    /* ============== Respuestas ============== */
 
-                    long deadline = System.currentTimeMillis() + timeoutMs;
-                    String line;
-                    while (true) {
-                        if (System.currentTimeMillis() > deadline) {
-                            throw new IOException("Timeout leyendo respuesta del worker");
-                        }
-                        line = reader.readLine();
-                        if (line == null) throw new IOException("Worker cerró stdout");
-                        line = line.trim();
-                        if (line.isEmpty()) continue;
-
-                        if (line.startsWith("{") && line.endsWith("}")) return line;
-
-                        int comma = line.indexOf(',');
-                        if (comma > 0) {
-                            String tail = line.substring(comma + 1).trim();
-                            try {
-                                Double.parseDouble(tail);
-                                return line;
-                            } catch (NumberFormatException ignore) {
-                            }
-                        }
-                    }
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            };
-
-            try {
-                return sendAndRead.get();
-            } catch (RuntimeException first) {
-                restartIfNeeded(writer);
-                return sendAndRead.get();
-            }
+    private static List<WorkerProtocol.Prediction> items(WorkerProtocol.Reply reply, int expected) {
+        if (!reply.ok()) {
+            throw new RuntimeException("Worker rechazó el pedido (status=" + reply.status() + "): " + reply.error());
         }
-    }
-
-    private void restartIfNeeded(BufferedOutputStream writer) throws IOException {
-        if (Objects.equals(writer, imgWriter)) {
-            closeImgWorker();
-            startImgWorker();
-        } else if (Objects.equals(writer, vidWriter)) {
-            closeVidWorker();
-            startVidWorker(lastVideoFps, lastVideoStop);
-        } else if (Objects.equals(writer, vidMultipartWriter)) {
-            closeVidMultipartWorker();
-            startVidMultipartWorker(lastVideoMultipartFps, lastVideoMultipartStop);
+        if (reply.items().size() != expected) {
+            throw new RuntimeException("Worker devolvió " + reply.items().size() + " resultados, se esperaban " + expected);
         }
+        return reply.items();
     }
 
-    private void closeImgWorker() {
-        safeClose(imgWriter);
-        safeClose(imgReader);
-        destroy(imgProc);
-        imgWriter = null;
-        imgReader = null;
-        imgProc = null;
+    private static WorkerProtocol.Prediction single(WorkerProtocol.Reply reply) {
+        return items(reply, 1).get(0);
     }
 
-    private void closeVidWorker() {
-        safeClose(vidWriter);
-        safeClose(vidReader);
-        destroy(vidProc);
-        vidWriter = null;
-        vidReader = null;
-        vidProc = null;
-    }
-
-    // 👇 este te faltaba
-    private void closeVidMultipartWorker() {
-        safeClose(vidMultipartWriter);
-        safeClose(vidMultipartReader);
-        destroy(vidMultipartProc);
-        vidMultipartWriter = null;
-        vidMultipartReader = null;
-        vidMultipartProc = null;
-    }
-
-    private void safeClose(Closeable c) {
-        if (c != null) {
-            try {
-                c.close();
-            } catch (IOException ignored) {
-            }
+    private static void ensureOk(WorkerProtocol.Prediction p) {
+        if (p.ok()) return;
+        if (p.status() == WorkerProtocol.ITEM_INVALID_INPUT) {
+            throw new IllegalArgumentException(p.error());
         }
+        throw new RuntimeException("Fallo de inferencia: " + p.error());
     }
 
-    private void destroy(Process p) {
-        if (p != null) {
-            p.destroy();
-            try {
-                p.waitFor();
-            } catch (InterruptedException ignored) {
-            }
-        }
-    }
-
-    @PreDestroy
-    public void shutdown() {
-        closeImgWorker();
-        closeVidWorker();
-        closeVidMultipartWorker();
-    }
-
-    /* ============== Parsers ============== */
-
-    private BirdDetectResponse parseImageResponse(String line) {
-        try {
-            JsonNode n = MAPPER.readTree(line);
-            return BirdDetectResponse.builder()
-                    .label(n.path("label").asText())
-                    .trustLevel(n.path("trustLevel").asDouble())
-                    .build();
-        } catch (Exception ignore) {
-            int comma = line.indexOf(',');
-            if (comma <= 0) throw new RuntimeException("Salida IMG inesperada: " + line);
-            String label = line.substring(0, comma).trim();
-            String scoreStr = line.substring(comma + 1).trim();
-            return BirdDetectResponse.builder()
-                    .label(label)
-                    .trustLevel(Double.parseDouble(scoreStr))
-                    .build();
-        }
+    private BirdDetectResponse toImageResponse(WorkerProtocol.Prediction p) {
+        ensureOk(p);
+        if (log.isDebugEnabled()) log.debug("IMG top-k: {}", p.topK());
+        return BirdDetectResponse.builder()
+                .label(p.label())
+                .trustLevel(p.trustLevel())
+                .build();
     }
 
-    @SneakyThrows
-    private BirdVideoDetectResponse parseVideoResponse(String line) {
-        JsonNode n = MAPPER.readTree(line);
+    private BirdVideoDetectResponse toVideoResponse(WorkerProtocol.Prediction p) {
+        ensureOk(p);
+        if (log.isDebugEnabled()) log.debug("VID top-k: {}", p.topK());
         return BirdVideoDetectResponse.builder()
-                .label(n.path("label").asText())
-                .trustLevel(n.path("trustLevel").asDouble())
+                .label(p.label())
+                .trustLevel(p.trustLevel())
+                .poster(p.poster())
                 .build();
     }
 }
@@ -0,0 +1,102 @@
+package com.birdex.service;
+
+import com.birdex.domain.NearbySightingItem;
+import com.birdex.domain.NearbySightingsResponse;
+import com.birdex.exception.InvalidCursorException;
+import com.birdex.repository.SightingNearbyRepository.NearbyRow;
+import com.birdex.repository.SightingRepository;
+import com.birdex.utils.GeoHash;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Avistajes confirmados cerca de un punto, del más cercano al más lejano.
+ * El círculo se cubre con a lo sumo 9 prefijos de geohash (rangos del índice), la distancia exacta
+ * se calcula en SQL sólo sobre esos candidatos, y la paginación es por keyset sobre (distancia, id):
+ * cada página cuesta lo mismo sin importar cuántas se hayan pedido antes.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class NearbySightingService {
+
+    private final SightingRepository sightingRepository;
+    private final BirdCatalog birdCatalog;
+
+    /** Última fila de una página: de acá sigue la próxima. */
+    private record Cursor(double distance, UUID sightingId) {
+    }
+
+    @Transactional(readOnly = true)
+    public NearbySightingsResponse findNearby(double lat, double lon, double radiusMeters,
+                                              LocalDateTime since, String cursor, int size) {
+        Cursor after = decodeCursor(cursor);
+        List<String> prefixes = GeoHash.covering(lat, lon, radiusMeters);
+
+        // uno de más para saber si hay página siguiente sin un COUNT
+        List<NearbyRow> rows = sightingRepository.findNearby(prefixes, lat, lon, radiusMeters, since,
+                after == null ? null : after.distance(),
+                after == null ? null : after.sightingId(),
+                size + 1);
+
+        boolean hasMore = rows.size() > size;
+        List<NearbyRow> page = hasMore ? rows.subList(0, size) : rows;
+
+        List<NearbySightingItem> items = new ArrayList<>(page.size());
+        for (NearbyRow r : page) {
+            BirdCatalog.Entry bird = birdCatalog.byId(r.birdId()).orElse(null);
+            items.add(NearbySightingItem.builder()
+                    .sightingId(r.sightingId())
+                    .birdName(bird == null ? null : bird.name())
+                    .commonName(bird == null ? null : bird.commonName())
+                    .rarity(bird == null ? null : bird.rarity())
+                    .dateTime(r.dateTime())
+                    .latitude(r.latitude())
+                    .longitude(r.longitude())
+                    .distanceMeters(r.distanceMeters())
+                    .build());
+        }
+
+        String next = null;
+        if (hasMore) {
+            NearbyRow last = page.get(page.size() - 1);
+            next = encodeCursor(new Cursor(last.distanceMeters(), last.sightingId()));
+        }
+        log.debug("🔎 Cercanía ({}, {}) r={}m prefijos={} -> {} avistajes", lat, lon, radiusMeters, prefixes, items.size());
+        return NearbySightingsResponse.builder().items(items).nextCursor(next).build();
+    }
+
+    /* ============== cursor ============== */
+
+    // opaco para el cliente: base64url de (distancia como bits de double, UUID)
+    private static String encodeCursor(Cursor c) {
+        ByteBuffer buf = ByteBuffer.allocate(24)
+                .putLong(Double.doubleToLongBits(c.distance()))
+                .putLong(c.sightingId().getMostSignificantBits())
+                .putLong(c.sightingId().getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(cursor);
+            if (raw.length != 24) throw new InvalidCursorException(cursor);
+            ByteBuffer buf = ByteBuffer.wrap(raw);
+            double distance = Double.longBitsToDouble(buf.getLong());
+            if (!Double.isFinite(distance) || distance < 0) throw new InvalidCursorException(cursor);
+            return new Cursor(distance, new UUID(buf.getLong(), buf.getLong()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
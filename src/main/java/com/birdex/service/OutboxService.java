@@ -0,0 +1,45 @@
+package com.birdex.service;
+
+import com.birdex.entity.OutboxEventEntity;
+import com.birdex.entity.enums.OutboxEventType;
+import com.birdex.jobs.OutboxDispatcher;
+import com.birdex.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Publicación de eventos de dominio en la tabla outbox_events. Se llama dentro de la transacción
+ * del cambio que origina el evento: si esa transacción se revierte, el evento no existe. Después
+ * del commit se avisa al {@link OutboxDispatcher} para que no espere al próximo sondeo.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDispatcher outboxDispatcher;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxEventType type, UUID aggregateId) {
+        OutboxEventEntity event = outboxEventRepository.save(OutboxEventEntity.builder()
+                .eventType(type)
+                .aggregateId(aggregateId)
+                .build());
+        log.debug("📨 Evento {} {} encolado para {}", type, event.getEventId(), aggregateId);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxDispatcher.wakeUp();
+            }
+        });
+    }
+}
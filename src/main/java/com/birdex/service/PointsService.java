@@ -3,9 +3,7 @@ package com.birdex.service;
 import com.birdex.entity.BirdEntity;
 import com.birdex.entity.LevelEntity;
 import com.birdex.entity.UserEntity;
-import com.birdex.repository.BirdRarityRepository;
 import com.birdex.repository.LevelRepository;
-import com.birdex.repository.RarityPointsRepository;
 import com.birdex.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,19 +11,16 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class PointsService {
 
-    private final BirdRarityRepository birdRarityRepository;
-    private final RarityPointsRepository rarityPointsRepository;
+    private final RarityCatalog rarityCatalog;
     private final UserRepository userRepository;
     private final LevelRepository levelRepository;
 
     public PointsService(
-            BirdRarityRepository birdRarityRepository,
-            RarityPointsRepository rarityPointsRepository,
+            RarityCatalog rarityCatalog,
             UserRepository userRepository,
             LevelRepository levelRepository
     ) {
-        this.birdRarityRepository = birdRarityRepository;
-        this.rarityPointsRepository = rarityPointsRepository;
+        this.rarityCatalog = rarityCatalog;
         this.userRepository = userRepository;
         this.levelRepository = levelRepository;
     }
@@ -40,12 +35,11 @@ public class PointsService {
     @Transactional
     public int addPointsForSighting(UserEntity user, BirdEntity bird) {
         // 1. Obtener rareza del ave
-        String rarity = birdRarityRepository
-                .findRarityNameByBirdName(bird.getName())
+        String rarity = rarityCatalog.rarityOf(bird.getBirdId())
                 .orElse("Común");
 
         // 2. Puntos por rareza
-        int points = rarityPointsRepository.findPointsByRarity(rarity).orElse(0);
+        int points = rarityCatalog.pointsFor(rarity).orElse(0);
 
         // 3. Sumar al total del usuario
         int newTotal = (user.getPoints() == null ? 0 : user.getPoints()) + points;
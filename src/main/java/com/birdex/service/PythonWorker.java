@@ -0,0 +1,214 @@
+package com.birdex.service;
+
+import com.birdex.exception.WorkerTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Un proceso Python persistente hablando {@link WorkerProtocol} por stdin/stdout.
+ * Los pedidos se escriben con un lock corto (sólo la escritura del frame) y un hilo lector
+ * por proceso completa las respuestas por requestId, así varios pedidos pueden estar en vuelo
+ * a la vez y el timeout de cada uno es real: vence aunque el worker siga ocupado, sin matarlo.
+ * La respuesta tardía de un pedido vencido simplemente se descarta.
+ */
+@Slf4j
+class PythonWorker {
+
+    /** Timeouts seguidos a partir de los cuales se asume que el proceso está colgado. */
+    private static final int MAX_CONSECUTIVE_TIMEOUTS = 3;
+
+    private final String name;
+    private final List<String> command;
+
+    private final ReentrantLock writeLock = new ReentrantLock(true);
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger consecutiveTimeouts = new AtomicInteger();
+    private final AtomicLong ids = new AtomicLong();
+
+    private volatile Connection conn;
+
+    /** Un proceso vivo con su stream de escritura, su hilo lector y sus pedidos en vuelo. */
+    private static final class Connection {
+        final Process proc;
+        final DataOutputStream out;
+        final Map<Long, CompletableFuture<WorkerProtocol.Reply>> inFlight = new ConcurrentHashMap<>();
+        volatile boolean dead;
+
+        Connection(Process proc) {
+            this.proc = proc;
+            this.out = new DataOutputStream(new BufferedOutputStream(proc.getOutputStream(), 64 * 1024));
+        }
+
+        boolean alive() {
+            return !dead && proc.isAlive();
+        }
+
+        void fail(Throwable cause) {
+            dead = true;
+            inFlight.values().forEach(f -> f.completeExceptionally(cause));
+            inFlight.clear();
+        }
+    }
+
+    private record Call(Connection conn, long id, CompletableFuture<WorkerProtocol.Reply> future) {
+    }
+
+    PythonWorker(String name, String python, String script) {
+        this.name = name;
+        this.command = List.of(python, script);
+    }
+
+    /** Pedidos en curso sobre este worker (para el despacho least-busy). */
+    int load() {
+        return pending.get();
+    }
+
+    WorkerProtocol.Reply ask(String paramsJson, List<WorkerPayload> items, int timeoutMs) {
+        pending.incrementAndGet();
+        try {
+            try {
+                return await(send(paramsJson, items), timeoutMs);
+            } catch (IOException first) {
+                // el proceso murió con el pedido en vuelo: un reintento sobre un proceso nuevo
+                log.warn("Worker {} falló ({}). Reintentando…", name, first.getMessage());
+                return await(send(paramsJson, items), timeoutMs);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Worker " + name + " sin respuesta válida", e);
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    void close() {
+        writeLock.lock();
+        try {
+            stop(new IOException("Worker detenido"));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* ============== envío / espera ============== */
+
+    private Call send(String paramsJson, List<WorkerPayload> items) throws IOException {
+        writeLock.lock();
+        try {
+            Connection c = ensureStarted();
+            long id = ids.incrementAndGet();
+            CompletableFuture<WorkerProtocol.Reply> f = new CompletableFuture<>();
+            c.inFlight.put(id, f);
+            try {
+                WorkerProtocol.writeRequest(c.out, id, paramsJson, items);
+            } catch (IOException e) {
+                c.inFlight.remove(id);
+                stop(e);
+                throw e;
+            }
+            return new Call(c, id, f);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private WorkerProtocol.Reply await(Call call, int timeoutMs) throws IOException {
+        try {
+            WorkerProtocol.Reply reply = call.future().get(timeoutMs, TimeUnit.MILLISECONDS);
+            consecutiveTimeouts.set(0);
+            return reply;
+        } catch (TimeoutException e) {
+            call.conn().inFlight.remove(call.id());
+            onTimeout(call.conn());
+            throw new WorkerTimeoutException(name, timeoutMs);
+        } catch (InterruptedException e) {
+            call.conn().inFlight.remove(call.id());
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando al worker " + name, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void onTimeout(Connection c) {
+        int n = consecutiveTimeouts.incrementAndGet();
+        if (n < MAX_CONSECUTIVE_TIMEOUTS) {
+            log.warn("Worker {}: timeout ({} seguidos); el proceso sigue vivo", name, n);
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (conn == c) {
+                log.warn("Worker {}: {} timeouts seguidos, se reinicia el proceso", name, n);
+                stop(new IOException("Worker reiniciado por timeouts"));
+                consecutiveTimeouts.set(0);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* ============== lifecycle (con writeLock tomado) ============== */
+
+    private Connection ensureStarted() throws IOException {
+        Connection c = conn;
+        if (c != null && c.alive()) return c;
+        stop(new IOException("Worker " + name + " terminó"));
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        // stderr al log del proceso: si nadie lo drena, el pipe se llena y el worker se cuelga
+        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Connection fresh = new Connection(pb.start());
+
+        Thread reader = new Thread(() -> readLoop(fresh), "worker-" + name + "-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        conn = fresh;
+        log.info("Worker {} iniciado (pid={})", name, fresh.proc.pid());
+        return fresh;
+    }
+
+    private void stop(IOException cause) {
+        Connection c = conn;
+        conn = null;
+        if (c == null) return;
+        c.fail(cause);
+        try {
+            c.out.close();
+        } catch (IOException ignored) {
+        }
+        c.proc.destroy();
+        try {
+            if (!c.proc.waitFor(5, TimeUnit.SECONDS)) c.proc.destroyForcibly();
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* ============== hilo lector ============== */
+
+    private void readLoop(Connection c) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(c.proc.getInputStream(), 64 * 1024))) {
+            while (true) {
+                WorkerProtocol.Reply reply = WorkerProtocol.readReply(in);
+                CompletableFuture<WorkerProtocol.Reply> f = c.inFlight.remove(reply.requestId());
+                if (f == null) {
+                    log.debug("Worker {}: respuesta tardía descartada (id={})", name, reply.requestId());
+                    continue;
+                }
+                f.complete(reply);
+            }
+        } catch (IOException e) {
+            if (!c.dead) log.warn("Worker {}: stdout cerrado ({})", name, e.getMessage());
+            c.fail(e instanceof EOFException ? new IOException("Worker cerró stdout", e) : e);
+        }
+    }
+}
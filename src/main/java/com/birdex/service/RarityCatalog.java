@@ -0,0 +1,89 @@
+package com.birdex.service;
+
+import com.birdex.entity.BirdRarityView;
+import com.birdex.entity.RarityPointsView;
+import com.birdex.repository.BirdRarityRepository;
+import com.birdex.repository.RarityPointsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Rareza por ave y puntos por rareza, cargados completos en memoria con una consulta cada uno.
+ * Reemplaza las consultas por fila de {@link BirdRarityRepository#findRarityNameByBirdName}.
+ * Son datos de catálogo que sólo cambian por script/admin: {@link #invalidate()} fuerza la recarga.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RarityCatalog {
+
+    private final BirdRarityRepository birdRarityRepository;
+    private final RarityPointsRepository rarityPointsRepository;
+
+    private record Snapshot(Map<String, String> rarityByBirdName,
+                            Map<UUID, String> rarityByBirdId,
+                            Map<String, Integer> pointsByRarity) {
+    }
+
+    private volatile Snapshot snapshot;
+
+    /** Rareza del ave por nombre científico (case-insensitive), como {@code findRarityNameByBirdName}. */
+    public Optional<String> rarityOf(String birdName) {
+        if (birdName == null) return Optional.empty();
+        return Optional.ofNullable(snapshot().rarityByBirdName().get(key(birdName)));
+    }
+
+    public Optional<String> rarityOf(UUID birdId) {
+        if (birdId == null) return Optional.empty();
+        return Optional.ofNullable(snapshot().rarityByBirdId().get(birdId));
+    }
+
+    /** Puntos de una rareza (case-insensitive), como {@code findPointsByRarity}. */
+    public Optional<Integer> pointsFor(String rarity) {
+        if (rarity == null) return Optional.empty();
+        return Optional.ofNullable(snapshot().pointsByRarity().get(key(rarity)));
+    }
+
+    public void invalidate() {
+        snapshot = null;
+        log.info("🗂️ Catálogo de rarezas invalidado; se recarga en el próximo uso");
+    }
+
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s != null) return s;
+        synchronized (this) {
+            if (snapshot == null) snapshot = load();
+            return snapshot;
+        }
+    }
+
+    private Snapshot load() {
+        Map<String, String> byName = new HashMap<>();
+        Map<UUID, String> byId = new HashMap<>();
+        for (BirdRarityView row : birdRarityRepository.findAllBirdRarities()) {
+            // si un ave tuviera más de una rareza gana la primera (orden por nombre de rareza)
+            byName.putIfAbsent(key(row.getBirdName()), row.getRarity());
+            byId.putIfAbsent(row.getBirdId(), row.getRarity());
+        }
+
+        Map<String, Integer> points = new HashMap<>();
+        for (RarityPointsView row : rarityPointsRepository.findAllPoints()) {
+            points.put(key(row.getRarity()), row.getPoints());
+        }
+
+        log.info("🗂️ Catálogo de rarezas cargado ({} aves, {} rarezas con puntos)", byId.size(), points.size());
+        return new Snapshot(Map.copyOf(byName), Map.copyOf(byId), Map.copyOf(points));
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
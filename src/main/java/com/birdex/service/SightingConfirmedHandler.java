@@ -0,0 +1,49 @@
+package com.birdex.service;
+
+import com.birdex.dto.enums.SightingStatus;
+import com.birdex.entity.SightingEntity;
+import com.birdex.repository.SightingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Efectos de SightingConfirmed: puntos, misiones y logros del usuario. Corre en la transacción
+ * del consumidor del outbox, la misma que marca el evento como procesado.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SightingConfirmedHandler {
+
+    private final SightingRepository sightingRepository;
+    private final PointsService pointsService;
+    private final MissionService missionService;
+    private final AchievementService achievementService;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void handle(UUID sightingId) {
+        List<SightingEntity> found = sightingRepository.findWithBirdAndUserBySightingIdIn(List.of(sightingId));
+        SightingEntity sighting = found.isEmpty() ? null : found.get(0);
+        // borrado o vuelto a pendiente antes de procesar el evento: no suma nada
+        if (sighting == null || sighting.isDeleted()
+                || !SightingStatus.CONFIRMED.name().equals(sighting.getState())) {
+            log.info("Evento de confirmación ignorado: el avistamiento {} ya no está confirmado", sightingId);
+            return;
+        }
+
+        int pointsAdded = pointsService.addPointsForSighting(sighting.getUser(), sighting.getBird());
+        log.info("Se sumaron {} puntos al usuario {} por avistamiento de {}",
+                pointsAdded, sighting.getUser().getEmail(), sighting.getBird().getName());
+
+        missionService.checkAndUpdateMissions(sighting.getUser(), sighting.getBird(), sighting);
+        achievementService.checkAndUpdateAchievements(sighting.getUser(), sighting.getBird(), sighting);
+
+        log.info("🎯 Misiones y logros actualizados para el avistamiento {}", sightingId);
+    }
+}
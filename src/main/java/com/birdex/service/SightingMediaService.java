@@ -0,0 +1,96 @@
+package com.birdex.service;
+
+import com.birdex.domain.SightingImageItem;
+import com.birdex.entity.SightingEntity;
+import com.birdex.entity.SightingMediaEntity;
+import com.birdex.entity.SightingMediaRow;
+import com.birdex.entity.enums.MediaKind;
+import com.birdex.repository.SightingMediaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Metadata de los archivos de cada avistaje (tabla sighting_media). Se escribe al subir y las
+ * lecturas arman las URLs públicas desde la base, sin tocar MinIO. Los avistajes anteriores a la
+ * tabla (sin filas) se resuelven todavía listando el bucket.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SightingMediaService {
+
+    private final SightingMediaRepository sightingMediaRepository;
+    private final BucketService bucketService;
+
+    public SightingMediaEntity record(SightingEntity sighting, String objectKey, String contentType, long sizeBytes) {
+        SightingMediaEntity media = SightingMediaEntity.builder()
+                .sighting(sighting)
+                .objectKey(objectKey)
+                .kind(MediaKind.fromContentType(contentType))
+                .contentType(contentType)
+                .sizeBytes(sizeBytes)
+                .build();
+        return sightingMediaRepository.save(media);
+    }
+
+    @Transactional
+    public void recordVariants(String objectKey, String thumbKey, String mediumKey) {
+        if (sightingMediaRepository.updateVariants(objectKey, thumbKey, mediumKey) == 0) {
+            log.warn("sighting_media sin fila para '{}': variantes no registradas", objectKey);
+        }
+    }
+
+    /** Poster de un video y su miniatura (_256 del poster), que es lo que muestran los feeds. */
+    @Transactional
+    public void recordPoster(String objectKey, String posterKey, String posterThumbKey) {
+        if (sightingMediaRepository.updatePoster(objectKey, posterKey, posterThumbKey) == 0) {
+            log.warn("sighting_media sin fila para '{}': poster no registrado", objectKey);
+        }
+    }
+
+    /**
+     * Media de muchos avistajes en una sola consulta, más reciente primero.
+     *
+     * @param prefixBySighting sightingId -> prefijo {email}/{slug}/{sightingId}/ (sólo se usa para
+     *                         los avistajes sin filas, que se resuelven listando el bucket)
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, List<SightingImageItem>> mediaFor(Map<UUID, String> prefixBySighting, int maxItemsPerSighting) {
+        Map<UUID, List<SightingImageItem>> out = new HashMap<>();
+        if (prefixBySighting.isEmpty()) return out;
+
+        for (SightingMediaRow row : sightingMediaRepository.findRowsBySightingIds(prefixBySighting.keySet())) {
+            List<SightingImageItem> items = out.computeIfAbsent(row.getSightingId(), k -> new ArrayList<>());
+            if (items.size() < maxItemsPerSighting) items.add(toItem(row));
+        }
+
+        Map<UUID, String> legacy = new HashMap<>();
+        prefixBySighting.forEach((id, prefix) -> {
+            if (!out.containsKey(id)) legacy.put(id, prefix);
+        });
+        if (!legacy.isEmpty()) {
+            out.putAll(bucketService.listSightingMediaBulk(legacy, maxItemsPerSighting));
+        }
+        return out;
+    }
+
+    private SightingImageItem toItem(SightingMediaRow row) {
+        String key = row.getObjectKey();
+        if (row.getKind() == MediaKind.IMAGE) {
+            return new SightingImageItem(
+                    bucketService.sightingPublicUrl(row.getThumbKey() != null ? row.getThumbKey() : key),
+                    bucketService.sightingPublicUrl(row.getMediumKey() != null ? row.getMediumKey() : key)
+            );
+        }
+        String thumb = row.getThumbKey() != null ? row.getThumbKey()
+                : row.getPosterKey() != null ? row.getPosterKey() : key;
+        return new SightingImageItem(
+                bucketService.sightingPublicUrl(thumb),
+                bucketService.sightingPublicUrl(key)
+        );
+    }
+}
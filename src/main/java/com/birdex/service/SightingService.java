@@ -8,22 +8,27 @@ import com.birdex.dto.enums.SightingStatus;
 import com.birdex.entity.BirdEntity;
 import com.birdex.entity.SightingEntity;
 import com.birdex.entity.UserEntity;
+import com.birdex.entity.enums.OutboxEventType;
 import com.birdex.exception.BirdNotFoundException;
 import com.birdex.exception.UserNotFoundException;
 import com.birdex.mapper.SightingMapper;
-import com.birdex.repository.BirdRarityRepository;
 import com.birdex.repository.BirdRepository;
+import com.birdex.repository.SightingFeedRepository;
 import com.birdex.repository.SightingRepository;
 import com.birdex.repository.UserRepository;
+import com.birdex.utils.GeoCells;
+import com.birdex.utils.GeoHash;
+import com.birdex.utils.FeedCursor;
 import com.birdex.utils.Slugs;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 
 
 @Service
@@ -35,13 +40,13 @@ public class SightingService {
     private final UserRepository userRepository;
     private final BirdRepository birdRepository;
     private final BucketService bucketService;
-    private final BirdRarityRepository birdRarityRepository;
-    private final PointsService pointsService;
-    private final MissionService missionService;
-    private final AchievementService achievementService;
+    private final SightingMediaService sightingMediaService;
+    private final RarityCatalog rarityCatalog;
+    private final OutboxService outboxService;
 
     private static final String CACHE = "public, max-age=31536000, immutable";
 
+    @Transactional
     public void registerSighting(SightingRequest request) {
         log.info("📸 Registrando avistamiento confirmado para usuario: {}", request.getEmail());
 
@@ -59,8 +64,8 @@ public class SightingService {
                     return new BirdNotFoundException(request.getBirdName());
                 });
 
-        // Buscar avistamiento pendiente
-        SightingEntity pendingSighting = sightingRepository.findById(request.getSightingId())
+        // Buscar avistamiento pendiente (bloqueado hasta el commit: dos confirmaciones no pasan juntas el chequeo)
+        SightingEntity pendingSighting = sightingRepository.findForUpdateBySightingId(request.getSightingId())
                 .orElseThrow(() -> {
                     log.warn("No sighting found for ID: {}", request.getSightingId());
                     return new IllegalArgumentException("No se encontró el avistamiento con ID " + request.getSightingId());
@@ -98,6 +103,8 @@ public class SightingService {
                 .dateTime(defaultIfNull(request.getDateTime(), pendingSighting.getDateTime()))
                 .latitude(lat)
                 .longitude(lon)
+                .cellId(GeoCells.cellId(lat, lon))
+                .geohash(GeoHash.encode(lat, lon))
                 .locationText(request.getLocationText())
                 .state(SightingStatus.CONFIRMED.name())
                 .build();
@@ -105,15 +112,8 @@ public class SightingService {
         sightingRepository.save(confirmedSighting);
         log.info("✅ Avistamiento confirmado y actualizado con ID {}", confirmedSighting.getSightingId());
 
-        // --- Puntos y misiones ---
-        int pointsAdded = pointsService.addPointsForSighting(userEntity, birdEntity);
-        log.info("Se sumaron {} puntos al usuario {} por avistamiento de {}",
-                pointsAdded, userEntity.getEmail(), birdEntity.getName());
-
-        missionService.checkAndUpdateMissions(userEntity, birdEntity, confirmedSighting);
-        achievementService.checkAndUpdateAchievements(userEntity, birdEntity, confirmedSighting);
-
-        log.info("🎯 Misiones y logros actualizados para el avistamiento {}", confirmedSighting.getSightingId());
+        // --- Puntos, misiones y logros: fuera del request (SightingConfirmedHandler) ---
+        outboxService.publish(OutboxEventType.SIGHTING_CONFIRMED, confirmedSighting.getSightingId());
     }
 
 
@@ -131,13 +131,17 @@ public class SightingService {
         });
 
         List<UUID> sightningIDList = sightingRepository.findIdsByBirdIdAndUserId(bird.getBirdId(), user.getUserId());
-        List<List<SightingImageItem>> sightingImageItems = new ArrayList<>();
 
+        Map<UUID, String> prefixes = new LinkedHashMap<>();
         for (UUID uuid : sightningIDList) {
-            String prefix = req.getEmail() + "/" + slugBird + "/" + uuid + "/"; // sin "sightings/" al inicio
-            var items = bucketService.listSightingImageUrls(prefix, Integer.MAX_VALUE);
+            prefixes.put(uuid, req.getEmail() + "/" + slugBird + "/" + uuid + "/"); // sin "sightings/" al inicio
+        }
+        // una sola consulta a sighting_media para todos los avistajes del usuario
+        Map<UUID, List<SightingImageItem>> media = sightingMediaService.mediaFor(prefixes, Integer.MAX_VALUE);
 
-            sightingImageItems.add(items);
+        List<List<SightingImageItem>> sightingImageItems = new ArrayList<>();
+        for (UUID uuid : sightningIDList) {
+            sightingImageItems.add(media.getOrDefault(uuid, List.of()));
         }
 
 
@@ -149,47 +153,45 @@ public class SightingService {
     // ==========================
     // Avistajes por usuario (DB)
     // ==========================
-    public SightingByUserResponse getSightingsByUser(String email) {
-        validateIfEmailExists(email);
+    public SightingByUserResponse getSightingsByUser(String email, String cursor, int limit, boolean withTotal) {
+        UserEntity user = userRepository.findByEmail(email).orElseThrow(() -> {
+            log.warn("No user found for email: {}", email);
+            return new UserNotFoundException(email);
+        });
+
+        FeedCursor after = FeedCursor.decode(cursor);
+        // uno de más para saber si hay página siguiente sin un COUNT
+        List<FeedCursor> keys = sightingRepository.userPage(user.getUserId(), after, limit + 1);
+        List<SightingEntity> entities = loadPage(keys, limit);
 
-        List<SightingEntity> entities = sightingRepository.findByUserEmailAndStateAndDeletedFalse(email, SightingStatus.CONFIRMED.name());
+        // Portadas de todos los avistajes en una sola consulta, después se mapea uno a uno
+        Map<UUID, List<SightingImageItem>> media = sightingMediaService.mediaFor(
+                sightingPrefixes(entities, se -> se.getBird() != null ? se.getBird().getName() : null), 1);
 
-        // Mapear uno a uno, resolviendo portada por sightingId
         List<SightingResponse> responses = entities.stream()
-                .map(se -> toSummaryWithCover(se))
-                .sorted(Comparator.comparing(SightingResponse::getDateTime,
-                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .map(se -> toSummaryWithCover(se, media.getOrDefault(se.getSightingId(), List.of())))
                 .toList();
 
         return SightingByUserResponse.builder()
                 .sightingResponseList(responses)
+                .nextCursor(nextCursor(keys, limit))
+                .totalElements(withTotal ? sightingRepository.userCount(user.getUserId()) : null)
                 .build();
     }
 
     /**
-     * Construye el resumen y resuelve coverThumbUrl/coverImageUrl SOLO
-     * desde el folder de este sighting: {email}/{slug(birdName)}/{sightingId}/
+     * Construye el resumen; coverThumbUrl/coverImageUrl salen SOLO de la media del folder
+     * de este sighting: {email}/{slug(birdName)}/{sightingId}/
      */
-    private SightingResponse toSummaryWithCover(SightingEntity se) {
-        String email = se.getUser() != null ? se.getUser().getEmail() : null;
+    private SightingResponse toSummaryWithCover(SightingEntity se, List<SightingImageItem> media) {
         String bName = se.getBird() != null ? se.getBird().getName() : null;          // canónico
         String cName = se.getBird() != null ? se.getBird().getCommonName() : null;    // común
-        UUID sightingId = se.getSightingId();
 
         // Rareza
         String rarity = (bName != null)
-                ? birdRarityRepository.findRarityNameByBirdName(bName).orElse("")
+                ? rarityCatalog.rarityOf(bName).orElse("")
                 : "";
 
-        // Prefijo específico del avistaje
-        String slugBird = Slugs.of(bName != null ? bName : "unknown");
-        String prefix = (email != null ? email : "unknown")
-                + "/" + slugBird
-                + "/" + sightingId + "/";
-
-        // Pedimos SOLO la primera media como “cover”
-        List<SightingImageItem> media = bucketService.listSightingImageUrls(prefix, 1);
-
         String coverThumb = (media != null && !media.isEmpty()) ? media.get(0).getThumbUrl() : null;
         String coverImage = (media != null && !media.isEmpty()) ? media.get(0).getImageUrl() : null;
 
@@ -208,8 +210,11 @@ public class SightingService {
     // =============================================================
     // Avistajes “míos” y “de otros” para un ave (con URLs públicas)
     // =============================================================
-    public SightingsForBirdResponse getSightingsMineAndOthers(String email, String birdName) {
-        userRepository.findByEmail(email).orElseThrow(() -> {
+    public SightingsForBirdResponse getSightingsMineAndOthers(String email, String birdName,
+                                                              String mineCursor, int mineLimit,
+                                                              String othersCursor, int othersLimit,
+                                                              boolean withTotal) {
+        UserEntity user = userRepository.findByEmail(email).orElseThrow(() -> {
             log.warn("No user found for email: {}", email);
             return new UserNotFoundException(email);
         });
@@ -222,25 +227,41 @@ public class SightingService {
         String canonicalBirdName = bird.getName();
         String commonName = bird.getCommonName();
 
-        String rarity = birdRarityRepository
-                .findRarityNameByBirdName(canonicalBirdName)
-                .orElse("");
-
-        List<SightingEntity> mineEntities =
-                sightingRepository.findByBird_NameIgnoreCaseAndUser_EmailAndStateAndDeletedFalseOrderByDateTimeDesc(
-                    canonicalBirdName, email, SightingStatus.CONFIRMED.name());
-
-        List<SightingEntity> othersEntities =
-                sightingRepository.findByBird_NameIgnoreCaseAndUser_EmailNotAndStateAndDeletedFalseOrderByDateTimeDesc(
-                    canonicalBirdName, email, SightingStatus.CONFIRMED.name());
+        String rarity = rarityCatalog.rarityOf(canonicalBirdName).orElse("");
+
+        SightingFeedRepository.BirdScope mineScope =
+                new SightingFeedRepository.BirdScope(bird.getBirdId(), user.getUserId(), true);
+        SightingFeedRepository.BirdScope othersScope =
+                new SightingFeedRepository.BirdScope(bird.getBirdId(), user.getUserId(), false);
+
+        // una consulta por sección, con el autor incluido; uno de más para saber si hay otra página
+        List<SightingFeedRepository.BirdSightingRow> mineRows =
+                sightingRepository.birdPage(mineScope, FeedCursor.decode(mineCursor), mineLimit + 1);
+        List<SightingFeedRepository.BirdSightingRow> othersRows =
+                sightingRepository.birdPage(othersScope, FeedCursor.decode(othersCursor), othersLimit + 1);
+        String mineNext = nextCursor(mineRows, mineLimit, SightingFeedRepository.BirdSightingRow::cursor);
+        String othersNext = nextCursor(othersRows, othersLimit, SightingFeedRepository.BirdSightingRow::cursor);
+        if (mineRows.size() > mineLimit) mineRows = mineRows.subList(0, mineLimit);
+        if (othersRows.size() > othersLimit) othersRows = othersRows.subList(0, othersLimit);
+
+        // Las fotos se buscan por sightingId, con una sola consulta para todo el listado
+        Map<UUID, String> prefixes = new LinkedHashMap<>();
+        String slugBird = Slugs.of(canonicalBirdName);
+        for (List<SightingFeedRepository.BirdSightingRow> rows : List.of(mineRows, othersRows)) {
+            for (SightingFeedRepository.BirdSightingRow r : rows) {
+                prefixes.put(r.sightingId(), sightingPrefix(r.userEmail(), slugBird, r.sightingId()));
+            }
+        }
+        Map<UUID, List<SightingImageItem>> media = sightingMediaService.mediaFor(prefixes, 50);
 
-        // Importante: ya NO cacheamos por email. Las fotos se buscan por sightingId.
-        List<SightingFullResponse> mine = mineEntities.stream()
-                .map(se -> toFullResponseOnlyThisSighting(se, canonicalBirdName, commonName, rarity))
+        List<SightingFullResponse> mine = mineRows.stream()
+                .map(r -> toFullResponseOnlyThisSighting(r, canonicalBirdName, commonName, rarity,
+                        media.getOrDefault(r.sightingId(), List.of())))
                 .toList();
 
-        List<SightingFullResponse> others = othersEntities.stream()
-                .map(se -> toFullResponseOnlyThisSighting(se, canonicalBirdName, commonName, rarity))
+        List<SightingFullResponse> others = othersRows.stream()
+                .map(r -> toFullResponseOnlyThisSighting(r, canonicalBirdName, commonName, rarity,
+                        media.getOrDefault(r.sightingId(), List.of())))
                 .toList();
 
         return SightingsForBirdResponse.builder()
@@ -249,6 +270,10 @@ public class SightingService {
                 .rarity(rarity)
                 .mine(mine)
                 .others(others)
+                .mineNextCursor(mineNext)
+                .othersNextCursor(othersNext)
+                .mineTotal(withTotal ? sightingRepository.birdCount(mineScope) : null)
+                .othersTotal(withTotal ? sightingRepository.birdCount(othersScope) : null)
                 .build();
     }
 
@@ -256,22 +281,13 @@ public class SightingService {
      * Construye el response de un único avistaje y SOLO sus imágenes.
      * Prefijo: <email>/<slug(birdName)>/<sightingId>/
      */
-    private SightingFullResponse toFullResponseOnlyThisSighting(SightingEntity se,
+    private SightingFullResponse toFullResponseOnlyThisSighting(SightingFeedRepository.BirdSightingRow row,
                                                                 String canonicalBirdName,
                                                                 String commonName,
-                                                                String rarity) {
-
-        String uEmail = se.getUser() != null ? se.getUser().getEmail() : null;
-        String uName = se.getUser() != null ? se.getUser().getUsername() : null;
+                                                                String rarity,
+                                                                List<SightingImageItem> raw) {
 
-        UUID sightingId = se.getSightingId();
-        String slugBird = Slugs.of(canonicalBirdName); // mismo slug que usás al subir
-        String prefix = (uEmail != null ? uEmail : "unknown")
-                + "/" + slugBird
-                + "/" + sightingId + "/";
-
-        // Traer imágenes del BUCKET solo para ESTE avistaje
-        List<SightingImageItem> raw = bucketService.listSightingImageUrls(prefix, 50);
+        UUID sightingId = row.sightingId();
 
         // Filtro defensivo por si el bucket devuelve de más
         String needle = "/" + sightingId + "/";
@@ -282,7 +298,7 @@ public class SightingService {
         String coverThumb = imgs.isEmpty() ? null : imgs.get(0).getThumbUrl();
         String coverImage = imgs.isEmpty() ? null : imgs.get(0).getImageUrl();
 
-        String locationString = formatLocation(se.getLatitude(), se.getLongitude(), se.getLocationText());
+        String locationString = formatLocation(row.latitude(), row.longitude(), row.locationText());
 
         return SightingFullResponse.builder()
                 .sightingId(sightingId)
@@ -290,17 +306,34 @@ public class SightingService {
                 .commonName(commonName)
                 .rarity(rarity)
                 .location(locationString)
-                .dateTime(se.getDateTime())
-                .userEmail(uEmail)
-                .username(uName)
+                .dateTime(row.dateTime())
+                .userEmail(row.userEmail())
+                .username(row.username())
                 .coverThumbUrl(coverThumb)
                 .coverImageUrl(coverImage)
                 .images(imgs)                 // ← ahora sólo del folder del sighting
-                .latitude(se.getLatitude())
-                .longitude(se.getLongitude())
+                .latitude(row.latitude())
+                .longitude(row.longitude())
                 .build();
     }
 
+    /** sightingId -> {email}/{slug(birdName)}/{sightingId}/ (mismo slug que se usa al subir). */
+    private static Map<UUID, String> sightingPrefixes(List<SightingEntity> entities,
+                                                      java.util.function.Function<SightingEntity, String> birdName) {
+        Map<UUID, String> prefixes = new LinkedHashMap<>();
+        for (SightingEntity se : entities) {
+            String email = se.getUser() != null ? se.getUser().getEmail() : null;
+            String bName = birdName.apply(se);
+            prefixes.put(se.getSightingId(),
+                    sightingPrefix(email, Slugs.of(bName != null ? bName : "unknown"), se.getSightingId()));
+        }
+        return prefixes;
+    }
+
+    private static String sightingPrefix(String email, String slugBird, UUID sightingId) {
+        return (email != null ? email : "unknown") + "/" + slugBird + "/" + sightingId + "/";
+    }
+
     private static boolean contains(String url, String needle) {
         return url != null && url.contains(needle);
     }
@@ -308,19 +341,57 @@ public class SightingService {
     // ===================
     // Búsqueda paginada
     // ===================
-    public Page<SightingResponse> searchSightings(String rarity, String color, String zone, String size,
-                                                  int page, int sizePage) {
-        Pageable pageable = PageRequest.of(page, sizePage, Sort.by(Sort.Direction.DESC, "dateTime"));
-
-        String r = n(rarity);
-        String c = n(color);
-        String s = n(size);
+    /**
+     * Con {@code cursor} (o en la primera página) pagina por keyset; {@code page} > 0 sin cursor
+     * queda por compatibilidad y usa OFFSET. El total sólo se calcula con {@code withTotal}.
+     */
+    public SightingSearchResponse searchSightings(String rarity, String color, String zone, String size,
+                                                  String cursor, int page, int sizePage, boolean withTotal) {
+        SightingFeedRepository.SearchFilter filter = new SightingFeedRepository.SearchFilter(
+                lower(rarity), lower(color), lower(size));
 
-        Page<SightingEntity> result = sightingRepository.searchSightings(r, c, s, pageable);
+        FeedCursor after = FeedCursor.decode(cursor);
+        int offset = after == null && page > 0 ? Math.multiplyExact(page, sizePage) : 0;
+        List<FeedCursor> keys = sightingRepository.searchPage(filter, after, offset, sizePage + 1);
+        List<SightingEntity> entities = loadPage(keys, sizePage);
 
-        List<SightingDto> dtos = SightingMapper.toDtoList(result.getContent());
+        List<SightingDto> dtos = SightingMapper.toDtoList(entities);
         List<SightingResponse> responses = buildResponseList(dtos);
-        return new PageImpl<>(responses, pageable, result.getTotalElements());
+        String next = nextCursor(keys, sizePage);
+        return SightingSearchResponse.builder()
+                .content(responses)
+                .size(sizePage)
+                .numberOfElements(responses.size())
+                .last(next == null)
+                .nextCursor(next)
+                .totalElements(withTotal ? sightingRepository.searchCount(filter) : null)
+                .build();
+    }
+
+    /** Entidades de la página (sin la fila extra), en el orden de las keys. */
+    private List<SightingEntity> loadPage(List<FeedCursor> keys, int limit) {
+        List<FeedCursor> page = keys.size() > limit ? keys.subList(0, limit) : keys;
+        if (page.isEmpty()) return List.of();
+        Map<UUID, SightingEntity> byId = new HashMap<>();
+        for (SightingEntity se : sightingRepository.findWithBirdAndUserBySightingIdIn(
+                page.stream().map(FeedCursor::sightingId).toList())) {
+            byId.put(se.getSightingId(), se);
+        }
+        List<SightingEntity> out = new ArrayList<>(page.size());
+        for (FeedCursor k : page) {
+            SightingEntity se = byId.get(k.sightingId());
+            if (se != null) out.add(se);
+        }
+        return out;
+    }
+
+    /** Cursor de la última fila de la página, o null si la consulta no trajo la fila extra. */
+    private static String nextCursor(List<FeedCursor> keys, int limit) {
+        return nextCursor(keys, limit, Function.identity());
+    }
+
+    private static <T> String nextCursor(List<T> rows, int limit, Function<T, FeedCursor> cursorOf) {
+        return rows.size() > limit ? cursorOf.apply(rows.get(limit - 1)).encode() : null;
     }
 
     // ===================
@@ -330,6 +401,11 @@ public class SightingService {
         return (v != null && !v.isBlank()) ? v.trim() : null;
     }
 
+    private String lower(String v) {
+        String t = n(v);
+        return t != null ? t.toLowerCase(Locale.ROOT) : null;
+    }
+
     private SightingFullResponse toFullResponse(SightingEntity se,
                                                 String canonicalBirdName,
                                                 String commonName,
@@ -375,13 +451,6 @@ public class SightingService {
                 .build();
     }
 
-    private void validateIfEmailExists(String email) {
-        userRepository.findByEmail(email).orElseThrow(() -> {
-            log.warn("No user found for email: {}", email);
-            return new UserNotFoundException(email);
-        });
-    }
-
     private List<SightingResponse> buildResponseList(List<SightingDto> sightingDtos) {
         List<SightingResponse> list = new ArrayList<>();
         for (SightingDto dto : sightingDtos) {
@@ -392,7 +461,7 @@ public class SightingService {
                     .latitude(dto.latitude())
                     .longitude(dto.longitude());
 
-            String rarity = birdRarityRepository.findRarityNameByBirdName(dto.birdName()).orElse("");
+            String rarity = rarityCatalog.rarityOf(dto.birdName()).orElse("");
             builder.rarity(rarity);
 
             list.add(builder.build());
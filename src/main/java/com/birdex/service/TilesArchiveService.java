@@ -0,0 +1,217 @@
+package com.birdex.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Archivo {@code tiles/tiles_argentina.zip}: versión (tamaño + fecha de modificación) para ETag y
+ * Last-Modified, y un índice de los tiles que contiene, armado desde el directorio central del zip
+ * (mapeado en memoria) para servir un tile suelto sin descomprimir ni recorrer el archivo.
+ * Si el archivo cambia en disco, el índice se rearma en el siguiente pedido.
+ */
+@Service
+@Slf4j
+public class TilesArchiveService {
+
+    private static final Path FILE_PATH = Path.of("tiles/tiles_argentina.zip");
+
+    /** .../{z}/{x}/{y}.ext en cualquier carpeta del zip. */
+    private static final Pattern TILE_NAME = Pattern.compile("(?:^|/)(\\d+)/(\\d+)/(\\d+)\\.(\\w+)$");
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int EOCD_MIN_SIZE = 22;
+    private static final int LOC_HEADER_SIZE = 30;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+
+    /** Estado del archivo en disco. {@code etag} es fuerte: cambia con cualquier reemplazo del zip. */
+    public record Archive(Path path, long size, long lastModified, String etag) {
+    }
+
+    /** Tile dentro del zip: posición del encabezado local y cómo está guardado. */
+    public record TileEntry(String name, long localHeaderOffset, long compressedSize, long size, int method) {
+    }
+
+    /** Datos de un tile: región del archivo (guardado sin comprimir) o bytes ya inflados. */
+    public record TileData(String contentType, long offset, long length, byte[] inflated) {
+        public boolean isRegion() {
+            return inflated == null;
+        }
+    }
+
+    private record Index(Archive archive, Map<String, TileEntry> tiles) {
+    }
+
+    private volatile Index index;
+
+    public Optional<Archive> archive() throws IOException {
+        if (!Files.isRegularFile(FILE_PATH)) return Optional.empty();
+        long size = Files.size(FILE_PATH);
+        long lastModified = Files.getLastModifiedTime(FILE_PATH).toMillis();
+        String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + "\"";
+        return Optional.of(new Archive(FILE_PATH.toAbsolutePath(), size, lastModified, etag));
+    }
+
+    /** Tile z/x/y del zip, o vacío si el zip no existe o no lo contiene. */
+    public Optional<TileData> tile(int z, int x, int y) throws IOException {
+        Optional<Archive> current = archive();
+        if (current.isEmpty()) return Optional.empty();
+        Index idx = indexFor(current.get());
+        TileEntry entry = idx.tiles().get(z + "/" + x + "/" + y);
+        if (entry == null) return Optional.empty();
+
+        try (FileChannel ch = FileChannel.open(idx.archive().path(), StandardOpenOption.READ)) {
+            ByteBuffer loc = ByteBuffer.allocate(LOC_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(ch, loc, entry.localHeaderOffset());
+            if (loc.getInt(0) != LOC_SIGNATURE) {
+                throw new IOException("Encabezado local inválido para " + entry.name());
+            }
+            long dataOffset = entry.localHeaderOffset() + LOC_HEADER_SIZE
+                    + Short.toUnsignedInt(loc.getShort(26)) + Short.toUnsignedInt(loc.getShort(28));
+            String contentType = contentType(entry.name());
+
+            if (entry.method() == METHOD_STORED) {
+                return Optional.of(new TileData(contentType, dataOffset, entry.size(), null));
+            }
+            ByteBuffer compressed = ByteBuffer.allocate(Math.toIntExact(entry.compressedSize()));
+            readFully(ch, compressed, dataOffset);
+            return Optional.of(new TileData(contentType, 0, entry.size(), inflate(compressed.array(), entry)));
+        }
+    }
+
+    public int tileCount() throws IOException {
+        Optional<Archive> current = archive();
+        return current.isEmpty() ? 0 : indexFor(current.get()).tiles().size();
+    }
+
+    /* ============== índice ============== */
+
+    private Index indexFor(Archive archive) throws IOException {
+        Index idx = index;
+        if (idx != null && idx.archive().equals(archive)) return idx;
+        synchronized (this) {
+            idx = index;
+            if (idx == null || !idx.archive().equals(archive)) {
+                idx = new Index(archive, readCentralDirectory(archive.path()));
+                index = idx;
+            }
+            return idx;
+        }
+    }
+
+    private static Map<String, TileEntry> readCentralDirectory(Path path) throws IOException {
+        long t0 = System.nanoTime();
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            // el EOCD está al final, seguido de un comentario opcional de hasta 64 KB
+            int tailLen = (int) Math.min(size, EOCD_MIN_SIZE + 0xFFFF);
+            MappedByteBuffer tail = ch.map(FileChannel.MapMode.READ_ONLY, size - tailLen, tailLen);
+            tail.order(ByteOrder.LITTLE_ENDIAN);
+            int eocd = -1;
+            for (int i = tailLen - EOCD_MIN_SIZE; i >= 0; i--) {
+                if (tail.getInt(i) == EOCD_SIGNATURE) {
+                    eocd = i;
+                    break;
+                }
+            }
+            if (eocd < 0) throw new IOException("No es un zip válido: " + path);
+
+            int entries = Short.toUnsignedInt(tail.getShort(eocd + 10));
+            long cenSize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+            long cenOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+            if (entries == 0xFFFF || cenSize == 0xFFFFFFFFL || cenOffset == 0xFFFFFFFFL) {
+                // ZIP64: el archivo actual no lo necesita; se sirve sólo el zip completo
+                log.warn("⚠️ {} es ZIP64; no se indexan tiles sueltos", path);
+                return Map.of();
+            }
+
+            MappedByteBuffer cen = ch.map(FileChannel.MapMode.READ_ONLY, cenOffset, cenSize);
+            cen.order(ByteOrder.LITTLE_ENDIAN);
+            Map<String, TileEntry> tiles = new HashMap<>(entries * 2);
+            int pos = 0;
+            for (int i = 0; i < entries; i++) {
+                if (cen.getInt(pos) != CEN_SIGNATURE) throw new IOException("Directorio central inválido en " + path);
+                int method = Short.toUnsignedInt(cen.getShort(pos + 10));
+                long compressedSize = Integer.toUnsignedLong(cen.getInt(pos + 20));
+                long uncompressedSize = Integer.toUnsignedLong(cen.getInt(pos + 24));
+                int nameLen = Short.toUnsignedInt(cen.getShort(pos + 28));
+                int extraLen = Short.toUnsignedInt(cen.getShort(pos + 30));
+                int commentLen = Short.toUnsignedInt(cen.getShort(pos + 32));
+                long localOffset = Integer.toUnsignedLong(cen.getInt(pos + 42));
+
+                byte[] nameBytes = new byte[nameLen];
+                cen.get(pos + 46, nameBytes);
+                String name = new String(nameBytes, StandardCharsets.UTF_8);
+                pos += 46 + nameLen + extraLen + commentLen;
+
+                Matcher m = TILE_NAME.matcher(name);
+                if (!m.find() || (method != METHOD_STORED && method != METHOD_DEFLATED)) continue;
+                tiles.put(m.group(1) + "/" + m.group(2) + "/" + m.group(3),
+                        new TileEntry(name, localOffset, compressedSize, uncompressedSize, method));
+            }
+            log.info("🗺️ Índice de {} cargado: {} tiles en {} ms",
+                    path.getFileName(), tiles.size(), (System.nanoTime() - t0) / 1_000_000);
+            return Map.copyOf(tiles);
+        }
+    }
+
+    /* ============== helpers ============== */
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        long pos = position;
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos);
+            if (n < 0) throw new IOException("Fin de archivo inesperado en " + position);
+            pos += n;
+        }
+        buf.flip();
+    }
+
+    private static byte[] inflate(byte[] compressed, TileEntry entry) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] out = new byte[Math.toIntExact(entry.size())];
+            int n = 0;
+            while (n < out.length && !inflater.finished()) {
+                int r = inflater.inflate(out, n, out.length - n);
+                if (r == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += r;
+            }
+            if (n != out.length) throw new IOException("Tile truncado en el zip: " + entry.name());
+            return out;
+        } catch (DataFormatException e) {
+            throw new IOException("Tile corrupto en el zip: " + entry.name(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static String contentType(String name) {
+        String lower = name.toLowerCase();
+        if (lower.endsWith(".png")) return "image/png";
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
+        if (lower.endsWith(".webp")) return "image/webp";
+        if (lower.endsWith(".pbf") || lower.endsWith(".mvt")) return "application/x-protobuf";
+        return "application/octet-stream";
+    }
+}
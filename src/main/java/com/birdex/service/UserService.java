@@ -13,6 +13,7 @@ import com.birdex.mapper.SightingMapper;
 import com.birdex.repository.LevelRepository;
 import com.birdex.repository.SightingRepository;
 import com.birdex.repository.UserRepository;
+import com.birdex.utils.Base64Sanitizer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -29,6 +30,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final LevelRepository levelRepository;
     private final BucketService bucketService;
+    private final ImageVariantService imageVariantService;
 
     private static final String MSG_USER_NOT_FOUND_BY_EMAIL = "No encontramos una cuenta registrada con ese correo.";
     private static final String MSG_USER_NOT_FOUND_BY_USERNAME = "No encontramos una cuenta registrada con ese usuario.";
@@ -53,12 +55,13 @@ public class UserService {
             throw new IllegalArgumentException("La foto en base64 es obligatoria");
         }
 
-        String key = bucketService.uploadUserProfileBase64(
+        byte[] photo = Base64Sanitizer.decode(request.getPhoto());
+        String key = bucketService.uploadUserProfile(
                 email,
-                request.getPhoto(),
-                null,
-                false
+                photo,
+                Base64Sanitizer.contentType(request.getPhoto(), "image/jpeg")
         );
+        imageVariantService.submitUserProfile(key, photo);
 
         user.updateProfilePhotoKey(key);
 
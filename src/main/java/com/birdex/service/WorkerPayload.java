@@ -0,0 +1,52 @@
+package com.birdex.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Un item de un pedido al worker. Se escribe directo sobre el stdin del proceso, así que un
+ * archivo spooleado a disco viaja en bloques sin materializarse como byte[] en el heap.
+ */
+interface WorkerPayload {
+
+    long length();
+
+    void writeTo(OutputStream out) throws IOException;
+
+    static WorkerPayload of(byte[] data) {
+        return new WorkerPayload() {
+            @Override
+            public long length() {
+                return data.length;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(data);
+            }
+        };
+    }
+
+    static WorkerPayload of(Path file) {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer " + file, e);
+        }
+        return new WorkerPayload() {
+            @Override
+            public long length() {
+                return size;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                Files.copy(file, out);
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.birdex.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pool de N procesos Python del mismo tipo. Despacha cada pedido al worker menos ocupado;
+ * los parámetros (fps, stop…) viajan en cada pedido, así que cualquier worker sirve cualquier pedido.
+ */
+class WorkerPool {
+
+    private final String name;
+    private final List<PythonWorker> workers;
+    private final int timeoutMs;
+
+    WorkerPool(String name, String python, String script, int size, int timeoutMs) {
+        this.name = name;
+        this.timeoutMs = timeoutMs;
+        int n = Math.max(1, size);
+        List<PythonWorker> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            list.add(new PythonWorker(name + "-" + i, python, script));
+        }
+        this.workers = List.copyOf(list);
+    }
+
+    WorkerProtocol.Reply ask(String paramsJson, List<WorkerPayload> items) {
+        return ask(paramsJson, items, timeoutMs);
+    }
+
+    WorkerProtocol.Reply ask(String paramsJson, List<WorkerPayload> items, int timeoutMs) {
+        return pick().ask(paramsJson, items, timeoutMs);
+    }
+
+    int timeoutMs() {
+        return timeoutMs;
+    }
+
+    int size() {
+        return workers.size();
+    }
+
+    void shutdown() {
+        workers.forEach(PythonWorker::close);
+    }
+
+    private PythonWorker pick() {
+        PythonWorker best = workers.get(0);
+        for (PythonWorker w : workers) {
+            if (w.load() < best.load()) best = w;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,133 @@
+package com.birdex.service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protocolo binario con los workers Python (espejo de {@code birdex_protocol.py}).
+ * Mismo framing en ambos sentidos, big-endian:
+ * <pre>
+ * u32 frameLen | u8 version | u8 kind/status | u64 requestId | body
+ *
+ * pedido:    u16 paramsLen | params (JSON) | u32 count | count x (u32 len | bytes)
+ * respuesta: str error | u16 count | count x item
+ * item:      u8 status | str label | f64 trust | u8 k | k x (str label | f64 score) | str error | u32 posterLen | poster
+ * </pre>
+ * {@code poster} es el JPEG del frame mejor puntuado cuando un video se pide con {@code "poster": true}.
+ */
+final class WorkerProtocol {
+
+    static final int VERSION = 2;
+    static final int KIND_CLASSIFY = 1;
+
+    static final int STATUS_OK = 0;
+    static final int STATUS_BAD_REQUEST = 1;
+    static final int STATUS_INTERNAL = 2;
+
+    static final int ITEM_OK = 0;
+    static final int ITEM_INVALID_INPUT = 1;
+    static final int ITEM_INFERENCE_ERROR = 2;
+
+    /** version + kind + requestId */
+    private static final int HEADER_BYTES = 1 + 1 + 8;
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private WorkerProtocol() {
+    }
+
+    record Score(String label, double score) {
+    }
+
+    /** {@code poster}: JPEG del frame representativo (sólo videos); null si el worker no mandó. */
+    record Prediction(int status, String label, double trustLevel, List<Score> topK, String error, byte[] poster) {
+        boolean ok() {
+            return status == ITEM_OK;
+        }
+
+        /** Misma predicción sin el poster (para cachear sin retener el JPEG). */
+        Prediction withoutPoster() {
+            return poster == null ? this : new Prediction(status, label, trustLevel, topK, error, null);
+        }
+    }
+
+    record Reply(long requestId, int status, String error, List<Prediction> items) {
+        boolean ok() {
+            return status == STATUS_OK;
+        }
+    }
+
+    static void writeRequest(DataOutputStream out, long requestId, String paramsJson, List<WorkerPayload> items) throws IOException {
+        byte[] params = paramsJson == null ? new byte[0] : paramsJson.getBytes(StandardCharsets.UTF_8);
+        long len = HEADER_BYTES + 2L + params.length + 4;
+        for (WorkerPayload item : items) len += 4L + item.length();
+        if (len > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Pedido demasiado grande para el worker: " + len + " bytes");
+        }
+
+        out.writeInt((int) len);
+        out.writeByte(VERSION);
+        out.writeByte(KIND_CLASSIFY);
+        out.writeLong(requestId);
+        out.writeShort(params.length);
+        out.write(params);
+        out.writeInt(items.size());
+        for (WorkerPayload item : items) {
+            out.writeInt((int) item.length());
+            item.writeTo(out);
+        }
+        out.flush();
+    }
+
+    /** Bloquea hasta leer un frame completo. {@link EOFException} si el worker cerró stdout. */
+    static Reply readReply(DataInputStream stream) throws IOException {
+        int len = stream.readInt();
+        if (len < HEADER_BYTES || len > MAX_FRAME_BYTES) {
+            throw new IOException("Frame de respuesta inválido (" + len + " bytes)");
+        }
+        // se lee el frame entero antes de parsear: un body mal formado no desincroniza el stream
+        byte[] frame = new byte[len];
+        stream.readFully(frame);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Versión de protocolo no soportada: " + version);
+        }
+        int status = in.readUnsignedByte();
+        long requestId = in.readLong();
+        String error = readString(in);
+
+        int count = in.readUnsignedShort();
+        List<Prediction> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int itemStatus = in.readUnsignedByte();
+            String label = readString(in);
+            double trust = in.readDouble();
+            int k = in.readUnsignedByte();
+            List<Score> topK = new ArrayList<>(k);
+            for (int j = 0; j < k; j++) {
+                topK.add(new Score(readString(in), in.readDouble()));
+            }
+            String itemError = readString(in);
+            items.add(new Prediction(itemStatus, label, trust, List.copyOf(topK), itemError, readBlob(in)));
+        }
+        return new Reply(requestId, status, error, List.copyOf(items));
+    }
+
+    private static byte[] readBlob(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n == 0) return null;
+        if (n < 0 || n > in.available()) throw new EOFException("Frame truncado");
+        return in.readNBytes(n);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int n = in.readUnsignedShort();
+        if (n == 0) return "";
+        byte[] b = in.readNBytes(n);
+        if (b.length < n) throw new EOFException("Frame truncado");
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -1,20 +1,84 @@
 package com.birdex.utils;
 
-import java.util.Base64;
-
+/**
+ * Decodificador base64 de una sola pasada para los endpoints JSON legacy.
+ * Acepta data URI ({@code data:image/jpeg;base64,...}), saltos de línea/espacios intercalados,
+ * padding opcional y alfabeto URL-safe, sin regex ni copias intermedias del String.
+ */
 public final class Base64Sanitizer {
     private Base64Sanitizer() {}
 
+    private static final String MARKER = "base64,";
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        java.util.Arrays.fill(VALUES, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) VALUES[alphabet.charAt(i)] = (byte) i;
+        VALUES['-'] = 62;
+        VALUES['_'] = 63;
+    }
+
     public static byte[] decode(String raw) {
         if (raw == null) throw new IllegalArgumentException("fileBase64 null");
-        String s = raw.trim();
-        int i = s.indexOf("base64,");
-        if (i >= 0) s = s.substring(i + "base64,".length());
-        s = s.replaceAll("\\s+", ""); // quita CR/LF/espacios
-        try {
-            return Base64.getDecoder().decode(s);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("fileBase64 inválido", e);
+        int start = payloadStart(raw);
+        int end = raw.length();
+        int last = end;
+        while (last > start && isSkippable(raw.charAt(last - 1))) last--;
+
+        // tamaño exacto cuando no hay saltos de línea intercalados (el caso normal): sin copia final
+        byte[] out = new byte[(int) ((last - start) * 6L / 8)];
+        int n = 0;
+        int acc = 0;
+        int bits = 0;
+        boolean padding = false;
+
+        for (int i = start; i < end; i++) {
+            char c = raw.charAt(i);
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') continue;
+            if (c == '=') {
+                padding = true;
+                continue;
+            }
+            int v = c < 128 ? VALUES[c] : -1;
+            if (v < 0 || padding) {
+                throw new IllegalArgumentException("fileBase64 inválido (carácter '" + c + "' en posición " + i + ")");
+            }
+            acc = (acc << 6) | v;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[n++] = (byte) (acc >> bits);
+            }
+        }
+        // 6 bits sueltos no forman un byte: entrada truncada
+        if (bits >= 6) throw new IllegalArgumentException("fileBase64 inválido (longitud)");
+
+        return n == out.length ? out : java.util.Arrays.copyOf(out, n);
+    }
+
+    /**
+     * MIME de un data URI ({@code data:image/png;base64,...}) mirando sólo la cabecera,
+     * o {@code fallback} si el valor es base64 pelado.
+     */
+    public static String contentType(String raw, String fallback) {
+        if (raw == null || !raw.regionMatches(true, 0, "data:", 0, 5)) return fallback;
+        int end = payloadStart(raw) - MARKER.length() - 1;
+        if (end <= 5 || raw.charAt(end) != ';') return fallback;
+        String ct = raw.substring(5, end).trim();
+        return ct.isEmpty() ? fallback : ct;
+    }
+
+    private static boolean isSkippable(char c) {
+        return c == '=' || c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    /** Índice donde empieza el base64: después de "base64," si viene como data URI (se busca sólo en la cabecera). */
+    private static int payloadStart(String raw) {
+        int limit = Math.min(raw.length() - MARKER.length(), 256);
+        for (int i = 0; i <= limit; i++) {
+            if (raw.startsWith(MARKER, i)) return i + MARKER.length();
         }
+        return 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,41 @@
+package com.birdex.utils;
+
+import com.birdex.exception.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor de los listados de avistajes ordenados por (date_time DESC, sighting_id DESC): la última
+ * fila de una página. Para el cliente es opaco (base64url de segundos, nanos y UUID).
+ */
+public record FeedCursor(LocalDateTime dateTime, UUID sightingId) {
+
+    private static final int BYTES = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    public String encode() {
+        ByteBuffer buf = ByteBuffer.allocate(BYTES)
+                .putLong(dateTime.toEpochSecond(ZoneOffset.UTC))
+                .putInt(dateTime.getNano())
+                .putLong(sightingId.getMostSignificantBits())
+                .putLong(sightingId.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+    }
+
+    /** null o vacío = primera página. */
+    public static FeedCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(cursor);
+            if (raw.length != BYTES) throw new InvalidCursorException(cursor);
+            ByteBuffer buf = ByteBuffer.wrap(raw);
+            LocalDateTime dt = LocalDateTime.ofEpochSecond(buf.getLong(), buf.getInt(), ZoneOffset.UTC);
+            return new FeedCursor(dt, new UUID(buf.getLong(), buf.getLong()));
+        } catch (IllegalArgumentException | java.time.DateTimeException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.birdex.utils;
 
-import java.util.Base64;
-
 public class FileMetadataExtractor {
     private FileMetadataExtractor() {
         throw new UnsupportedOperationException("Utility class");
@@ -14,8 +12,8 @@ public class FileMetadataExtractor {
         return base64Data.substring(start, end);
     }
 
+    /** Mismo resultado que {@link Base64Sanitizer#decode(String)}; preferí decodificar una sola vez y reusar los bytes. */
     public static byte[] extractData(String base64Data) {
-        String base64Cleaned = base64Data.replaceFirst("^data:[^;]+;base64,", "");
-        return Base64.getDecoder().decode(base64Cleaned);
+        return Base64Sanitizer.decode(base64Data);
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.birdex.utils;
+
+import java.math.BigDecimal;
+
+/**
+ * Grilla de ~250 m sobre lat/lon para agrupar avistajes cercanos. Espejo de la función SQL
+ * {@code sighting_cell_id} (scripts/bird_insert.sql): mismas operaciones en double, así el id
+ * calculado acá y el del backfill en la base coinciden.
+ * <p>
+ * Celda = (floor(lat / alto), floor(lon / ancho)) con el ancho en grados corregido por cos(lat);
+ * el id empaqueta x en los 32 bits altos e y en los 32 bajos.
+ */
+public final class GeoCells {
+    private GeoCells() {}
+
+    public static final double GRID_METERS = 250.0;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    public static long cellX(double lat) {
+        return (long) Math.floor(lat * METERS_PER_DEGREE / GRID_METERS);
+    }
+
+    public static long cellY(double lat, double lon) {
+        return (long) Math.floor(lon * METERS_PER_DEGREE * Math.cos(Math.toRadians(lat)) / GRID_METERS);
+    }
+
+    public static long cellId(long x, long y) {
+        return (x << 32) | (y & 0xFFFF_FFFFL);
+    }
+
+    public static Long cellId(BigDecimal lat, BigDecimal lon) {
+        if (lat == null || lon == null) return null;
+        double dLat = lat.doubleValue();
+        return cellId(cellX(dLat), cellY(dLat, lon.doubleValue()));
+    }
+}
@@ -0,0 +1,115 @@
+package com.birdex.utils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash (base32) para búsquedas por cercanía: puntos cercanos comparten prefijo, así un prefijo es
+ * un rango contiguo en un índice btree. Espejo de la función SQL {@code geohash_encode}.
+ */
+public final class GeoHash {
+    private GeoHash() {}
+
+    /** ~4.8 m x 4.8 m: alcanza para cualquier radio de búsqueda razonable. */
+    public static final int STORED_PRECISION = 9;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final double EARTH_RADIUS_M = 6_371_008.8;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    public static String encode(BigDecimal lat, BigDecimal lon) {
+        if (lat == null || lon == null) return null;
+        return encode(lat.doubleValue(), lon.doubleValue(), STORED_PRECISION);
+    }
+
+    public static String encode(double lat, double lon, int precision) {
+        double latMin = -90, latMax = 90, lonMin = -180, lonMax = 180;
+        StringBuilder out = new StringBuilder(precision);
+        boolean evenBit = true; // los bits pares son de longitud
+        int bit = 0, ch = 0;
+        while (out.length() < precision) {
+            if (evenBit) {
+                double mid = (lonMin + lonMax) / 2;
+                if (lon >= mid) {
+                    ch = (ch << 1) | 1;
+                    lonMin = mid;
+                } else {
+                    ch <<= 1;
+                    lonMax = mid;
+                }
+            } else {
+                double mid = (latMin + latMax) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    latMin = mid;
+                } else {
+                    ch <<= 1;
+                    latMax = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                out.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return out.toString();
+    }
+
+    /** Alto en grados de una celda de {@code precision} caracteres. */
+    static double cellLatDegrees(int precision) {
+        return 180.0 / (1L << (precision * 5 / 2));
+    }
+
+    /** Ancho en grados de una celda de {@code precision} caracteres. */
+    static double cellLonDegrees(int precision) {
+        return 360.0 / (1L << ((precision * 5 + 1) / 2));
+    }
+
+    /**
+     * Prefijos que cubren el círculo (lat, lon, radio): se elige la precisión más fina cuya celda
+     * mide al menos el radio en ambos sentidos, y se toman las celdas que tocan la caja que
+     * envuelve al círculo (a lo sumo 3 x 3).
+     */
+    public static List<String> covering(double lat, double lon, double radiusMeters) {
+        double dLat = radiusMeters / METERS_PER_DEGREE;
+        double cosLat = Math.max(Math.cos(Math.toRadians(lat)), 1e-6);
+        double dLon = Math.min(180.0, radiusMeters / (METERS_PER_DEGREE * cosLat));
+
+        int precision = STORED_PRECISION;
+        while (precision > 1 && (cellLatDegrees(precision) < dLat || cellLonDegrees(precision) < dLon)) {
+            precision--;
+        }
+
+        double minLat = Math.max(-90, lat - dLat), maxLat = Math.min(90, lat + dLat);
+        double stepLat = cellLatDegrees(precision), stepLon = cellLonDegrees(precision);
+        Set<String> cells = new LinkedHashSet<>();
+        for (double la = minLat; ; la = Math.min(maxLat, la + stepLat)) {
+            for (double lo = lon - dLon; ; lo = Math.min(lon + dLon, lo + stepLon)) {
+                cells.add(encode(Math.min(la, 89.999999), wrapLon(lo), precision));
+                if (lo >= lon + dLon) break;
+            }
+            if (la >= maxLat) break;
+        }
+        return new ArrayList<>(cells);
+    }
+
+    /** Distancia en metros (haversine); misma fórmula que la consulta de cercanía. */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static double wrapLon(double lon) {
+        if (lon < -180) return lon + 360;
+        if (lon >= 180) return lon - 360;
+        return lon;
+    }
+}
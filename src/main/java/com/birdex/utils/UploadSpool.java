@@ -0,0 +1,60 @@
+package com.birdex.utils;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Baja un upload multipart a un archivo temporal propio (Tomcat ya lo tiene en disco, así que
+ * transferTo suele ser un move). Desde ahí se hashea, se manda al worker y se sube a S3 en
+ * streaming, sin {@code getBytes()}. Quien llama borra el archivo con {@link #delete(Path)}.
+ */
+public final class UploadSpool {
+
+    private static final String PREFIX = "birdex-upload-";
+
+    private UploadSpool() {}
+
+    public static Path spool(MultipartFile file) throws IOException {
+        Path tmp = Files.createTempFile(PREFIX, suffixOf(file.getOriginalFilename()));
+        try {
+            file.transferTo(tmp);
+            return tmp;
+        } catch (IOException | RuntimeException e) {
+            delete(tmp);
+            throw e;
+        }
+    }
+
+    /** Cuerpo binario crudo (application/octet-stream): se copia en bloques al archivo temporal. */
+    public static Path spool(InputStream body, String suffix) throws IOException {
+        Path tmp = Files.createTempFile(PREFIX, suffix);
+        try {
+            Files.copy(body, tmp, StandardCopyOption.REPLACE_EXISTING);
+            return tmp;
+        } catch (IOException | RuntimeException e) {
+            delete(tmp);
+            throw e;
+        }
+    }
+
+    public static void delete(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static String suffixOf(String name) {
+        if (name == null) return ".bin";
+        int dot = name.lastIndexOf('.');
+        if (dot < 0 || dot == name.length() - 1) return ".bin";
+        String ext = name.substring(dot).toLowerCase();
+        return ext.matches("\\.[a-z0-9]{1,8}") ? ext : ".bin";
+    }
+}
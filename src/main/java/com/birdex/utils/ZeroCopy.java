@@ -0,0 +1,50 @@
+package com.birdex.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Envío de una región de un archivo sin pasar los bytes por el heap.
+ * Con Tomcat (conector NIO) se delega en su sendfile, que termina en {@link FileChannel#transferTo}
+ * directo al socket; si el conector no lo soporta se hace transferTo sobre el stream de la respuesta.
+ * El llamador ya tiene que haber puesto status y headers (salvo Content-Length, que se pone acá).
+ */
+public final class ZeroCopy {
+    private ZeroCopy() {}
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    public static void send(HttpServletRequest req, HttpServletResponse resp,
+                            Path file, long offset, long length) throws IOException {
+        resp.setContentLengthLong(length);
+        if ("HEAD".equalsIgnoreCase(req.getMethod()) || length == 0) return;
+
+        if (Boolean.TRUE.equals(req.getAttribute(SENDFILE_SUPPORT))) {
+            req.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            req.setAttribute(SENDFILE_START, offset);
+            req.setAttribute(SENDFILE_END, offset + length);
+            return;
+        }
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(resp.getOutputStream());
+            long pos = offset;
+            long end = offset + length;
+            while (pos < end) {
+                long n = ch.transferTo(pos, end - pos, out);
+                if (n <= 0) throw new IOException("No se pudo enviar " + file + " desde " + pos);
+                pos += n;
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+# -*- coding: utf-8 -*-
+"""
+Protocolo binario entre la API (Java) y los workers Python. Mismo framing en ambos sentidos:
+
+    u32 frameLen | u8 version | u8 kind/status | u64 requestId | body      (big-endian)
+
+Pedido  (kind=1 CLASSIFY):
+    u16 paramsLen | params (JSON utf-8) | u32 count | count x (u32 len | bytes)
+Respuesta (status: 0=OK, 1=BAD_REQUEST, 2=INTERNAL):
+    str error | u16 count | count x item
+    item = u8 status | str label | f64 trustLevel | u8 k | k x (str label | f64 score) | str error
+           | u32 posterLen | poster (JPEG del frame mejor puntuado en videos; 0 bytes si no hay)
+
+str = u16 len | utf-8. Espejo de com.birdex.service.WorkerProtocol.
+"""
+import os, sys, json, struct
+
+VERSION = 2
+KIND_CLASSIFY = 1
+
+STATUS_OK = 0
+STATUS_BAD_REQUEST = 1
+STATUS_INTERNAL = 2
+
+ITEM_OK = 0
+ITEM_INVALID_INPUT = 1
+ITEM_INFERENCE_ERROR = 2
+
+# stdout queda reservado para frames: cualquier print (nuestro, de torch, de ultralytics, de C)
+# termina en stderr y nunca corrompe el stream.
+_IN = sys.stdin.buffer
+_OUT = os.fdopen(os.dup(sys.stdout.fileno()), "wb")
+os.dup2(sys.stderr.fileno(), sys.stdout.fileno())
+sys.stdout = sys.stderr
+
+
+class ProtocolError(Exception):
+    def __init__(self, msg, req_id=0):
+        super().__init__(msg)
+        self.req_id = req_id
+
+
+def _read_exact(n: int) -> bytes:
+    buf = bytearray()
+    while len(buf) < n:
+        chunk = _IN.read(n - len(buf))
+        if not chunk:
+            raise EOFError("stdin cerrado")
+        buf += chunk
+    return bytes(buf)
+
+
+def read_request():
+    """Bloquea hasta el próximo pedido. Devuelve (req_id, kind, params, items). EOFError si se cerró stdin."""
+    frame_len = struct.unpack(">I", _read_exact(4))[0]
+    frame = _read_exact(frame_len)
+    if frame_len < 10:
+        raise ProtocolError(f"frame demasiado corto ({frame_len} bytes)")
+    version, kind, req_id = struct.unpack_from(">BBQ", frame, 0)
+    if version != VERSION:
+        raise ProtocolError(f"versión de protocolo no soportada: {version}", req_id)
+    try:
+        off = 10
+        (plen,) = struct.unpack_from(">H", frame, off); off += 2
+        params = json.loads(frame[off:off + plen].decode("utf-8")) if plen else {}
+        off += plen
+        (count,) = struct.unpack_from(">I", frame, off); off += 4
+        items = []
+        for _ in range(count):
+            (n,) = struct.unpack_from(">I", frame, off); off += 4
+            if off + n > len(frame):
+                raise ValueError("item truncado")
+            items.append(frame[off:off + n]); off += n
+    except Exception as e:
+        raise ProtocolError(f"pedido mal formado: {e}", req_id)
+    return req_id, kind, params, items
+
+
+def _str(s) -> bytes:
+    b = (s or "").encode("utf-8")[:0xFFFF]
+    return struct.pack(">H", len(b)) + b
+
+
+def ok_item(label: str, conf: float, topk=(), poster: bytes = b"") -> dict:
+    return {"status": ITEM_OK, "label": label, "trustLevel": conf, "topk": list(topk), "error": "",
+            "poster": poster or b""}
+
+
+def error_item(status: int, msg: str, tag: str = "WORKER") -> dict:
+    sys.stderr.write(f"[ERROR {tag}] {msg}\n"); sys.stderr.flush()
+    return {"status": status, "label": "", "trustLevel": 0.0, "topk": [], "error": msg}
+
+
+def write_reply(req_id: int, items, status: int = STATUS_OK, error: str = ""):
+    body = bytearray(_str(error))
+    body += struct.pack(">H", len(items))
+    for it in items:
+        body += struct.pack(">B", it["status"])
+        body += _str(it["label"])
+        body += struct.pack(">d", float(it["trustLevel"]))
+        topk = it.get("topk") or []
+        body += struct.pack(">B", len(topk))
+        for label, score in topk:
+            body += _str(label) + struct.pack(">d", float(score))
+        body += _str(it.get("error"))
+        poster = it.get("poster") or b""
+        body += struct.pack(">I", len(poster)) + poster
+    head = struct.pack(">BBQ", VERSION, status, req_id)
+    _OUT.write(struct.pack(">I", len(head) + len(body)) + head + body)
+    _OUT.flush()
@@ -1,5 +1,6 @@
 # -*- coding: utf-8 -*-
-import sys, os, json, struct, logging, contextlib, warnings
+import sys, os, json, logging, contextlib, warnings
+import birdex_protocol as proto  # primero: reserva stdout para los frames antes de cargar librerías
 from io import BytesIO
 from PIL import Image, ImageFile, ImageOps
 
@@ -23,6 +24,7 @@ YOLO_CONF    = float(os.getenv("YOLO_CONF", "0.20"))
 THRESHOLD    = float(os.getenv("CLS_THRESHOLD", "0.95"))  # umbral de etiqueta
 MAX_CANDIDATES = int(os.getenv("MAX_CANDIDATES", "5"))    # top-K recortes YOLO a evaluar
 PAD_RATIO      = float(os.getenv("PAD_RATIO", "0.15"))    # padding relativo alrededor del bbox
+TOP_K          = int(os.getenv("TOP_K", "3"))             # scores alternativos devueltos por imagen
 
 # Opcional: limitar threads en CPU para mejor p99 con concurrencia.
 if os.getenv("TORCH_NUM_THREADS"):
@@ -52,21 +54,6 @@ def to_stderr():
         yield
 
 # ================== Util ==================
-def err(msg: str):
-    """No derriba el worker; devuelve un JSON de error por stdout."""
-    sys.stderr.write(f"[ERROR IMG] {msg}\n")
-    sys.stderr.flush()
-    return json.dumps({"label": "error", "trustLevel": 0.0, "error": msg}, ensure_ascii=False)
-
-def read_exact(n: int) -> bytes:
-    data = b''
-    while len(data) < n:
-        chunk = sys.stdin.buffer.read(n - len(data))
-        if not chunk:
-            raise RuntimeError("stdin cerrado")
-        data += chunk
-    return data
-
 def open_image(img_bytes: bytes) -> Image.Image:
     """Abre y corrige orientación EXIF (muy común en móviles)."""
     ImageFile.LOAD_TRUNCATED_IMAGES = True
@@ -141,83 +128,114 @@ except Exception as e:
     sys.stderr.write(f"[ERROR IMG] No se pudo cargar YOLO: {e}\n"); sys.stderr.flush()
     yolo = None
 
-def classify_pil(pil_img: Image.Image):
-    """Devuelve (label, conf) para una sola imagen PIL."""
-    if clf is None:
-        return "Desconocida", 0.0
+def classify_crops(crops):
+    """
+    Clasifica una lista de recortes PIL en UN solo forward pass.
+    Devuelve [(label, conf, topk)] con topk = [(label, score)] de mayor a menor.
+    """
+    if clf is None or not crops:
+        return [("Desconocida", 0.0, [])] * len(crops)
+    k = max(1, min(TOP_K, len(classes)))
     with torch.no_grad():
-        inp = transform(pil_img).unsqueeze(0).to(DEVICE)
-        logits = clf(inp)
-        probs = torch.softmax(logits, dim=1).squeeze()
-        idx = int(torch.argmax(probs).item())
-        conf = float(probs[idx].item())
-        label = classes[idx]
-    return label, conf
-
-def classify_best(image_pil: Image.Image, max_candidates: int, pad_ratio: float):
+        inp = torch.stack([transform(c) for c in crops]).to(DEVICE)
+        probs = torch.softmax(clf(inp), dim=1)
+        confs, idxs = probs.topk(k, dim=1)
+    out = []
+    for cs, ix in zip(confs.tolist(), idxs.tolist()):
+        topk = [(classes[int(i)], float(c)) for c, i in zip(cs, ix)]
+        out.append((topk[0][0], topk[0][1], topk))
+    return out
+
+def build_candidates(image_pil: Image.Image, result, max_candidates: int, pad_ratio: float):
     """
     Genera candidatos: imagen completa + top-K boxes 'bird' (ordenadas por conf*área) con padding.
-    Devuelve la mejor predicción (label, conf).
+    `result` es la salida YOLO de esta imagen (o None si YOLO no está disponible).
     """
     W, H = image_pil.width, image_pil.height
-    candidates = [("full", image_pil)]  # siempre evaluamos la imagen completa
+    candidates = [image_pil]  # siempre evaluamos la imagen completa
+    if result is None:
+        return candidates
 
-    # Boxes YOLO
+    ranked = []
+    for b in result.boxes:
+        try:
+            cls_id = int(b.cls[0]); cls_name = yolo.names[cls_id].lower()
+        except Exception:
+            cls_name = ""
+        if cls_name == "bird":
+            x1, y1, x2, y2 = map(int, b.xyxy[0].tolist())
+            conf = float(b.conf[0].item()) if hasattr(b, "conf") else 0.0
+            area = max(1, (x2 - x1) * (y2 - y1))
+            ranked.append((conf * area, (x1, y1, x2, y2)))
+    ranked.sort(reverse=True, key=lambda t: t[0])
+    for _, (x1, y1, x2, y2) in ranked[:max_candidates]:
+        px1, py1, px2, py2 = pad_box(x1, y1, x2, y2, W, H, pad_ratio=pad_ratio)
+        candidates.append(image_pil.crop((px1, py1, px2, py2)))
+    return candidates
+
+def classify_batch(images, max_candidates: int, pad_ratio: float):
+    """
+    Pipeline batcheado: YOLO sobre todas las imágenes a la vez, luego todos los recortes
+    de todas las imágenes en un único forward del clasificador. Devuelve [(label, conf, topk)] por imagen.
+    """
+    yolo_results = [None] * len(images)
     if yolo is not None:
         with to_stderr():
-            results = yolo(image_pil, imgsz=YOLO_IMGSZ, conf=YOLO_CONF, verbose=False)
-        ranked = []
-        for r in results:
-            for b in r.boxes:
-                try:
-                    cls_id = int(b.cls[0]); cls_name = yolo.names[cls_id].lower()
-                except Exception:
-                    cls_name = ""
-                if cls_name == "bird":
-                    x1, y1, x2, y2 = map(int, b.xyxy[0].tolist())
-                    conf = float(b.conf[0].item()) if hasattr(b, "conf") else 0.0
-                    area = max(1, (x2 - x1) * (y2 - y1))
-                    score = conf * area
-                    ranked.append((score, (x1, y1, x2, y2)))
-        ranked.sort(reverse=True, key=lambda t: t[0])
-        for _, (x1, y1, x2, y2) in ranked[:max_candidates]:
-            px1, py1, px2, py2 = pad_box(x1, y1, x2, y2, W, H, pad_ratio=pad_ratio)
-            candidates.append(("yolo", image_pil.crop((px1, py1, px2, py2))))
-
-    # Clasificar todos los candidatos y quedarnos con el de mayor probabilidad
-    best_label, best_conf = "Desconocida", 0.0
-    for kind, pil_img in candidates:
-        label, conf = classify_pil(pil_img)
-        if conf > best_conf:
-            best_label, best_conf = label, conf
-    return best_label, best_conf
+            yolo_results = list(yolo(images, imgsz=YOLO_IMGSZ, conf=YOLO_CONF, verbose=False))
+
+    owners, crops = [], []
+    for i, (im, res) in enumerate(zip(images, yolo_results)):
+        for c in build_candidates(im, res, max_candidates, pad_ratio):
+            owners.append(i)
+            crops.append(c)
+
+    best = [("Desconocida", 0.0, [])] * len(images)
+    for owner, (label, conf, topk) in zip(owners, classify_crops(crops)):
+        if conf > best[owner][1]:
+            best[owner] = (label, conf, topk)
+    return best
+
+def to_item(label: str, conf: float, topk) -> dict:
+    final_label = label if conf >= THRESHOLD else "Desconocida"
+    return proto.ok_item(final_label, conf, topk)
+
+def handle(items):
+    """Abre cada imagen por separado: una imagen corrupta no tira el lote entero."""
+    results = [None] * len(items)
+    opened, positions = [], []
+    for i, raw in enumerate(items):
+        try:
+            opened.append(open_image(raw))
+            positions.append(i)
+        except Exception as e:
+            results[i] = proto.error_item(proto.ITEM_INVALID_INPUT, f"No se pudo abrir la imagen: {e}", "IMG")
+    if opened:
+        try:
+            for pos, (label, conf, topk) in zip(positions, classify_batch(opened, MAX_CANDIDATES, PAD_RATIO)):
+                results[pos] = to_item(label, conf, topk)
+        except Exception as e:
+            for pos in positions:
+                results[pos] = proto.error_item(proto.ITEM_INFERENCE_ERROR, f"Fallo de inferencia: {e}", "IMG")
+    return results
 
 # ================== Loop persistente ==================
+# Un pedido puede traer 1 imagen o un lote (micro-batching del lado Java); la respuesta
+# trae un item por imagen en el mismo orden.
 while True:
     try:
-        header = read_exact(4)
-        L = struct.unpack(">I", header)[0]
-        img_bytes = read_exact(L)
-    except Exception as e:
-        sys.stderr.write(f"[ERROR IMG] Lectura stdin: {e}\n"); sys.stderr.flush()
+        req_id, kind, params, items = proto.read_request()
+    except EOFError:
         break  # stdin cerrado: salimos
+    except proto.ProtocolError as e:
+        proto.write_reply(e.req_id, [], proto.STATUS_BAD_REQUEST, str(e))
+        continue
 
-    # Abrir imagen
-    try:
-        image = open_image(img_bytes)
-    except Exception as e:
-        out = err(f"No se pudo abrir la imagen: {e}")
-        sys.stdout.write(out + "\n"); sys.stdout.flush()
+    if kind != proto.KIND_CLASSIFY:
+        proto.write_reply(req_id, [], proto.STATUS_BAD_REQUEST, f"tipo de pedido desconocido: {kind}")
         continue
 
-    # Pipeline: YOLO (múltiples recortes con padding) + imagen completa -> mejor score
     try:
-        label, conf = classify_best(image, max_candidates=MAX_CANDIDATES, pad_ratio=PAD_RATIO)
-        final_label = label if conf >= THRESHOLD else "Desconocida"
-        out = {"label": final_label, "trustLevel": conf}
-        # ÚNICA salida por stdout (1 línea JSON)
-        sys.stdout.write(json.dumps(out, ensure_ascii=False) + "\n")
-        sys.stdout.flush()
+        proto.write_reply(req_id, handle(items))
     except Exception as e:
-        out = err(f"Fallo de inferencia: {e}")
-        sys.stdout.write(out + "\n"); sys.stdout.flush()
+        sys.stderr.write(f"[ERROR IMG] {e}\n"); sys.stderr.flush()
+        proto.write_reply(req_id, [], proto.STATUS_INTERNAL, str(e))
@@ -1,6 +1,7 @@
 # birdex_worker_video_multipart.py
 # -*- coding: utf-8 -*-
-import sys, os, json, struct, argparse, tempfile, logging, contextlib, warnings, re
+import sys, os, json, argparse, tempfile, logging, contextlib, warnings, re
+import birdex_protocol as proto  # primero: reserva stdout para los frames antes de cargar librerías
 from PIL import Image
 import cv2
 import torch
@@ -15,6 +16,7 @@ ap = argparse.ArgumentParser()
 ap.add_argument("--fps", type=int, default=1)
 ap.add_argument("--stop", type=int, default=0)
 args = ap.parse_args()
+# Defaults; cada pedido puede sobreescribirlos con params {"fps": N, "stop": bool}
 STOP_ON_FIRST = (args.stop == 1)
 TARGET_FPS = max(1, args.fps)
 
@@ -27,6 +29,7 @@ YOLO_IMGSZ   = int(os.getenv("YOLO_IMGSZ", "640"))
 YOLO_CONF    = float(os.getenv("YOLO_CONF", "0.20"))
 THRESHOLD    = float(os.getenv("CLS_THRESHOLD", "0.95"))
 MAX_SECONDS  = int(os.getenv("MAX_VIDEO_SECONDS", "15"))
+TOP_K        = int(os.getenv("TOP_K", "3"))
 
 os.environ["PYTHONWARNINGS"] = "ignore"
 os.environ["KMP_WARNINGS"] = "0"
@@ -45,19 +48,6 @@ def to_stderr():
     with contextlib.redirect_stdout(sys.stderr):
         yield
 
-def read_exact(n: int) -> bytes:
-    data = b''
-    while len(data) < n:
-        chunk = sys.stdin.buffer.read(n - len(data))
-        if not chunk:
-            raise RuntimeError("stdin cerrado")
-        data += chunk
-    return data
-
-def err_dict(msg):
-    sys.stderr.write(f"[ERROR VID MULTIPART] {msg}\n"); sys.stderr.flush()
-    return {"label": "Desconocida", "trustLevel": 0.0, "error": msg}
-
 def pick_suffix_from_bytes(b: bytes) -> str:
     try:
         if len(b) >= 12 and b[4:8] == b"ftyp":
@@ -128,7 +118,7 @@ def classify_frame(bgr):
 
     # Si no hay YOLO cargado, no clasifiques: evitamos falsos positivos
     if yolo is None or clf is None:
-        return "Desconocida", 0.0, False
+        return "Desconocida", 0.0, [], False
 
     rgb = cv2.cvtColor(bgr, cv2.COLOR_BGR2RGB)
     pil_full = Image.fromarray(rgb)
@@ -158,39 +148,54 @@ def classify_frame(bgr):
 
     # Si YOLO no encontró "bird", devolvemos desconocida
     if not found_bird:
-        return "Desconocida", 0.0, False
+        return "Desconocida", 0.0, [], False
 
     # Clasificar únicamente el recorte con pájaro
     with torch.no_grad():
         inp = transform(pil_crop).unsqueeze(0).to(DEVICE)
         logits = clf(inp)
-        probs = torch.softmax(logits, dim=1).squeeze()
-        idx = int(torch.argmax(probs).item())
-        conf = float(probs[idx].item())
+        probs = torch.softmax(logits, dim=1).squeeze(0)
+        k = max(1, min(TOP_K, len(classes)))
+        confs, idxs = probs.topk(k)
+        topk = [(classes[int(i)], float(c)) for c, i in zip(confs.tolist(), idxs.tolist())]
+        idx = int(idxs[0].item())
+        conf = float(confs[0].item())
 
     label = classes[idx] if conf >= THRESHOLD else "Desconocida"
-    return label, conf, True
+    return label, conf, topk, True
 
-while True:
+# -------------------- Poster --------------------
+POSTER_MAX_SIDE = int(os.getenv("POSTER_MAX_SIDE", "720"))
+POSTER_QUALITY  = int(os.getenv("POSTER_QUALITY", "85"))
+
+def encode_poster(bgr) -> bytes:
+    """JPEG del frame (lado mayor acotado) para usar como poster del video; b"" si falla."""
+    if bgr is None:
+        return b""
     try:
-        header = read_exact(4)
-        L = struct.unpack(">I", header)[0]
-        vid_bytes = read_exact(L)
+        h, w = bgr.shape[:2]
+        scale = POSTER_MAX_SIDE / float(max(h, w))
+        if scale < 1.0:
+            bgr = cv2.resize(bgr, (int(w * scale), int(h * scale)), interpolation=cv2.INTER_AREA)
+        ok, buf = cv2.imencode(".jpg", bgr, [int(cv2.IMWRITE_JPEG_QUALITY), POSTER_QUALITY])
+        return buf.tobytes() if ok else b""
     except Exception as e:
-        sys.stderr.write(f"[ERROR VID MULTIPART] Lectura stdin: {e}\n"); sys.stderr.flush()
-        break
+        sys.stderr.write(f"[WARN POSTER] {e}\n"); sys.stderr.flush()
+        return b""
 
+def process_video(vid_bytes: bytes, target_fps: int, stop_on_first: bool, want_poster: bool = False) -> dict:
+    # Materializar a tmp con sufijo confiable
     try:
         suffix = pick_suffix_from_bytes(vid_bytes)
         tmp = tempfile.NamedTemporaryFile(delete=False, suffix=suffix)
         tmp.write(vid_bytes); tmp.flush(); tmp.close()
         path = tmp.name
     except Exception as e:
-        out = err_dict(f"No se pudo materializar el video: {e}")
-        sys.stdout.write(json.dumps(out, ensure_ascii=False) + "\n"); sys.stdout.flush()
-        continue
+        return proto.error_item(proto.ITEM_INVALID_INPUT, f"No se pudo materializar el video: {e}", "VID MULTIPART")
 
-    best_label, best_conf = "Desconocida", 0.0
+    best_label, best_conf, best_topk = "Desconocida", 0.0, []
+    # frame mejor puntuado (poster); si ninguno puntúa, el primero muestreado
+    best_frame, first_frame = None, None
     any_bird_detected = False
 
     try:
@@ -202,7 +207,7 @@ while True:
         if native_fps <= 1e-3:
             native_fps = 25.0
 
-        stride = max(1, int(round(native_fps / TARGET_FPS)))
+        stride = max(1, int(round(native_fps / target_fps)))
         max_frames = int(MAX_SECONDS * native_fps)
 
         idx = 0
@@ -211,34 +216,53 @@ while True:
             if idx > max_frames:
                 break
             if idx % stride == 0:
-                label, conf, found_bird = classify_frame(frame)
+                if want_poster and first_frame is None:
+                    first_frame = frame.copy()
+                label, conf, topk, found_bird = classify_frame(frame)
                 if found_bird:
                     any_bird_detected = True
                     if conf > best_conf:
-                        best_label, best_conf = label, float(conf)
+                        best_label, best_conf, best_topk = label, float(conf), topk
+                        if want_poster:
+                            best_frame = frame.copy()
                     # Solo cortamos temprano si hay pájaro y pasa el umbral
-                    if STOP_ON_FIRST and best_label != "Desconocida" and best_conf >= THRESHOLD:
+                    if stop_on_first and best_label != "Desconocida" and best_conf >= THRESHOLD:
                         break
             idx += 1
             ok, frame = cap.read()
 
         cap.release()
     except Exception as e:
-        out = err_dict(f"Fallo de procesamiento de video: {e}")
-        sys.stdout.write(json.dumps(out, ensure_ascii=False) + "\n"); sys.stdout.flush()
+        return proto.error_item(proto.ITEM_INFERENCE_ERROR, f"Fallo de procesamiento de video: {e}", "VID MULTIPART")
+    finally:
         try: os.remove(path)
         except Exception: pass
-        continue
-
-    try:
-        os.remove(path)
-    except Exception:
-        pass
 
+    poster = encode_poster(best_frame if best_frame is not None else first_frame) if want_poster else b""
     # Si nunca hubo detección de "bird", devolvemos desconocida 0.0
     if not any_bird_detected:
-        best_label, best_conf = "Desconocida", 0.0
+        return proto.ok_item("Desconocida", 0.0, poster=poster)
+    return proto.ok_item(best_label, best_conf, best_topk, poster)
+
+# -------------------- Loop persistente --------------------
+while True:
+    try:
+        req_id, kind, params, items = proto.read_request()
+    except EOFError:
+        break
+    except proto.ProtocolError as e:
+        proto.write_reply(e.req_id, [], proto.STATUS_BAD_REQUEST, str(e))
+        continue
+
+    if kind != proto.KIND_CLASSIFY:
+        proto.write_reply(req_id, [], proto.STATUS_BAD_REQUEST, f"tipo de pedido desconocido: {kind}")
+        continue
 
-    out = {"label": best_label, "trustLevel": best_conf}
-    sys.stdout.write(json.dumps(out, ensure_ascii=False) + "\n")
-    sys.stdout.flush()
\ No newline at end of file
+    try:
+        fps = max(1, int(params.get("fps", TARGET_FPS)))
+        stop = bool(params.get("stop", STOP_ON_FIRST))
+        want_poster = bool(params.get("poster", False))
+        proto.write_reply(req_id, [process_video(v, fps, stop, want_poster) for v in items])
+    except Exception as e:
+        sys.stderr.write(f"[ERROR VID MULTIPART] {e}\n"); sys.stderr.flush()
+        proto.write_reply(req_id, [], proto.STATUS_INTERNAL, str(e))
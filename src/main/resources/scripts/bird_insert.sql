@@ -142,6 +142,264 @@ ALTER TABLE sightings
 CREATE INDEX IF NOT EXISTS idx_sightings_lat_lon ON sightings (latitude, longitude);
 CREATE INDEX IF NOT EXISTS idx_sightings_datetime ON sightings (date_time);
 
+-- Listados paginados por keyset sobre (date_time, sighting_id), recorridos hacia atrás
+-- (más reciente primero): búsqueda, avistajes de un usuario y de un ave.
+CREATE INDEX IF NOT EXISTS idx_sightings_feed
+    ON sightings (date_time, sighting_id) WHERE deleted = FALSE;
+CREATE INDEX IF NOT EXISTS idx_sightings_user_feed
+    ON sightings (user_id, date_time, sighting_id) WHERE deleted = FALSE;
+CREATE INDEX IF NOT EXISTS idx_sightings_bird_feed
+    ON sightings (bird_id, date_time, sighting_id) WHERE deleted = FALSE;
+
+-- ---------- SIGHTING CELLS ----------
+-- Grilla de ~250 m usada para deduplicar avistajes cercanos de la misma ave (SightingCleanupJob).
+-- Celda = (floor(lat / alto), floor(lon / ancho)), con el ancho en grados corregido por cos(lat);
+-- cell_id empaqueta x en los 32 bits altos e y en los bajos. Espejo de com.birdex.utils.GeoCells.
+CREATE OR REPLACE FUNCTION sighting_cell_x(lat NUMERIC) RETURNS BIGINT
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS
+$$ SELECT floor(lat::float8 * 111320.0 / 250.0)::bigint $$;
+
+CREATE OR REPLACE FUNCTION sighting_cell_y(lat NUMERIC, lon NUMERIC) RETURNS BIGINT
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS
+$$ SELECT floor(lon::float8 * 111320.0 * cos(radians(lat::float8)) / 250.0)::bigint $$;
+
+CREATE OR REPLACE FUNCTION sighting_cell_id(lat NUMERIC, lon NUMERIC) RETURNS BIGINT
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS
+$$ SELECT (sighting_cell_x(lat) << 32) | (sighting_cell_y(lat, lon) & 4294967295) $$;
+
+-- La API lo calcula al confirmar el avistaje; el backfill cubre los anteriores a la columna
+ALTER TABLE sightings ADD COLUMN IF NOT EXISTS cell_id BIGINT;
+
+DROP INDEX IF EXISTS idx_sightings_bird_datetime;
+CREATE INDEX IF NOT EXISTS idx_sightings_bird_cell_datetime
+    ON sightings (bird_id, cell_id, date_time DESC) WHERE deleted = FALSE;
+
+-- (ave, celda) con altas/cambios desde la última pasada del job: sólo esas se revisan.
+-- Es una cola re-derivable: si quedó con el formato anterior (cell_x/cell_y) se recrea y se
+-- vuelve a sembrar abajo.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'sighting_dirty_cells' AND column_name = 'cell_x') THEN
+        DROP TABLE sighting_dirty_cells;
+    END IF;
+END $$;
+
+CREATE TABLE IF NOT EXISTS sighting_dirty_cells (
+    bird_id   UUID      NOT NULL,
+    cell_id   BIGINT    NOT NULL,
+    marked_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (bird_id, cell_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_sighting_dirty_cells_marked ON sighting_dirty_cells (marked_at);
+
+CREATE OR REPLACE FUNCTION mark_sighting_cell_dirty() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF NEW.deleted = FALSE AND NEW.cell_id IS NOT NULL THEN
+        INSERT INTO sighting_dirty_cells (bird_id, cell_id)
+        VALUES (NEW.bird_id, NEW.cell_id)
+        ON CONFLICT (bird_id, cell_id) DO UPDATE SET marked_at = EXCLUDED.marked_at;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_sightings_mark_dirty ON sightings;
+CREATE TRIGGER trg_sightings_mark_dirty
+    AFTER INSERT OR UPDATE OF cell_id, bird_id, deleted, date_time ON sightings
+    FOR EACH ROW EXECUTE FUNCTION mark_sighting_cell_dirty();
+
+-- Avistajes sin cell_id (anteriores a la columna): el UPDATE también los marca como sucios
+UPDATE sightings
+SET cell_id = sighting_cell_id(latitude, longitude)
+WHERE cell_id IS NULL AND latitude IS NOT NULL AND longitude IS NOT NULL;
+
+-- Primera carga de la cola: una única revisión completa en la próxima pasada
+INSERT INTO sighting_dirty_cells (bird_id, cell_id)
+SELECT DISTINCT bird_id, cell_id
+FROM sightings
+WHERE deleted = FALSE AND cell_id IS NOT NULL
+ON CONFLICT (bird_id, cell_id) DO NOTHING;
+
+-- ---------- SIGHTING GEOHASH ----------
+-- Geohash (base32, 9 caracteres ~ 5 m) para GET /sighting/nearby: un radio se cubre con a lo sumo
+-- 9 prefijos y cada prefijo es un rango del índice btree. Collation "C" para que el orden sea el
+-- de los bytes (rango [prefijo, prefijo || '~') ) y el índice sirva para esas comparaciones.
+-- Espejo de com.birdex.utils.GeoHash.
+CREATE OR REPLACE FUNCTION geohash_encode(lat NUMERIC, lon NUMERIC, chars INT) RETURNS TEXT
+    LANGUAGE plpgsql IMMUTABLE PARALLEL SAFE AS
+$$
+DECLARE
+    alphabet CONSTANT TEXT := '0123456789bcdefghjkmnpqrstuvwxyz';
+    lat_min  FLOAT8 := -90;
+    lat_max  FLOAT8 := 90;
+    lon_min  FLOAT8 := -180;
+    lon_max  FLOAT8 := 180;
+    mid      FLOAT8;
+    even_bit BOOLEAN := TRUE;
+    nbits    INT := 0;
+    ch       INT := 0;
+    result   TEXT := '';
+BEGIN
+    IF lat IS NULL OR lon IS NULL THEN
+        RETURN NULL;
+    END IF;
+    WHILE length(result) < chars LOOP
+        IF even_bit THEN
+            mid := (lon_min + lon_max) / 2;
+            IF lon::float8 >= mid THEN ch := ch * 2 + 1; lon_min := mid; ELSE ch := ch * 2; lon_max := mid; END IF;
+        ELSE
+            mid := (lat_min + lat_max) / 2;
+            IF lat::float8 >= mid THEN ch := ch * 2 + 1; lat_min := mid; ELSE ch := ch * 2; lat_max := mid; END IF;
+        END IF;
+        even_bit := NOT even_bit;
+        nbits := nbits + 1;
+        IF nbits = 5 THEN
+            result := result || substr(alphabet, ch + 1, 1);
+            nbits := 0;
+            ch := 0;
+        END IF;
+    END LOOP;
+    RETURN result;
+END;
+$$;
+
+-- La API lo calcula al confirmar el avistaje; el backfill cubre los anteriores a la columna
+ALTER TABLE sightings ADD COLUMN IF NOT EXISTS geohash VARCHAR(12) COLLATE "C";
+
+UPDATE sightings
+SET geohash = geohash_encode(latitude, longitude, 9)
+WHERE geohash IS NULL AND latitude IS NOT NULL AND longitude IS NOT NULL;
+
+-- Sólo lo que devuelve la búsqueda por cercanía (confirmados y no borrados)
+CREATE INDEX IF NOT EXISTS idx_sightings_geohash
+    ON sightings (geohash) WHERE deleted = FALSE AND state = 'CONFIRMED';
+
+-- ---------- SIGHTING HEAT TILES ----------
+-- Conteo de avistajes confirmados por ave y tile web mercator de zoom 16 (~600 m), mantenido por
+-- trigger: GET /tiles/heat/{z}/{x}/{y} suma estas filas (un tile de zoom z agrupa 4^(16-z) de
+-- ellas) en lugar de recorrer sightings.
+CREATE OR REPLACE FUNCTION heat_tile_x(lon NUMERIC) RETURNS INT
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS
+$$ SELECT least(65535, greatest(0, floor((lon::float8 + 180.0) / 360.0 * 65536)))::int $$;
+
+CREATE OR REPLACE FUNCTION heat_tile_y(lat NUMERIC) RETURNS INT
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS
+$$ SELECT least(65535, greatest(0, floor(
+       (1 - ln(tan(radians(greatest(-85.05112878, least(85.05112878, lat::float8))))
+               + 1 / cos(radians(greatest(-85.05112878, least(85.05112878, lat::float8))))) / pi()) / 2 * 65536
+   )))::int $$;
+
+CREATE TABLE IF NOT EXISTS sighting_heat_tiles (
+    bird_id   UUID NOT NULL,
+    tile_x    INT  NOT NULL,
+    tile_y    INT  NOT NULL,
+    sightings INT  NOT NULL DEFAULT 0,
+    PRIMARY KEY (bird_id, tile_x, tile_y)
+);
+
+-- Sin filtro de ave: rango sobre (tile_x, tile_y)
+CREATE INDEX IF NOT EXISTS idx_sighting_heat_tiles_xy ON sighting_heat_tiles (tile_x, tile_y);
+
+CREATE OR REPLACE FUNCTION sighting_heat_apply() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE')
+       AND OLD.deleted = FALSE AND OLD.state = 'CONFIRMED'
+       AND OLD.latitude IS NOT NULL AND OLD.longitude IS NOT NULL THEN
+        UPDATE sighting_heat_tiles
+        SET sightings = sightings - 1
+        WHERE bird_id = OLD.bird_id
+          AND tile_x = heat_tile_x(OLD.longitude)
+          AND tile_y = heat_tile_y(OLD.latitude);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE')
+       AND NEW.deleted = FALSE AND NEW.state = 'CONFIRMED'
+       AND NEW.latitude IS NOT NULL AND NEW.longitude IS NOT NULL THEN
+        INSERT INTO sighting_heat_tiles (bird_id, tile_x, tile_y, sightings)
+        VALUES (NEW.bird_id, heat_tile_x(NEW.longitude), heat_tile_y(NEW.latitude), 1)
+        ON CONFLICT (bird_id, tile_x, tile_y) DO UPDATE SET sightings = sighting_heat_tiles.sightings + 1;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_sightings_heat ON sightings;
+CREATE TRIGGER trg_sightings_heat
+    AFTER INSERT OR DELETE OR UPDATE OF latitude, longitude, bird_id, deleted, state ON sightings
+    FOR EACH ROW EXECUTE FUNCTION sighting_heat_apply();
+
+-- Primera carga (sólo si la tabla está vacía; después la mantiene el trigger)
+INSERT INTO sighting_heat_tiles (bird_id, tile_x, tile_y, sightings)
+SELECT bird_id, heat_tile_x(longitude), heat_tile_y(latitude), count(*)
+FROM sightings
+WHERE deleted = FALSE AND state = 'CONFIRMED'
+  AND latitude IS NOT NULL AND longitude IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM sighting_heat_tiles)
+GROUP BY 1, 2, 3;
+
+-- ---------- SIGHTING MEDIA ----------
+-- Un registro por archivo subido al bucket de sightings: las lecturas arman las URLs desde acá
+-- sin listar el bucket ni hacer HEAD de variantes/posters.
+CREATE TABLE IF NOT EXISTS sighting_media (
+    media_id     UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    sighting_id  UUID        NOT NULL,
+    object_key   TEXT        NOT NULL,
+    kind         VARCHAR(10) NOT NULL,
+    content_type TEXT,
+    thumb_key    TEXT,
+    medium_key   TEXT,
+    poster_key   TEXT,
+    size_bytes   BIGINT,
+    created_at   TIMESTAMP   NOT NULL DEFAULT NOW(),
+    CONSTRAINT uk_sighting_media_key UNIQUE (object_key),
+    CONSTRAINT chk_sighting_media_kind CHECK (kind IN ('IMAGE', 'VIDEO', 'AUDIO')),
+    CONSTRAINT fk_sighting_media_sighting
+        FOREIGN KEY (sighting_id) REFERENCES sightings(sighting_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_sighting_media_sighting ON sighting_media (sighting_id, created_at DESC);
+
+-- ---------- JOB CHECKPOINTS ----------
+-- Progreso persistido de trabajos largos de fondo (ej. generación de thumbnails): last_key es la
+-- última clave procesada en orden, así un reinicio retoma desde ahí en lugar de empezar de cero.
+CREATE TABLE IF NOT EXISTS job_checkpoints (
+    job_name    VARCHAR(64) PRIMARY KEY,
+    status      VARCHAR(16) NOT NULL,
+    last_key    TEXT,
+    processed   INT         NOT NULL DEFAULT 0,
+    total       INT         NOT NULL DEFAULT 0,
+    updated_at  TIMESTAMP   NOT NULL DEFAULT NOW(),
+    CONSTRAINT chk_job_checkpoints_status CHECK (status IN ('RUNNING', 'DONE'))
+);
+
+-- ---------- OUTBOX ----------
+-- Eventos de dominio escritos en la misma transacción que el cambio que los origina (patrón
+-- outbox). SightingConfirmed dispara puntos, misiones y logros fuera del request: un consumidor
+-- toma cada evento con FOR UPDATE SKIP LOCKED y aplica sus efectos y el DONE en una sola
+-- transacción, así un reintento nunca los aplica dos veces.
+CREATE TABLE IF NOT EXISTS outbox_events (
+    event_id     UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    event_type   VARCHAR(40) NOT NULL,
+    aggregate_id UUID        NOT NULL,
+    status       VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    attempts     INT         NOT NULL DEFAULT 0,
+    last_error   TEXT,
+    available_at TIMESTAMP   NOT NULL DEFAULT NOW(),
+    created_at   TIMESTAMP   NOT NULL DEFAULT NOW(),
+    processed_at TIMESTAMP,
+    CONSTRAINT chk_outbox_events_status CHECK (status IN ('PENDING', 'DONE', 'FAILED')),
+    -- un evento por tipo y agregado (p. ej. una sola confirmación por avistaje)
+    CONSTRAINT uk_outbox_events_type_aggregate UNIQUE (event_type, aggregate_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending
+    ON outbox_events (available_at) WHERE status = 'PENDING';
+
 -- ---------- REPORTS ----------
 CREATE TABLE IF NOT EXISTS reports (
     id                  UUID PRIMARY KEY DEFAULT gen_random_uuid(),
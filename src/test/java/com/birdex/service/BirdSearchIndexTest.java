@@ -0,0 +1,97 @@
+package com.birdex.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BirdSearchIndexTest {
+
+    // posiciones 0..3 en el orden del catálogo
+    private static final List<BirdCatalog.Entry> BIRDS = List.of(
+            bird("Ave a", "Común", "Pequeño", 100, 150, 10, 20, "Amarillo", "Negro"),
+            bird("Ave b", "Común", "Grande", 400, 500, 1000, 2000, "Negro"),
+            bird("Ave c", "Raro", "Pequeño", 120, 130, null, null, "Amarillo"),
+            bird("Desconocida", "Común", "Pequeño", 100, 150, 10, 20, "Amarillo")
+    );
+
+    private final BirdSearchIndex index = new BirdSearchIndex(BIRDS);
+
+    @Test
+    void sinFiltrosDevuelveTodoMenosLaDesconocida() {
+        assertEquals(bits(0, 1, 2), index.match(query(null, null, null)));
+    }
+
+    @Test
+    void textoSinDistinguirMayusculasNiAcentos() {
+        assertEquals(bits(0, 1), index.match(query("COMUN", null, null)));
+        assertEquals(bits(0, 2), index.match(query(null, "  amarillo ", "pequeno")));
+    }
+
+    @Test
+    void valorDesconocidoNoDevuelveNada() {
+        assertTrue(index.match(query("Legendario", null, null)).isEmpty());
+    }
+
+    @Test
+    void rangosSeSolapanConElDelAve() {
+        // lengthMin=140: aves cuyo máximo llega a 140
+        assertEquals(bits(0, 1), index.match(new BirdSearchIndex.Query(null, null, null, 140, null, null, null)));
+        // lengthMax=110: aves cuyo mínimo no pasa de 110
+        assertEquals(bits(0), index.match(new BirdSearchIndex.Query(null, null, null, null, 110, null, null)));
+        // límites inclusivos
+        assertEquals(bits(0, 2), index.match(new BirdSearchIndex.Query(null, null, null, 130, 130, null, null)));
+    }
+
+    @Test
+    void aveSinPesoQuedaAfueraDeUnFiltroPorPeso() {
+        assertEquals(bits(0, 1), index.match(new BirdSearchIndex.Query(null, null, null, null, null, 1, null)));
+        assertEquals(bits(0), index.match(new BirdSearchIndex.Query(null, null, null, null, null, null, 20)));
+    }
+
+    @Test
+    void facetasDisyuntivasIgnoranSuPropioFiltro() {
+        BirdSearchIndex.Facets f = index.facets(query("Común", "Amarillo", null));
+
+        assertEquals(1, f.total());
+        // rareza: sólo con el filtro de color
+        assertEquals(Map.of("Común", 1, "Raro", 1), f.rarity());
+        // color: sólo con el filtro de rareza
+        assertEquals(Map.of("Amarillo", 1, "Negro", 2), f.color());
+        // tamaño: con los dos filtros
+        assertEquals(Map.of("Grande", 0, "Pequeño", 1), f.size());
+    }
+
+    @Test
+    void facetasAplicanLosRangosATodas() {
+        BirdSearchIndex.Facets f = index.facets(new BirdSearchIndex.Query(null, null, null, 300, null, null, null));
+
+        assertEquals(1, f.total());
+        assertEquals(Map.of("Común", 1, "Raro", 0), f.rarity());
+        assertEquals(Map.of("Amarillo", 0, "Negro", 1), f.color());
+    }
+
+    private static BirdSearchIndex.Query query(String rarity, String color, String size) {
+        return new BirdSearchIndex.Query(rarity, color, size, null, null, null, null);
+    }
+
+    private static BitSet bits(int... positions) {
+        BitSet out = new BitSet();
+        for (int p : positions) out.set(p);
+        return out;
+    }
+
+    private static BirdCatalog.Entry bird(String name, String rarity, String size,
+                                          Integer lengthMin, Integer lengthMax,
+                                          Integer weightMin, Integer weightMax,
+                                          String... colors) {
+        return new BirdCatalog.Entry(UUID.randomUUID(), name, name, name.toLowerCase().replace(' ', '_'), size,
+                lengthMin, lengthMax, weightMin, weightMax, null, null, null, rarity,
+                List.of(colors), Map.of(), List.of());
+    }
+}
@@ -0,0 +1,182 @@
+package com.birdex.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkerProtocolTest {
+
+    @Test
+    void pedidoConFramingCompleto() throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        WorkerProtocol.writeRequest(new DataOutputStream(buf), 42L, "{\"fps\":1}",
+                List.of(WorkerPayload.of(new byte[]{1, 2, 3}), WorkerPayload.of(new byte[0])));
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buf.toByteArray()));
+        assertEquals(buf.size() - 4, in.readInt());
+        assertEquals(WorkerProtocol.VERSION, in.readUnsignedByte());
+        assertEquals(WorkerProtocol.KIND_CLASSIFY, in.readUnsignedByte());
+        assertEquals(42L, in.readLong());
+        byte[] params = new byte[in.readUnsignedShort()];
+        in.readFully(params);
+        assertEquals("{\"fps\":1}", new String(params, StandardCharsets.UTF_8));
+        assertEquals(2, in.readInt());
+        assertEquals(3, in.readInt());
+        assertArrayEquals(new byte[]{1, 2, 3}, in.readNBytes(3));
+        assertEquals(0, in.readInt());
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    void respuestaConItemsYPoster() throws IOException {
+        byte[] poster = {(byte) 0xFF, (byte) 0xD8, 7};
+        byte[] frame = frame(WorkerProtocol.VERSION, 7L, out -> {
+            str(out, "");
+            out.writeShort(2);
+            item(out, WorkerProtocol.ITEM_OK, "Turdus rufiventris", 0.91,
+                    List.of(new WorkerProtocol.Score("Turdus rufiventris", 0.91), new WorkerProtocol.Score("Turdus amaurochalinus", 0.05)),
+                    "", poster);
+            item(out, WorkerProtocol.ITEM_INVALID_INPUT, "", 0, List.of(), "imagen ilegible", null);
+        });
+
+        WorkerProtocol.Reply reply = WorkerProtocol.readReply(stream(frame));
+
+        assertTrue(reply.ok());
+        assertEquals(7L, reply.requestId());
+        assertEquals(2, reply.items().size());
+        WorkerProtocol.Prediction first = reply.items().get(0);
+        assertTrue(first.ok());
+        assertEquals("Turdus rufiventris", first.label());
+        assertEquals(0.91, first.trustLevel());
+        assertEquals(2, first.topK().size());
+        assertEquals("Turdus amaurochalinus", first.topK().get(1).label());
+        assertArrayEquals(poster, first.poster());
+        WorkerProtocol.Prediction second = reply.items().get(1);
+        assertEquals(WorkerProtocol.ITEM_INVALID_INPUT, second.status());
+        assertEquals("imagen ilegible", second.error());
+        assertNull(second.poster());
+    }
+
+    @Test
+    void withoutPosterConservaElResto() {
+        WorkerProtocol.Prediction p = new WorkerProtocol.Prediction(WorkerProtocol.ITEM_OK, "x", 0.5,
+                List.of(), "", new byte[]{1});
+        WorkerProtocol.Prediction stripped = p.withoutPoster();
+        assertNull(stripped.poster());
+        assertEquals(p.label(), stripped.label());
+        assertEquals(p.trustLevel(), stripped.trustLevel());
+        assertSame(stripped, stripped.withoutPoster());
+    }
+
+    @Test
+    void versionDistintaSeRechaza() throws IOException {
+        byte[] frame = frame(WorkerProtocol.VERSION + 1, 1L, out -> {
+            str(out, "");
+            out.writeShort(0);
+        });
+        assertThrows(IOException.class, () -> WorkerProtocol.readReply(stream(frame)));
+    }
+
+    @Test
+    void largoDeFrameInvalido() {
+        byte[] tooShort = {0, 0, 0, 3, 2, 0, 0};
+        assertThrows(IOException.class, () -> WorkerProtocol.readReply(stream(tooShort)));
+        byte[] tooLong = {0x7F, 0, 0, 0};
+        assertThrows(IOException.class, () -> WorkerProtocol.readReply(stream(tooLong)));
+    }
+
+    @Test
+    void streamCerradoEsEof() {
+        assertThrows(EOFException.class, () -> WorkerProtocol.readReply(stream(new byte[0])));
+    }
+
+    @Test
+    void bodyTruncadoNoDesincronizaElStream() throws IOException {
+        // poster declarado más largo que lo que queda del frame
+        byte[] broken = frame(WorkerProtocol.VERSION, 1L, out -> {
+            str(out, "");
+            out.writeShort(1);
+            out.writeByte(WorkerProtocol.ITEM_OK);
+            str(out, "x");
+            out.writeDouble(0.5);
+            out.writeByte(0);
+            str(out, "");
+            out.writeInt(1000);
+        });
+        byte[] next = frame(WorkerProtocol.VERSION, 2L, out -> {
+            str(out, "");
+            out.writeShort(0);
+        });
+        byte[] both = new byte[broken.length + next.length];
+        System.arraycopy(broken, 0, both, 0, broken.length);
+        System.arraycopy(next, 0, both, broken.length, next.length);
+
+        DataInputStream in = stream(both);
+        assertThrows(EOFException.class, () -> WorkerProtocol.readReply(in));
+        assertEquals(2L, WorkerProtocol.readReply(in).requestId());
+    }
+
+    /* ============== helpers ============== */
+
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] frame(int version, long requestId, Body body) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream p = new DataOutputStream(payload);
+        p.writeByte(version);
+        p.writeByte(WorkerProtocol.STATUS_OK);
+        p.writeLong(requestId);
+        body.write(p);
+
+        ByteArrayOutputStream framed = new ByteArrayOutputStream();
+        DataOutputStream f = new DataOutputStream(framed);
+        f.writeInt(payload.size());
+        f.write(payload.toByteArray());
+        return framed.toByteArray();
+    }
+
+    private static void item(DataOutputStream out, int status, String label, double trust,
+                             List<WorkerProtocol.Score> topK, String error, byte[] poster) throws IOException {
+        out.writeByte(status);
+        str(out, label);
+        out.writeDouble(trust);
+        out.writeByte(topK.size());
+        for (WorkerProtocol.Score s : topK) {
+            str(out, s.label());
+            out.writeDouble(s.score());
+        }
+        str(out, error);
+        if (poster == null) {
+            out.writeInt(0);
+        } else {
+            out.writeInt(poster.length);
+            out.write(poster);
+        }
+    }
+
+    private static void str(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(b.length);
+        out.write(b);
+    }
+
+    private static DataInputStream stream(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+}
@@ -0,0 +1,63 @@
+package com.birdex.utils;
+
+import com.birdex.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FeedCursorTest {
+
+    @Test
+    void idaYVuelta() {
+        FeedCursor cursor = new FeedCursor(LocalDateTime.of(2025, 9, 14, 18, 30, 5, 123_456_789), UUID.randomUUID());
+        assertEquals(cursor, FeedCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void idaYVueltaAntesDe1970() {
+        FeedCursor cursor = new FeedCursor(LocalDateTime.of(1969, 12, 31, 23, 59, 59), new UUID(0, 0));
+        assertEquals(cursor, FeedCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void codificacionAptaParaUrl() {
+        FeedCursor cursor = new FeedCursor(LocalDateTime.of(2025, 1, 1, 0, 0), new UUID(-1L, -1L));
+        String encoded = cursor.encode();
+        assertFalse(encoded.contains("+") || encoded.contains("/") || encoded.contains("="), encoded);
+    }
+
+    @Test
+    void vacioEsPrimeraPagina() {
+        assertNull(FeedCursor.decode(null));
+        assertNull(FeedCursor.decode(""));
+        assertNull(FeedCursor.decode("   "));
+    }
+
+    @Test
+    void cursorMalFormado() {
+        assertThrows(InvalidCursorException.class, () -> FeedCursor.decode("no es base64!"));
+        // base64 válido, largo incorrecto
+        assertThrows(InvalidCursorException.class, () -> FeedCursor.decode("AAAA"));
+        String valid = new FeedCursor(LocalDateTime.of(2025, 1, 1, 0, 0), UUID.randomUUID()).encode();
+        assertThrows(InvalidCursorException.class, () -> FeedCursor.decode(valid.substring(1)));
+    }
+
+    @Test
+    void fechaFueraDeRango() {
+        byte[] raw = ByteBuffer.allocate(28).putLong(Long.MAX_VALUE).putInt(0).putLong(1).putLong(2).array();
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        assertThrows(InvalidCursorException.class, () -> FeedCursor.decode(encoded));
+
+        byte[] badNanos = ByteBuffer.allocate(28).putLong(0).putInt(-1).putLong(1).putLong(2).array();
+        String encodedNanos = Base64.getUrlEncoder().withoutPadding().encodeToString(badNanos);
+        assertThrows(InvalidCursorException.class, () -> FeedCursor.decode(encodedNanos));
+    }
+}
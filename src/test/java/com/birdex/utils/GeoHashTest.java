@@ -0,0 +1,77 @@
+package com.birdex.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoHashTest {
+
+    @Test
+    void encodeValorConocido() {
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+        assertEquals("69y7pkxfd", GeoHash.encode(-34.603722, -58.381592, GeoHash.STORED_PRECISION));
+    }
+
+    @Test
+    void encodeDesdeBigDecimalUsaLaPrecisionGuardada() {
+        String hash = GeoHash.encode(new BigDecimal("-34.603722"), new BigDecimal("-58.381592"));
+        assertEquals(GeoHash.STORED_PRECISION, hash.length());
+        assertNull(GeoHash.encode(null, BigDecimal.ONE));
+    }
+
+    @Test
+    void coberturaIncluyeElCirculoCompleto() {
+        assertCovers(-34.603722, -58.381592, 2_000);
+        assertCovers(-34.603722, -58.381592, 50_000);
+    }
+
+    @Test
+    void coberturaEnElBordeDeCeldas() {
+        // (0, 0) es la esquina común de cuatro celdas en cualquier precisión
+        assertCovers(0, 0, 500);
+        List<String> cells = GeoHash.covering(0, 0, 500);
+        assertTrue(cells.size() >= 4, "se esperaban las cuatro celdas vecinas: " + cells);
+    }
+
+    @Test
+    void coberturaCruzaElAntimeridiano() {
+        assertCovers(-16.5, 179.999, 1_000);
+        assertCovers(-16.5, -179.999, 1_000);
+    }
+
+    @Test
+    void coberturaEsAcotada() {
+        assertTrue(GeoHash.covering(-34.6, -58.4, 1_000).size() <= 9);
+        assertTrue(GeoHash.covering(60.0, 25.0, 10_000).size() <= 9);
+    }
+
+    @Test
+    void distanciaHaversine() {
+        assertEquals(0, GeoHash.distanceMeters(-34.6, -58.4, -34.6, -58.4), 1e-9);
+        // un grado de latitud
+        assertEquals(111_195, GeoHash.distanceMeters(0, 0, 1, 0), 1);
+    }
+
+    /** Puntos del borde (apenas adentro) en 32 direcciones: todos caen en algún prefijo. */
+    private static void assertCovers(double lat, double lon, double radius) {
+        List<String> cells = GeoHash.covering(lat, lon, radius);
+        double r = radius * 0.999;
+        for (int i = 0; i < 32; i++) {
+            double angle = 2 * Math.PI * i / 32;
+            double pLat = lat + r * Math.cos(angle) / 111_320.0;
+            double pLon = lon + r * Math.sin(angle) / (111_320.0 * Math.cos(Math.toRadians(lat)));
+            if (pLon >= 180) pLon -= 360;
+            if (pLon < -180) pLon += 360;
+            String hash = GeoHash.encode(pLat, pLon, GeoHash.STORED_PRECISION);
+            assertTrue(cells.stream().anyMatch(hash::startsWith),
+                    "(" + pLat + ", " + pLon + ") = " + hash + " fuera de " + cells);
+        }
+        String center = GeoHash.encode(lat, lon, GeoHash.STORED_PRECISION);
+        assertTrue(cells.stream().anyMatch(center::startsWith));
+    }
+}